@@ -0,0 +1,99 @@
+package com.bank.comun.web;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Con hilos virtuales no hay pool de Tomcat que limite la concurrencia: deja pasar tantas
+ * solicitudes como {@code permisos} (las conexiones de Hikari que quedan para las solicitudes; con
+ * open-in-view cada una retiene una) y el resto espera en una cola justa hasta {@code espera};
+ * después responde 503.
+ * <p>
+ * Una respuesta asíncrona ({@code StreamingResponseBody}, {@code DeferredResult}, ...) sigue usando
+ * su conexión después de que vuelve la cadena de filtros: en ese caso el permiso se devuelve cuando
+ * el contexto asíncrono termina, no antes. Los despachos asíncronos no vuelven a pasar por el filtro.
+ */
+public class LimiteConexionesFilter extends OncePerRequestFilter {
+
+    private final Semaphore permisos;
+    private final long esperaMs;
+
+    public LimiteConexionesFilter(int permisos, Duration espera) {
+        this.permisos = new Semaphore(Math.max(1, permisos), true);
+        this.esperaMs = espera.toMillis();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean adquirido;
+        try {
+            adquirido = permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            adquirido = false;
+        }
+        if (!adquirido) {
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Sin conexiones disponibles");
+            return;
+        }
+        var permiso = new Permiso();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permiso);
+            } else {
+                permiso.liberar();
+            }
+        }
+    }
+
+    /** Devuelve el permiso una sola vez, venga del fin de la cadena o del contexto asíncrono. */
+    private final class Permiso implements AsyncListener {
+
+        private final AtomicBoolean liberado = new AtomicBoolean();
+
+        void liberar() {
+            if (liberado.compareAndSet(false, true)) permisos.release();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Un nuevo ciclo asíncrono reemplaza la lista de listeners: hay que seguir escuchando.
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.comun;
+
+import com.bank.comun.web.LimiteConexionesFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LimiteConexionesFilterTest {
+
+    @Test
+    @DisplayName("Con todas las conexiones ocupadas la solicitud espera y luego responde 503")
+    void rechaza_cuando_no_hay_conexiones() throws Exception {
+        var filtro = new LimiteConexionesFilter(1, Duration.ofMillis(100));
+        var ocupada = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+        var pool = Executors.newSingleThreadExecutor();
+        var primera = pool.submit(() -> {
+            filtro.doFilter(new MockHttpServletRequest("POST", "/movimientos"), new MockHttpServletResponse(), (req, res) -> {
+                ocupada.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            return null;
+        });
+        ocupada.await(5, TimeUnit.SECONDS);
+
+        var rechazada = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("POST", "/movimientos"), rechazada, (req, res) -> {});
+        assertEquals(503, rechazada.getStatus());
+
+        var actuator = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), actuator, (req, res) -> {});
+        assertEquals(200, actuator.getStatus());
+
+        liberar.countDown();
+        primera.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        var aceptada = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("POST", "/movimientos"), aceptada, (req, res) -> {});
+        assertEquals(200, aceptada.getStatus());
+    }
+
+    @Test
+    @DisplayName("Una respuesta asíncrona retiene el permiso hasta que termina su contexto")
+    void respuesta_asincrona_retiene_el_permiso() throws Exception {
+        var filtro = new LimiteConexionesFilter(1, Duration.ofMillis(50));
+        var streaming = new MockHttpServletRequest("GET", "/reportes/detalle/stream");
+        streaming.setAsyncSupported(true);
+        filtro.doFilter(streaming, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        var mientras = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("POST", "/movimientos"), mientras, (req, res) -> {});
+        assertEquals(503, mientras.getStatus());
+
+        streaming.getAsyncContext().complete();
+        var despues = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("POST", "/movimientos"), despues, (req, res) -> {});
+        assertEquals(200, despues.getStatus());
+    }
+}
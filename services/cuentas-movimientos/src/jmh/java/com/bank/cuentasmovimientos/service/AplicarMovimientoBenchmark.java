@@ -0,0 +1,53 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** Costo de MovimientoService.aplicar con el motor de entidades sobre repositorios en memoria. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AplicarMovimientoBenchmark {
+
+    private static final BigDecimal VALOR = new BigDecimal("1.00");
+
+    private MovimientoService service;
+    private UUID cuentaId;
+    private MovimientoRequest repetido;
+    private long secuencia;
+
+    @Setup
+    public void preparar() {
+        var repos = RepositoriosEnMemoria.conMovimientos(1, 0);
+        service = repos.servicio();
+        cuentaId = repos.cuentas.keySet().iterator().next();
+        repetido = new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, VALOR, "bench", "repetido");
+        service.aplicar(repetido);
+    }
+
+    @Benchmark
+    public MovimientoResponse credito() {
+        return service.aplicar(new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, VALOR, "bench", "c-" + secuencia++));
+    }
+
+    @Benchmark
+    public MovimientoResponse debito() {
+        // Cada débito compensa con un crédito previo para que el saldo nunca se agote.
+        service.aplicar(new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, VALOR, "bench", "dc-" + secuencia++));
+        return service.aplicar(new MovimientoRequest(cuentaId, TipoMovimiento.DEBITO, VALOR, "bench", "d-" + secuencia++));
+    }
+
+    @Benchmark
+    public MovimientoResponse replayIdempotente() {
+        return service.aplicar(repetido);
+    }
+}
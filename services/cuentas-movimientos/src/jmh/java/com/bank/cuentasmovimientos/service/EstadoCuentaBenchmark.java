@@ -0,0 +1,115 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.Cuenta;
+import com.bank.cuentasmovimientos.domain.Movimiento;
+import com.bank.cuentasmovimientos.domain.TipoCuenta;
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.ReporteEstadoCuentaResponse;
+import com.bank.cuentasmovimientos.repository.CuentaInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Plegado de una pasada frente al agrupado por entidad Cuenta que usaba obtenerEstadoCuenta,
+ * cada uno con la entrada en el orden que le entrega su consulta.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EstadoCuentaBenchmark {
+
+    private static final int CUENTAS = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    public int movimientos;
+
+    private List<Movimiento> porCuenta;
+    private final Map<UUID, CuentaInfo> infoCuentas = new HashMap<>();
+    private List<Movimiento> recientesPrimero;
+
+    @Setup
+    public void preparar() {
+        var random = new Random(42);
+        var inicio = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        porCuenta = new ArrayList<>(movimientos);
+        for (int c = 0; c < CUENTAS; c++) {
+            var cuenta = Cuenta.builder().id(new UUID(0, c)).numero("B-" + c).tipo(TipoCuenta.AHORROS).build();
+            infoCuentas.put(cuenta.getId(), CuentaInfo.de(cuenta));
+            BigDecimal saldo = BigDecimal.valueOf(1_000_000, 2);
+            int cantidad = movimientos / CUENTAS;
+            for (int i = 0; i < cantidad; i++) {
+                var tipo = random.nextInt(3) == 0 ? TipoMovimiento.DEBITO : TipoMovimiento.CREDITO;
+                var valor = BigDecimal.valueOf(1 + random.nextInt(10_000), 2);
+                saldo = tipo == TipoMovimiento.CREDITO ? saldo.add(valor) : saldo.subtract(valor);
+                porCuenta.add(Movimiento.builder()
+                        .id(new UUID(c, i)).cuenta(cuenta).fecha(inicio.plusSeconds(i)).tipo(tipo)
+                        .valor(valor).saldoPosterior(saldo).referencia("bench").build());
+            }
+        }
+        recientesPrimero = new ArrayList<>(porCuenta);
+        recientesPrimero.sort(Comparator.comparing(Movimiento::getFecha).thenComparing(Movimiento::getId).reversed());
+    }
+
+    @Benchmark
+    public List<ReporteEstadoCuentaResponse.CuentaDetalle> plegado() {
+        var estado = new EstadoCuentaPlegado(id -> Optional.ofNullable(infoCuentas.get(id)));
+        porCuenta.forEach(estado);
+        return estado.terminar().getCuentas();
+    }
+
+    @Benchmark
+    public List<ReporteEstadoCuentaResponse.CuentaDetalle> agrupadoAnterior() {
+        Map<Cuenta, List<Movimiento>> agrupadoPorCuenta = recientesPrimero.stream()
+                .collect(Collectors.groupingBy(Movimiento::getCuenta));
+
+        List<ReporteEstadoCuentaResponse.CuentaDetalle> cuentas = new ArrayList<>();
+        for (Map.Entry<Cuenta, List<Movimiento>> entry : agrupadoPorCuenta.entrySet()) {
+            Cuenta cuenta = entry.getKey();
+            List<Movimiento> movs = entry.getValue();
+
+            movs.sort(Comparator.comparing(Movimiento::getFecha));
+
+            BigDecimal saldoInicial = movs.get(0).getSaldoPosterior();
+            BigDecimal sumCreditos = movs.stream()
+                    .filter(m -> m.getTipo().equals(TipoMovimiento.CREDITO))
+                    .map(Movimiento::getValor)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal sumDebitos = movs.stream()
+                    .filter(m -> m.getTipo().equals(TipoMovimiento.DEBITO))
+                    .map(Movimiento::getValor)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal saldoFinal = movs.get(movs.size() - 1).getSaldoPosterior();
+
+            List<ReporteEstadoCuentaResponse.MovimientoDetalle> detalleMovs = movs.stream()
+                    .map(m -> ReporteEstadoCuentaResponse.MovimientoDetalle.builder()
+                            .tipo(String.valueOf(m.getTipo()))
+                            .valor(m.getValor())
+                            .saldoDisponible(m.getSaldoPosterior())
+                            .referencia(m.getReferencia())
+                            .fecha(m.getFecha().toLocalDateTime())
+                            .build())
+                    .toList();
+
+            cuentas.add(ReporteEstadoCuentaResponse.CuentaDetalle.builder()
+                    .cuentaId(cuenta.getId())
+                    .numero(cuenta.getNumero())
+                    .tipo(String.valueOf(cuenta.getTipo()))
+                    .saldoInicial(saldoInicial)
+                    .totalCreditos(sumCreditos)
+                    .totalDebitos(sumDebitos)
+                    .saldoFinal(saldoFinal)
+                    .movimientos(detalleMovs)
+                    .build());
+        }
+        return cuentas;
+    }
+}
@@ -0,0 +1,54 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.dto.ReporteDetalleDTO;
+import com.bank.cuentasmovimientos.dto.ReporteEstadoCuentaResponse;
+import com.bank.cuentasmovimientos.dto.ReporteResumenDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReporteMovimientosService sobre repositorios en memoria. El resumen lo agrega el fake,
+ * igual que lo haría la base, así que ese número incluye el agregado y no solo el servicio.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReportesBenchmark {
+
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2025, 12, 31);
+
+    @Param({"1000", "100000", "1000000"})
+    public int movimientos;
+
+    @Param({"10"})
+    public int cuentas;
+
+    private ReporteMovimientosService service;
+
+    @Setup
+    public void preparar() {
+        service = RepositoriosEnMemoria.conMovimientos(cuentas, movimientos).reportes();
+    }
+
+    @Benchmark
+    public ReporteResumenDTO resumen() {
+        return service.obtenerResumen(RepositoriosEnMemoria.CLIENTE, INICIO, FIN);
+    }
+
+    @Benchmark
+    public List<ReporteDetalleDTO> detalle() {
+        return service.obtenerDetalle(RepositoriosEnMemoria.CLIENTE, INICIO, FIN);
+    }
+
+    @Benchmark
+    public ReporteEstadoCuentaResponse estadoCuenta() {
+        return service.obtenerEstadoCuenta(RepositoriosEnMemoria.CLIENTE, INICIO, FIN);
+    }
+}
@@ -0,0 +1,169 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.Cuenta;
+import com.bank.cuentasmovimientos.domain.Movimiento;
+import com.bank.cuentasmovimientos.domain.TipoCuenta;
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.repository.CuentaInfo;
+import com.bank.cuentasmovimientos.repository.CuentaRepo;
+import com.bank.cuentasmovimientos.repository.MovimientoRepo;
+import com.bank.cuentasmovimientos.repository.ResumenCuenta;
+import com.bank.cuentasmovimientos.repository.SaldoDiarioRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Repositorios respaldados por colecciones en memoria para los benchmarks: solo implementan los
+ * métodos que usan MovimientoService y ReporteMovimientosService, así que lo medido es el costo del
+ * servicio sin la base.
+ */
+final class RepositoriosEnMemoria {
+
+    static final UUID CLIENTE = new UUID(0, 0);
+
+    final Map<UUID, Cuenta> cuentas = new HashMap<>();
+    final Map<String, Movimiento> porClave = new HashMap<>();
+    /** Ordenados por cuenta y fecha ascendente, como los recorre el estado de cuenta. */
+    final List<Movimiento> movimientos = new ArrayList<>();
+
+    static RepositoriosEnMemoria conMovimientos(int cantidadCuentas, int cantidadMovimientos) {
+        var repos = new RepositoriosEnMemoria();
+        var random = new Random(42);
+        var inicio = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int c = 0; c < cantidadCuentas; c++) {
+            var cuenta = Cuenta.builder().id(new UUID(1, c)).numero("B-" + c).tipo(TipoCuenta.AHORROS)
+                    .saldoInicial(BigDecimal.ZERO).saldo(BigDecimal.valueOf(1_000_000, 2))
+                    .estado("ACTIVA").clienteId(CLIENTE).build();
+            repos.cuentas.put(cuenta.getId(), cuenta);
+            for (int i = 0; i < cantidadMovimientos / cantidadCuentas; i++) {
+                var tipo = random.nextInt(3) == 0 ? TipoMovimiento.DEBITO : TipoMovimiento.CREDITO;
+                var valor = BigDecimal.valueOf(1 + random.nextInt(10_000), 2);
+                cuenta.setSaldo(tipo == TipoMovimiento.CREDITO ? cuenta.getSaldo().add(valor) : cuenta.getSaldo().subtract(valor));
+                var m = Movimiento.builder().id(new UUID(c, i)).cuenta(cuenta).fecha(inicio.plusSeconds(i)).tipo(tipo)
+                        .valor(valor).saldoPosterior(cuenta.getSaldo()).referencia("bench").idempotencyKey(c + "-" + i).build();
+                repos.movimientos.add(m);
+                repos.porClave.put(m.getIdempotencyKey(), m);
+            }
+        }
+        return repos;
+    }
+
+    MovimientoService servicio() {
+        var transacciones = new TransactionTemplate(new SinTransaccion());
+        var cuentaLocks = new CuentaLocks(256, 3, 0);
+        var movRepo = movimientoRepo();
+        var cuentaRepo = cuentaRepo();
+        return new MovimientoService(new MotorEntidad(cuentaRepo, movRepo, saldosDiarios(cuentaLocks, transacciones)), cuentaLocks,
+                transacciones, new IdempotenciaCache(100_000, java.time.Duration.ofMinutes(10)),
+                new MetricasMovimientos(new SimpleMeterRegistry()), new CuentaInfoCache(cuentaRepo, 100_000, java.time.Duration.ofMinutes(10)),
+                mock(LedgerCuentasCalientes.class), mock(AgrupadorCommits.class),
+                new MovimientosRegistrados(movRepo, mock(ArchivoMovimientos.class)));
+    }
+
+    ReporteMovimientosService reportes() {
+        var transacciones = new TransactionTemplate(new SinTransaccion());
+        var directorio = mock(DirectorioClientes.class);
+        when(directorio.nombre(CLIENTE)).thenReturn("Cliente benchmark");
+        var cuentaRepo = cuentaRepo();
+        return new ReporteMovimientosService(movimientoRepo(), cuentaRepo, transacciones,
+                saldosDiarios(new CuentaLocks(256, 3, 0), transacciones), directorio,
+                new MetricasMovimientos(new SimpleMeterRegistry()), new CuentaInfoCache(cuentaRepo, 100_000, java.time.Duration.ofMinutes(10)),
+                mock(ArchivoMovimientos.class));
+    }
+
+    private SaldoDiarioService saldosDiarios(CuentaLocks cuentaLocks, TransactionTemplate transacciones) {
+        return new SaldoDiarioService(saldoDiarioRepo(), null, cuentaLocks, transacciones, mock(ArchivoMovimientos.class));
+    }
+
+    CuentaRepo cuentaRepo() {
+        return proxy(CuentaRepo.class, (metodo, args) -> switch (metodo) {
+            case "findByIdForUpdate", "findById" -> Optional.ofNullable(cuentas.get((UUID) args[0]));
+            case "findInfoById" -> Optional.ofNullable(cuentas.get((UUID) args[0])).map(CuentaInfo::de);
+            default -> throw new UnsupportedOperationException(metodo);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    MovimientoRepo movimientoRepo() {
+        return proxy(MovimientoRepo.class, (metodo, args) -> switch (metodo) {
+            case "findByIdempotencyKey" -> Optional.ofNullable(porClave.get((String) args[0]));
+            // No retiene lo guardado para que los benchmarks de escritura no crezcan sin límite.
+            case "save" -> args[0];
+            case "findByClienteAndFechas" -> recientesPrimero();
+            case "forEachPorCuentaByClienteAndFechas", "forEachByClienteAndFechas" -> {
+                movimientos.forEach((Consumer<Movimiento>) args[3]);
+                yield null;
+            }
+            case "resumirPorCuenta" -> resumir();
+            default -> throw new UnsupportedOperationException(metodo);
+        });
+    }
+
+    SaldoDiarioRepo saldoDiarioRepo() {
+        return proxy(SaldoDiarioRepo.class, (metodo, args) -> {
+            if (metodo.equals("acumular")) return null;
+            throw new UnsupportedOperationException(metodo);
+        });
+    }
+
+    private List<Movimiento> recientesPrimero() {
+        var lista = new ArrayList<>(movimientos);
+        Collections.reverse(lista);
+        return lista;
+    }
+
+    private List<ResumenCuenta> resumir() {
+        Map<UUID, BigDecimal[]> totales = new LinkedHashMap<>();
+        for (Movimiento m : movimientos) {
+            var t = totales.computeIfAbsent(m.getCuenta().getId(), k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO, null});
+            if (m.getTipo() == TipoMovimiento.CREDITO) t[0] = t[0].add(m.getValor());
+            else t[1] = t[1].add(m.getValor());
+            t[2] = m.getSaldoPosterior();
+        }
+        return totales.entrySet().stream()
+                .map(e -> new ResumenCuenta(e.getKey(), e.getValue()[0], e.getValue()[1], e.getValue()[2]))
+                .toList();
+    }
+
+    private interface Manejador {
+        Object invocar(String metodo, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> tipo, Manejador manejador) {
+        return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (p, metodo, args) -> switch (metodo.getName()) {
+            case "toString" -> tipo.getSimpleName() + "EnMemoria";
+            case "hashCode" -> System.identityHashCode(p);
+            case "equals" -> p == args[0];
+            default -> manejador.invocar(metodo.getName(), args);
+        }));
+    }
+
+    private static final class SinTransaccion implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -3,8 +3,10 @@ package com.bank.cuentasmovimientos;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = { SecurityAutoConfiguration.class })
+@EnableScheduling
 public class CuentasMovimientosApplication {
     public static void main(String[] args) { SpringApplication.run(CuentasMovimientosApplication.class, args); }
 }
@@ -0,0 +1,37 @@
+package com.bank.cuentasmovimientos.config;
+
+import com.bank.comun.web.LimiteConexionesFilter;
+import com.bank.cuentasmovimientos.service.AgrupadorCommits;
+import com.bank.cuentasmovimientos.service.LedgerCuentasCalientes;
+import com.bank.cuentasmovimientos.service.ReporteJobs;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * {@link LimiteConexionesFilter} con las conexiones de Hikari que no retienen los hilos propios del
+ * servicio: escritores del ledger, escritores del group commit y hilos de reportes asíncronos.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class LimiteConexiones extends LimiteConexionesFilter {
+
+    public LimiteConexiones(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int conexiones,
+                            LedgerCuentasCalientes ledger, AgrupadorCommits grupo, ReporteJobs reportes,
+                            @Value("${movimientos.concurrencia.espera-conexion:5s}") Duration espera) {
+        super(permisos(conexiones, ledger.conexiones() + grupo.conexiones() + reportes.conexiones()), espera);
+    }
+
+    private static int permisos(int conexiones, int reservadas) {
+        if (reservadas >= conexiones) {
+            log.warn("Los hilos propios pueden retener {} de {} conexiones; las solicitudes quedan con una sola",
+                    reservadas, conexiones);
+        }
+        return conexiones - reservadas;
+    }
+}
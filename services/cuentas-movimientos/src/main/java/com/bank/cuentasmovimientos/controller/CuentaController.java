@@ -4,6 +4,7 @@ import com.bank.cuentasmovimientos.domain.Status;
 import com.bank.cuentasmovimientos.dto.CuentaCreateRequest;
 import com.bank.cuentasmovimientos.domain.Cuenta;
 import com.bank.cuentasmovimientos.domain.TipoCuenta;
+import com.bank.cuentasmovimientos.domain.UuidV7;
 import com.bank.cuentasmovimientos.repository.CuentaRepo;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,7 +25,7 @@ public class CuentaController {
     @PostMapping
     public ResponseEntity<Cuenta> crear(@Valid @RequestBody CuentaCreateRequest r){
         var c = Cuenta.builder()
-                .id(UUID.randomUUID())
+                .id(UuidV7.generar())
                 .numero(r.numero())
                 .tipo(TipoCuenta.valueOf(r.tipo().toUpperCase()))
                 .saldoInicial(r.saldoInicial() == null ? BigDecimal.ZERO : r.saldoInicial())
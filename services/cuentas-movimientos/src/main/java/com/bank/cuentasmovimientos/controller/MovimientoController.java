@@ -1,18 +1,59 @@
 package com.bank.cuentasmovimientos.controller;
 
 import com.bank.cuentasmovimientos.dto.*;
+import com.bank.cuentasmovimientos.service.MovimientoLoteService;
 import com.bank.cuentasmovimientos.service.MovimientoService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
 @RestController @RequestMapping("/movimientos") @RequiredArgsConstructor
 public class MovimientoController {
     private final MovimientoService service;
+    private final MovimientoLoteService loteService;
+    private final ObjectMapper mapper;
 
     @PostMapping
     public ResponseEntity<MovimientoResponse> crear(@Valid @RequestBody MovimientoRequest r){
         return ResponseEntity.ok(service.aplicar(r));
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Registrar lote de movimientos",
+            description = "Aplica los movimientos agrupados por cuenta, en orden, y devuelve un resultado por cada elemento.")
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<MovimientoLoteResultado>> crearLote(@RequestBody List<MovimientoRequest> movimientos){
+        return ResponseEntity.ok(loteService.aplicar(movimientos));
+    }
+
+    @Operation(summary = "Registrar lote de movimientos (NDJSON)",
+            description = "Igual que el lote JSON, recibiendo un movimiento por línea. Se aplica por tramos a medida "
+                    + "que se lee y la respuesta (el mismo arreglo JSON) se escribe a medida que avanza.")
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void crearLoteNdjson(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (MappingIterator<MovimientoRequest> it = mapper.readerFor(MovimientoRequest.class).readValues(body);
+             JsonGenerator salida = mapper.getFactory().createGenerator(response.getOutputStream())) {
+            salida.writeStartArray();
+            loteService.aplicarEnTramos(it, r -> {
+                try {
+                    salida.writeObject(r);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            salida.writeEndArray();
+        }
+    }
+}
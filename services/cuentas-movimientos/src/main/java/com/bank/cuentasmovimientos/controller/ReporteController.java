@@ -1,17 +1,31 @@
 package com.bank.cuentasmovimientos.controller;
 
+import com.bank.cuentasmovimientos.dto.PaginaDetalleResponse;
 import com.bank.cuentasmovimientos.dto.ReporteDetalleDTO;
 import com.bank.cuentasmovimientos.dto.ReporteEstadoCuentaResponse;
+import com.bank.cuentasmovimientos.dto.ReporteJobRequest;
+import com.bank.cuentasmovimientos.dto.ReporteJobResponse;
 import com.bank.cuentasmovimientos.dto.ReporteResumenDTO;
-import com.bank.cuentasmovimientos.service.MovimientoService;
+import com.bank.cuentasmovimientos.service.ReporteJobs;
+import com.bank.cuentasmovimientos.service.ReporteMovimientosService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -22,7 +36,11 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ReporteController {
 
-    private final MovimientoService reporteService;
+    private static final int MAX_TAMANO_PAGINA = 5000;
+
+    private final ReporteMovimientosService reporteService;
+    private final ReporteJobs jobs;
+    private final ObjectMapper mapper;
 
     @Operation(summary = "Generar reporte de movimientos por cliente")
     @GetMapping
@@ -45,16 +63,84 @@ public class ReporteController {
         }
     }
 
+    @Operation(summary = "Detalle de movimientos paginado",
+            description = "Devuelve una página ordenada por fecha descendente y el cursor para pedir la siguiente.")
+    @GetMapping("/detalle")
+    public ResponseEntity<PaginaDetalleResponse> obtenerDetallePagina(
+            @RequestParam(name = "clientId") UUID clienteId,
+            @RequestParam(required = false, name = "fechaInicio") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false, name = "fechaFin") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @Parameter(description = "Cursor devuelto por la página anterior", required = false)
+            @RequestParam(required = false, name = "cursor") String cursor,
+            @RequestParam(defaultValue = "500", name = "tamano") int tamano) {
+
+        if (tamano < 1 || tamano > MAX_TAMANO_PAGINA) {
+            throw new IllegalArgumentException("tamano debe estar entre 1 y " + MAX_TAMANO_PAGINA);
+        }
+        return ResponseEntity.ok(reporteService.obtenerDetallePagina(clienteId, fechaInicio, fechaFin, cursor, tamano));
+    }
+
+    @Operation(summary = "Detalle de movimientos en streaming",
+            description = "Escribe un movimiento por línea (NDJSON) leyendo con cursor de base de datos.")
+    @GetMapping(path = "/detalle/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDetalle(
+            @RequestParam(name = "clientId") UUID clienteId,
+            @RequestParam(required = false, name = "fechaInicio") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false, name = "fechaFin") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+
+        StreamingResponseBody body = out -> {
+            var writer = mapper.writerFor(ReporteDetalleDTO.class);
+            reporteService.recorrerDetalle(clienteId, fechaInicio, fechaFin, d -> {
+                try {
+                    out.write(writer.writeValueAsBytes(d));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/estado-cuenta")
     @Operation(summary = "Reporte avanzado de estado de cuenta",
             description = "Devuelve el estado de cuenta consolidado por cliente, cuentas y movimientos.")
     public ResponseEntity<ReporteEstadoCuentaResponse> obtenerEstadoCuenta(
             @RequestParam(name = "clienteId") UUID clienteId,
             @RequestParam(name = "fechaInicio") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
-            @RequestParam(name = "fechaFin") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+            @RequestParam(name = "fechaFin") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @Parameter(description = "Si es false, los saldos salen de las fotos diarias sin leer movimientos", required = false)
+            @RequestParam(defaultValue = "true", name = "incluirMovimientos") boolean incluirMovimientos) {
 
-        ReporteEstadoCuentaResponse reporte = reporteService.obtenerEstadoCuenta(clienteId, fechaInicio, fechaFin);
+        ReporteEstadoCuentaResponse reporte = reporteService.obtenerEstadoCuenta(clienteId, fechaInicio, fechaFin, incluirMovimientos);
         return ResponseEntity.ok(reporte);
     }
-}
 
+    @PostMapping("/jobs")
+    @Operation(summary = "Encolar estado de cuenta",
+            description = "Genera el estado de cuenta en segundo plano y devuelve el id del trabajo para consultarlo.")
+    public ResponseEntity<ReporteJobResponse> crearJob(@Valid @RequestBody ReporteJobRequest r) {
+        var job = jobs.crear(r);
+        return ResponseEntity.accepted().location(URI.create("/reportes/jobs/" + job.jobId())).body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Estado de un trabajo de reporte")
+    public ResponseEntity<ReporteJobResponse> obtenerJob(@PathVariable UUID jobId) {
+        return ResponseEntity.of(jobs.estado(jobId));
+    }
+
+    @GetMapping(path = "/jobs/{jobId}/resultado", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Resultado de un trabajo de reporte",
+            description = "Devuelve el ReporteEstadoCuentaResponse guardado; 409 mientras el trabajo no terminó bien.")
+    public ResponseEntity<Resource> obtenerResultadoJob(@PathVariable UUID jobId) {
+        var archivo = jobs.resultado(jobId);
+        if (archivo.isPresent()) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(new FileSystemResource(archivo.get()));
+        }
+        return jobs.estado(jobId)
+                .<ResponseEntity<Resource>>map(j -> ResponseEntity.status(HttpStatus.CONFLICT).build())
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,40 @@
+package com.bank.cuentasmovimientos.controller;
+
+import com.bank.cuentasmovimientos.repository.InconsistenciaSaldoDiario;
+import com.bank.cuentasmovimientos.service.SaldoDiarioService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/saldos-diarios")
+@Tag(name = "Saldos diarios", description = "Mantenimiento de las fotos diarias de saldo por cuenta")
+@RequiredArgsConstructor
+public class SaldoDiarioController {
+
+    private final SaldoDiarioService service;
+
+    @Operation(summary = "Reconstruir fotos diarias",
+            description = "Recalcula las fotos desde los movimientos, de una cuenta o de todas si no se indica.")
+    @PostMapping("/reconstruccion")
+    public ResponseEntity<Map<String, Integer>> reconstruir(
+            @Parameter(description = "Cuenta a reconstruir", required = false)
+            @RequestParam(required = false, name = "cuentaId") UUID cuentaId) {
+        return ResponseEntity.ok(Map.of("cuentas", service.reconstruir(cuentaId)));
+    }
+
+    @Operation(summary = "Verificar fotos diarias",
+            description = "Compara las fotos con el agregado de movimientos y la continuidad apertura/cierre; lista vacía si todo cuadra.")
+    @GetMapping("/verificacion")
+    public ResponseEntity<List<InconsistenciaSaldoDiario>> verificar(
+            @RequestParam(required = false, name = "cuentaId") UUID cuentaId) {
+        return ResponseEntity.ok(service.verificar(cuentaId));
+    }
+}
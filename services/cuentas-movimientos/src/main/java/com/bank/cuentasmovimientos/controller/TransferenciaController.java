@@ -0,0 +1,22 @@
+package com.bank.cuentasmovimientos.controller;
+
+import com.bank.cuentasmovimientos.dto.TransferenciaRequest;
+import com.bank.cuentasmovimientos.dto.TransferenciaResponse;
+import com.bank.cuentasmovimientos.service.TransferenciaService;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController @RequestMapping("/transferencias") @RequiredArgsConstructor
+public class TransferenciaController {
+    private final TransferenciaService service;
+
+    @Operation(summary = "Transferir entre cuentas",
+            description = "Debita la cuenta origen y acredita la destino en una sola transacción, bajo una idempotencyKey.")
+    @PostMapping
+    public ResponseEntity<TransferenciaResponse> transferir(@Valid @RequestBody TransferenciaRequest r){
+        return ResponseEntity.ok(service.transferir(r));
+    }
+}
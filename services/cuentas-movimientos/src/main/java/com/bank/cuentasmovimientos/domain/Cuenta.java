@@ -5,7 +5,7 @@ import lombok.*;
 import java.math.BigDecimal;
 import java.util.UUID;
 
-@Entity @Table(name="cuenta")
+@Entity @Table(name="cuenta", indexes=@Index(name="idx_cuenta_cliente", columnList="cliente_id"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Cuenta {
     @Id private UUID id;
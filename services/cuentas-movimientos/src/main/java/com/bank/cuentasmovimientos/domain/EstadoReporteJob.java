@@ -0,0 +1,8 @@
+package com.bank.cuentasmovimientos.domain;
+
+public enum EstadoReporteJob {
+    PENDIENTE,
+    EN_CURSO,
+    LISTO,
+    FALLIDO
+}
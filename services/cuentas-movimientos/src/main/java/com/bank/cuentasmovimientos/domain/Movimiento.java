@@ -6,11 +6,13 @@ import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
-@Entity @Table(name="movimiento", uniqueConstraints=@UniqueConstraint(name="uk_idem", columnNames="idempotency_key"))
+/** Tabla particionada por mes sobre fecha; la crea db/particiones.sql, junto con la unicidad de idempotency_key. */
+@Entity @Table(name="movimiento", indexes={@Index(name="idx_mov_cuenta_fecha", columnList="cuenta_id, fecha"),
+        @Index(name="idx_mov_idempotency", columnList="idempotency_key")})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Movimiento {
     @Id private UUID id;
-    @ManyToOne(optional=false)
+    @ManyToOne(optional=false, fetch=FetchType.LAZY)
     @JoinColumn(name="cuenta_id")
     private Cuenta cuenta;
     private OffsetDateTime fecha;
@@ -22,4 +24,7 @@ public class Movimiento {
     private String referencia;
     @Column(name="idempotency_key", nullable=false)
     private String idempotencyKey;
+    /** Enlaza el débito y el crédito de una transferencia; null en movimientos sueltos. */
+    @Column(name="transferencia_id")
+    private UUID transferenciaId;
 }
@@ -0,0 +1,20 @@
+package com.bank.cuentasmovimientos.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+
+/**
+ * Foto diaria (UTC) del saldo de una cuenta, mantenida en la misma transacción que registra
+ * cada movimiento.
+ */
+@Entity @Table(name="saldo_diario")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class SaldoDiario {
+    @EmbeddedId private SaldoDiarioId id;
+    @Column(name="saldo_apertura", nullable=false) private BigDecimal saldoApertura;
+    @Column(name="total_creditos", nullable=false) private BigDecimal totalCreditos;
+    @Column(name="total_debitos", nullable=false) private BigDecimal totalDebitos;
+    @Column(name="saldo_cierre", nullable=false) private BigDecimal saldoCierre;
+    @Column(nullable=false) private int cantidad;
+}
@@ -0,0 +1,16 @@
+package com.bank.cuentasmovimientos.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Embeddable
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+public class SaldoDiarioId implements Serializable {
+    @Column(name="cuenta_id", nullable=false) private UUID cuentaId;
+    @Column(nullable=false) private LocalDate fecha;
+}
@@ -0,0 +1,10 @@
+package com.bank.cuentasmovimientos.dto;
+
+public record MovimientoLoteResultado(
+        int indice, String idempotencyKey, String estado, String code, String message,
+        MovimientoResponse movimiento
+) {
+    public static final String APLICADO = "APLICADO";
+    public static final String REPLAY = "REPLAY";
+    public static final String RECHAZADO = "RECHAZADO";
+}
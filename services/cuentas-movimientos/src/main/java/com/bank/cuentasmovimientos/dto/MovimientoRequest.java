@@ -4,6 +4,7 @@ import com.bank.cuentasmovimientos.domain.TipoMovimiento;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -13,5 +14,6 @@ public record MovimientoRequest(
         @NotNull TipoMovimiento tipo,
         @DecimalMin(value="0.01") BigDecimal valor,
         String referencia,
-        @NotBlank String idempotencyKey
+        @NotBlank @Pattern(regexp = TransferenciaRequest.CLAVE_CLIENTE, message = TransferenciaRequest.CLAVE_RESERVADA)
+        String idempotencyKey
 ) {}
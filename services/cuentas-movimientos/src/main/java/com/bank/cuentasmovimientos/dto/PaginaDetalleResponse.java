@@ -0,0 +1,5 @@
+package com.bank.cuentasmovimientos.dto;
+
+import java.util.List;
+
+public record PaginaDetalleResponse(List<ReporteDetalleDTO> items, String siguiente) {}
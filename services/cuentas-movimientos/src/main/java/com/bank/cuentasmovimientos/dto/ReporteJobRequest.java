@@ -0,0 +1,17 @@
+package com.bank.cuentasmovimientos.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record ReporteJobRequest(
+        @NotNull UUID clienteId,
+        @NotNull LocalDate fechaInicio,
+        @NotNull LocalDate fechaFin,
+        Boolean incluirMovimientos
+) {
+    public boolean conMovimientos() {
+        return incluirMovimientos == null || incluirMovimientos;
+    }
+}
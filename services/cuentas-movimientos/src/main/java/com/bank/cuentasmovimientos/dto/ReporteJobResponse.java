@@ -0,0 +1,10 @@
+package com.bank.cuentasmovimientos.dto;
+
+import com.bank.cuentasmovimientos.domain.EstadoReporteJob;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record ReporteJobResponse(
+        UUID jobId, EstadoReporteJob estado, OffsetDateTime creadoEn, OffsetDateTime terminadoEn, String error
+) {}
@@ -0,0 +1,37 @@
+package com.bank.cuentasmovimientos.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Débito en la cuenta origen y crédito en la destino, en una sola transacción. El débito queda con
+ * la idempotencyKey y el crédito con {@link #claveCredito()}. Como las dos comparten movimiento_clave
+ * con las de los movimientos sueltos, ninguna idempotencyKey de cliente puede terminar en
+ * {@value #SUFIJO_CREDITO}.
+ */
+public record TransferenciaRequest(
+        @NotNull UUID cuentaOrigenId,
+        @NotNull UUID cuentaDestinoId,
+        @DecimalMin(value="0.01") BigDecimal valor,
+        String referencia,
+        @NotBlank @Pattern(regexp = TransferenciaRequest.CLAVE_CLIENTE, message = TransferenciaRequest.CLAVE_RESERVADA)
+        String idempotencyKey
+) {
+    public static final String SUFIJO_CREDITO = "/credito";
+    public static final String CLAVE_CLIENTE = "(?s)(?!.*/credito\\z).*";
+    public static final String CLAVE_RESERVADA = "idempotencyKey no puede terminar en " + SUFIJO_CREDITO;
+
+    public String claveCredito() {
+        return idempotencyKey + SUFIJO_CREDITO;
+    }
+
+    /** true si la cuenta origen se bloquea antes que la destino (orden por cuentaId). */
+    public boolean origenPrimero() {
+        return cuentaOrigenId.compareTo(cuentaDestinoId) < 0;
+    }
+}
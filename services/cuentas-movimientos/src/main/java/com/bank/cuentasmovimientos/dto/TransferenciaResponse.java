@@ -0,0 +1,7 @@
+package com.bank.cuentasmovimientos.dto;
+
+import java.util.UUID;
+
+public record TransferenciaResponse(
+        UUID transferenciaId, MovimientoResponse debito, MovimientoResponse credito
+) {}
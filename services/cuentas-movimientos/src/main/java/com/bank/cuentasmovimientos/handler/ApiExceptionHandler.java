@@ -14,6 +14,21 @@ public class ApiExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(Map.of("timestamp", OffsetDateTime.now().toString(), "code","INSUFFICIENT_FUNDS", "message", ex.getMessage()));
     }
+    @ExceptionHandler(ColaSaturadaException.class)
+    public ResponseEntity<?> handleCola(ColaSaturadaException ex){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("timestamp", OffsetDateTime.now().toString(), "code", ex.getCode(), "message", ex.getMessage()));
+    }
+    @ExceptionHandler(ClaveRegistradaException.class)
+    public ResponseEntity<?> handleClave(ClaveRegistradaException ex){
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("timestamp", OffsetDateTime.now().toString(), "code", ex.getCode(), "message", ex.getMessage()));
+    }
+    @ExceptionHandler(CuentaCalienteException.class)
+    public ResponseEntity<?> handleCaliente(CuentaCalienteException ex){
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("timestamp", OffsetDateTime.now().toString(), "code", ex.getCode(), "message", ex.getMessage()));
+    }
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<?> handleBad(IllegalArgumentException ex){
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", ex.getMessage()));
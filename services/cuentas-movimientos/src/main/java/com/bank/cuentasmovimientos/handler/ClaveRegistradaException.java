@@ -0,0 +1,14 @@
+package com.bank.cuentasmovimientos.handler;
+
+import lombok.Getter;
+
+/** La idempotencyKey ya está registrada pero su movimiento no se puede recuperar para repetir la respuesta; 409 con {@code code}. */
+@Getter
+public class ClaveRegistradaException extends RuntimeException {
+    private final String code;
+
+    public ClaveRegistradaException(String code, String m){
+        super(m);
+        this.code = code;
+    }
+}
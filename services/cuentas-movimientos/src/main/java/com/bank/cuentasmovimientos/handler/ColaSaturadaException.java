@@ -0,0 +1,14 @@
+package com.bank.cuentasmovimientos.handler;
+
+import lombok.Getter;
+
+/** La cola del ledger o del group commit no aceptó o no respondió a tiempo; se responde 503 con {@code code}. */
+@Getter
+public class ColaSaturadaException extends RuntimeException {
+    private final String code;
+
+    public ColaSaturadaException(String code, String m){
+        super(m);
+        this.code = code;
+    }
+}
@@ -0,0 +1,14 @@
+package com.bank.cuentasmovimientos.handler;
+
+import lombok.Getter;
+
+/** La operación no se admite sobre una cuenta atendida por el ledger de cuentas calientes; 409 con {@code code}. */
+@Getter
+public class CuentaCalienteException extends RuntimeException {
+    private final String code;
+
+    public CuentaCalienteException(String code, String m){
+        super(m);
+        this.code = code;
+    }
+}
@@ -0,0 +1,19 @@
+package com.bank.cuentasmovimientos.repository;
+
+import com.bank.cuentasmovimientos.domain.Cuenta;
+import com.bank.cuentasmovimientos.domain.Status;
+import com.bank.cuentasmovimientos.domain.TipoCuenta;
+
+import java.util.UUID;
+
+/** Atributos de la cuenta que no cambian al registrar movimientos; el saldo queda fuera. */
+public record CuentaInfo(UUID id, String numero, TipoCuenta tipo, UUID clienteId, String estado) {
+
+    public static CuentaInfo de(Cuenta c) {
+        return new CuentaInfo(c.getId(), c.getNumero(), c.getTipo(), c.getClienteId(), c.getEstado());
+    }
+
+    public boolean activa() {
+        return Status.ACTIVA.toString().equals(estado);
+    }
+}
@@ -1,10 +1,25 @@
 package com.bank.cuentasmovimientos.repository;
 
 import com.bank.cuentasmovimientos.domain.Cuenta;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface CuentaRepo extends JpaRepository<Cuenta, UUID> {
     Optional<Cuenta> findByNumero(String numero);
-}
\ No newline at end of file
+
+    @Query("SELECT c.id FROM Cuenta c WHERE c.clienteId = :clienteId")
+    List<UUID> findIdsByClienteId(UUID clienteId);
+
+    @Query("SELECT new com.bank.cuentasmovimientos.repository.CuentaInfo(c.id, c.numero, c.tipo, c.clienteId, c.estado) FROM Cuenta c WHERE c.id = :id")
+    Optional<CuentaInfo> findInfoById(UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cuenta c WHERE c.id = :id")
+    Optional<Cuenta> findByIdForUpdate(UUID id);
+}
@@ -0,0 +1,6 @@
+package com.bank.cuentasmovimientos.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record InconsistenciaSaldoDiario(UUID cuentaId, LocalDate fecha, String detalle) {}
@@ -4,20 +4,13 @@ import com.bank.cuentasmovimientos.domain.Movimiento;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
-import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface MovimientoRepo extends JpaRepository<Movimiento, UUID> {
+public interface MovimientoRepo extends JpaRepository<Movimiento, UUID>, MovimientoRepoCustom {
     Optional<Movimiento> findByIdempotencyKey(String key);
 
-    @Query("""
-       SELECT m FROM Movimiento m
-       WHERE m.cuenta.clienteId = :clienteId
-         AND m.fecha >= COALESCE(:fechaInicio, m.fecha)
-         AND m.fecha <= COALESCE(:fechaFin, m.fecha)
-       ORDER BY m.fecha DESC
-       """)
-    List<Movimiento> findByClienteAndFechas(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin);
-}
\ No newline at end of file
+    /** La clave sigue reservada en movimiento_clave aunque su mes ya se haya archivado. */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM movimiento_clave WHERE idempotency_key = ?1)", nativeQuery = true)
+    boolean claveRegistrada(String key);
+}
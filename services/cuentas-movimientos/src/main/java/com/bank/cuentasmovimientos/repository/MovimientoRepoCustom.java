@@ -0,0 +1,26 @@
+package com.bank.cuentasmovimientos.repository;
+
+import com.bank.cuentasmovimientos.domain.Movimiento;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface MovimientoRepoCustom {
+    List<Movimiento> findByClienteAndFechas(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin);
+
+    List<Movimiento> findPaginaByClienteAndFechas(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                                                  CursorMovimiento despuesDe, int limite);
+
+    /**
+     * Totales de créditos y débitos y último saldo por cuenta, ordenado de la cuenta con el
+     * movimiento más reciente a la más antigua.
+     */
+    List<ResumenCuenta> resumirPorCuenta(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin);
+
+    void forEachByClienteAndFechas(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin, Consumer<Movimiento> accion);
+
+    /** Recorre los movimientos agrupados por cuenta y, dentro de cada una, en orden cronológico. */
+    void forEachPorCuentaByClienteAndFechas(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin, Consumer<Movimiento> accion);
+}
@@ -0,0 +1,145 @@
+package com.bank.cuentasmovimientos.repository;
+
+import com.bank.cuentasmovimientos.domain.Movimiento;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Consultas por cliente que primero resuelven sus cuentas y luego filtran movimiento por
+ * (cuenta_id, fecha), de modo que idx_mov_cuenta_fecha sea utilizable.
+ */
+class MovimientoRepoCustomImpl implements MovimientoRepoCustom {
+
+    private static final String RECIENTES_PRIMERO = " ORDER BY m.fecha DESC, m.id DESC";
+    private static final String POR_CUENTA = " ORDER BY m.cuenta.id, m.fecha, m.id";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${movimientos.reportes.fetch-size:1000}")
+    private int fetchSize;
+
+    @Override
+    public List<Movimiento> findByClienteAndFechas(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        List<UUID> cuentas = cuentasDelCliente(clienteId);
+        if (cuentas.isEmpty()) return List.of();
+        return consulta(cuentas, RangoFechas.de(fechaInicio, fechaFin), null).getResultList();
+    }
+
+    @Override
+    public List<Movimiento> findPaginaByClienteAndFechas(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                                                         CursorMovimiento despuesDe, int limite) {
+        List<UUID> cuentas = cuentasDelCliente(clienteId);
+        if (cuentas.isEmpty()) return List.of();
+        return consulta(cuentas, RangoFechas.de(fechaInicio, fechaFin), despuesDe)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ResumenCuenta> resumirPorCuenta(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        var rango = RangoFechas.de(fechaInicio, fechaFin);
+        var filtro = new StringBuilder("c.cliente_id = :clienteId");
+        if (rango.desde() != null) filtro.append(" AND m.fecha >= :desde");
+        if (rango.hasta() != null) filtro.append(" AND m.fecha < :hasta");
+
+        String sql = """
+                WITH totales AS (
+                    SELECT m.cuenta_id,
+                           COALESCE(SUM(m.valor) FILTER (WHERE m.tipo = 'CREDITO'), 0) AS creditos,
+                           COALESCE(SUM(m.valor) FILTER (WHERE m.tipo = 'DEBITO'), 0) AS debitos,
+                           MAX(m.fecha) AS ultima_fecha
+                    FROM movimiento m JOIN cuenta c ON c.id = m.cuenta_id
+                    WHERE %s
+                    GROUP BY m.cuenta_id
+                )
+                SELECT t.cuenta_id, t.creditos, t.debitos,
+                       (SELECT u.saldo_posterior FROM movimiento u
+                        WHERE u.cuenta_id = t.cuenta_id AND u.fecha = t.ultima_fecha
+                        ORDER BY u.id DESC LIMIT 1) AS saldo_final
+                FROM totales t
+                ORDER BY t.ultima_fecha DESC
+                """.formatted(filtro);
+
+        var q = em.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addScalar("cuenta_id", StandardBasicTypes.UUID)
+                .addScalar("creditos", StandardBasicTypes.BIG_DECIMAL)
+                .addScalar("debitos", StandardBasicTypes.BIG_DECIMAL)
+                .addScalar("saldo_final", StandardBasicTypes.BIG_DECIMAL)
+                .setParameter("clienteId", clienteId);
+        if (rango.desde() != null) q.setParameter("desde", rango.desde());
+        if (rango.hasta() != null) q.setParameter("hasta", rango.hasta());
+
+        return ((List<Object[]>) q.getResultList()).stream()
+                .map(f -> new ResumenCuenta((UUID) f[0], (BigDecimal) f[1], (BigDecimal) f[2], (BigDecimal) f[3]))
+                .toList();
+    }
+
+    @Override
+    public void forEachByClienteAndFechas(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                                          Consumer<Movimiento> accion) {
+        List<UUID> cuentas = cuentasDelCliente(clienteId);
+        if (cuentas.isEmpty()) return;
+        recorrer(consulta(cuentas, RangoFechas.de(fechaInicio, fechaFin), null), accion);
+    }
+
+    @Override
+    public void forEachPorCuentaByClienteAndFechas(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                                                   Consumer<Movimiento> accion) {
+        List<UUID> cuentas = cuentasDelCliente(clienteId);
+        if (cuentas.isEmpty()) return;
+        recorrer(consulta(cuentas, RangoFechas.de(fechaInicio, fechaFin), null, POR_CUENTA), accion);
+    }
+
+    private void recorrer(TypedQuery<Movimiento> q, Consumer<Movimiento> accion) {
+        q.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        try (Stream<Movimiento> movimientos = q.getResultStream()) {
+            movimientos.forEach(m -> {
+                accion.accept(m);
+                em.detach(m);
+            });
+        }
+    }
+
+    private TypedQuery<Movimiento> consulta(List<UUID> cuentas, RangoFechas rango, CursorMovimiento despuesDe) {
+        return consulta(cuentas, rango, despuesDe, RECIENTES_PRIMERO);
+    }
+
+    private TypedQuery<Movimiento> consulta(List<UUID> cuentas, RangoFechas rango, CursorMovimiento despuesDe, String orden) {
+        var jpql = new StringBuilder("SELECT m FROM Movimiento m WHERE m.cuenta.id IN :cuentas");
+        if (rango.desde() != null) jpql.append(" AND m.fecha >= :desde");
+        if (rango.hasta() != null) jpql.append(" AND m.fecha < :hasta");
+        if (despuesDe != null) jpql.append(" AND (m.fecha < :cursorFecha OR (m.fecha = :cursorFecha AND m.id < :cursorId))");
+        jpql.append(orden);
+
+        TypedQuery<Movimiento> q = em.createQuery(jpql.toString(), Movimiento.class)
+                .setParameter("cuentas", cuentas);
+        if (rango.desde() != null) q.setParameter("desde", rango.desde());
+        if (rango.hasta() != null) q.setParameter("hasta", rango.hasta());
+        if (despuesDe != null) {
+            q.setParameter("cursorFecha", despuesDe.fecha());
+            q.setParameter("cursorId", despuesDe.id());
+        }
+        return q;
+    }
+
+    private List<UUID> cuentasDelCliente(UUID clienteId) {
+        return em.createQuery("SELECT c.id FROM Cuenta c WHERE c.clienteId = :clienteId", UUID.class)
+                .setParameter("clienteId", clienteId)
+                .getResultList();
+    }
+}
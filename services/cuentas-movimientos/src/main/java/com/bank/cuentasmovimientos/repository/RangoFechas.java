@@ -0,0 +1,18 @@
+package com.bank.cuentasmovimientos.repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Rango semiabierto [desde, hasta) en UTC equivalente a un rango de días inclusivo;
+ * un extremo nulo indica que ese lado no está acotado.
+ */
+public record RangoFechas(OffsetDateTime desde, OffsetDateTime hasta) {
+
+    public static RangoFechas de(LocalDate fechaInicio, LocalDate fechaFin) {
+        return new RangoFechas(
+                fechaInicio == null ? null : fechaInicio.atStartOfDay().atOffset(ZoneOffset.UTC),
+                fechaFin == null ? null : fechaFin.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+    }
+}
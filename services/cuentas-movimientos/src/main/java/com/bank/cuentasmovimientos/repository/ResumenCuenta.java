@@ -0,0 +1,6 @@
+package com.bank.cuentasmovimientos.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record ResumenCuenta(UUID cuentaId, BigDecimal totalCreditos, BigDecimal totalDebitos, BigDecimal saldoFinal) {}
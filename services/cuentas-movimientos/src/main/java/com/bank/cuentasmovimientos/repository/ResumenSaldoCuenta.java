@@ -0,0 +1,9 @@
+package com.bank.cuentasmovimientos.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record ResumenSaldoCuenta(
+        UUID cuentaId, String numero, String tipo,
+        BigDecimal saldoInicial, BigDecimal totalCreditos, BigDecimal totalDebitos, BigDecimal saldoFinal
+) {}
@@ -0,0 +1,27 @@
+package com.bank.cuentasmovimientos.repository;
+
+import com.bank.cuentasmovimientos.domain.SaldoDiario;
+import com.bank.cuentasmovimientos.domain.SaldoDiarioId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface SaldoDiarioRepo extends JpaRepository<SaldoDiario, SaldoDiarioId> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO saldo_diario (cuenta_id, fecha, saldo_apertura, total_creditos, total_debitos, saldo_cierre, cantidad)
+            VALUES (:cuentaId, :fecha, :apertura, :creditos, :debitos, :cierre, :cantidad)
+            ON CONFLICT (cuenta_id, fecha) DO UPDATE SET
+                total_creditos = saldo_diario.total_creditos + EXCLUDED.total_creditos,
+                total_debitos = saldo_diario.total_debitos + EXCLUDED.total_debitos,
+                saldo_cierre = EXCLUDED.saldo_cierre,
+                cantidad = saldo_diario.cantidad + EXCLUDED.cantidad
+            """, nativeQuery = true)
+    void acumular(UUID cuentaId, LocalDate fecha, BigDecimal apertura, BigDecimal creditos, BigDecimal debitos,
+                  BigDecimal cierre, int cantidad);
+}
@@ -0,0 +1,25 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+
+import java.math.BigDecimal;
+
+/** Movimientos de una cuenta en un día, sumados en memoria para un único upsert en saldo_diario. */
+final class AcumuladoDia {
+    final BigDecimal apertura;
+    BigDecimal creditos = BigDecimal.ZERO;
+    BigDecimal debitos = BigDecimal.ZERO;
+    BigDecimal cierre;
+    int cantidad;
+
+    AcumuladoDia(BigDecimal apertura) {
+        this.apertura = apertura;
+    }
+
+    void sumar(TipoMovimiento tipo, BigDecimal valor, BigDecimal saldoPosterior) {
+        if (tipo == TipoMovimiento.CREDITO) creditos = creditos.add(valor);
+        else debitos = debitos.add(valor);
+        cierre = saldoPosterior;
+        cantidad++;
+    }
+}
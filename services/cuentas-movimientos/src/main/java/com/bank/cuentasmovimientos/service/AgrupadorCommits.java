@@ -0,0 +1,251 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.handler.ColaSaturadaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+/**
+ * Group commit para {@code POST /movimientos} ({@code movimientos.grupo.habilitado}): las solicitudes
+ * que llegan dentro de {@code ventana}, hasta {@code max-solicitudes}, se registran en una sola
+ * transacción y cada una responde por separado tras el commit. Cada movimiento corre dentro de un
+ * savepoint, así un saldo insuficiente o una clave duplicada solo deshace ese movimiento.
+ *
+ * <p>Cada cuenta pertenece a un único escritor, de modo que dos grupos nunca se bloquean entre sí.
+ * Dentro del grupo los movimientos se registran ordenados por cuentaId (y en orden de llegada para
+ * una misma cuenta): es el mismo orden en que las transferencias toman sus dos filas, así un grupo
+ * y una transferencia no pueden esperarse en ciclo.
+ * Requiere {@code movimientos.motor=sql}: con el motor JPA los cambios quedan en la sesión hasta el
+ * flush y un savepoint no los deshace.
+ */
+@Slf4j
+@Component
+public class AgrupadorCommits implements SmartLifecycle {
+
+    static final String GROUP_COMMIT_BUSY = "GROUP_COMMIT_BUSY";
+
+    private record Solicitud(MovimientoRequest request, CompletableFuture<MovimientoResponse> respuesta) {}
+
+    private final MotorMovimientos motor;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final long ventanaNanos;
+    private final int maxSolicitudes;
+    private final Duration esperaRespuesta;
+    private final Escritor[] escritores;
+    private final Timer tiempoCommit;
+    private final DistributionSummary tamanoGrupo;
+    private final Counter gruposFallidos;
+
+    private volatile boolean activo;
+
+    public AgrupadorCommits(MotorMovimientos motor, JdbcTemplate jdbc, TransactionTemplate transactionTemplate,
+                            MeterRegistry registry,
+                            @Value("${movimientos.grupo.habilitado:false}") boolean habilitado,
+                            @Value("${movimientos.grupo.ventana:2ms}") Duration ventana,
+                            @Value("${movimientos.grupo.max-solicitudes:64}") int maxSolicitudes,
+                            @Value("${movimientos.grupo.escritores:4}") int escritores,
+                            @Value("${movimientos.grupo.capacidad:10000}") int capacidad,
+                            @Value("${movimientos.grupo.espera-respuesta:5s}") Duration esperaRespuesta) {
+        if (habilitado && !(motor instanceof MotorSql)) {
+            throw new IllegalStateException("movimientos.grupo.habilitado requiere movimientos.motor=sql");
+        }
+        this.motor = motor;
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.habilitado = habilitado;
+        this.ventanaNanos = ventana.toNanos();
+        this.maxSolicitudes = maxSolicitudes;
+        this.esperaRespuesta = esperaRespuesta;
+        this.escritores = new Escritor[habilitado ? escritores : 0];
+        for (int i = 0; i < this.escritores.length; i++) {
+            this.escritores[i] = new Escritor(i, capacidad);
+        }
+        this.tiempoCommit = Timer.builder("movimientos.grupo.transaccion")
+                .description("Tiempo de la transacción de un grupo, incluido el commit")
+                .register(registry);
+        this.tamanoGrupo = DistributionSummary.builder("movimientos.grupo.tamano")
+                .description("Movimientos por commit")
+                .register(registry);
+        this.gruposFallidos = Counter.builder("movimientos.grupo.fallidos")
+                .description("Grupos cuyo commit falló y se reintentaron de a un movimiento")
+                .register(registry);
+    }
+
+    public boolean habilitado() {
+        return habilitado && activo;
+    }
+
+    /** Conexiones que pueden retener los escritores a la vez: una por escritor. */
+    public int conexiones() {
+        return escritores.length;
+    }
+
+    /**
+     * Espera el resultado del grupo. Los errores de negocio ({@code SaldoNoDisponibleException},
+     * {@code IllegalArgumentException}, clave duplicada) se relanzan tal como los lanza el motor.
+     * <p>
+     * Si el grupo no responde en {@code espera-respuesta} la solicitud termina con 503
+     * {@code GROUP_COMMIT_BUSY}, pero el movimiento sigue en el grupo y puede quedar registrado: el
+     * cliente tiene que reintentar con la misma idempotencyKey, que devuelve el movimiento ya
+     * registrado o lo aplica si no llegó a hacerlo.
+     */
+    public MovimientoResponse aplicar(MovimientoRequest r) {
+        var solicitud = new Solicitud(r, new CompletableFuture<>());
+        try {
+            if (!escritor(r.cuentaId()).cola.offer(solicitud, esperaRespuesta.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ColaSaturadaException(GROUP_COMMIT_BUSY, "Cola de group commit llena");
+            }
+            return solicitud.respuesta().get(esperaRespuesta.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ColaSaturadaException(GROUP_COMMIT_BUSY, "Sin respuesta del group commit; reintente con la misma idempotencyKey");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera del group commit interrumpida", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        activo = true;
+        for (Escritor e : escritores) e.hilo.start();
+    }
+
+    @Override
+    public void stop() {
+        activo = false;
+        for (Escritor e : escritores) {
+            try {
+                e.hilo.join(esperaRespuesta.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private Escritor escritor(UUID cuentaId) {
+        return escritores[Math.floorMod(cuentaId.hashCode(), escritores.length)];
+    }
+
+    private final class Escritor {
+        private final ArrayBlockingQueue<Solicitud> cola;
+        private final Thread hilo;
+
+        private Escritor(int numero, int capacidad) {
+            this.cola = new ArrayBlockingQueue<>(capacidad);
+            this.hilo = new Thread(this::escribir, "group-commit-" + numero);
+            this.hilo.setDaemon(true);
+        }
+
+        private void escribir() {
+            List<Solicitud> grupo = new ArrayList<>(maxSolicitudes);
+            while (activo || !cola.isEmpty()) {
+                try {
+                    var primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                    if (primera == null) continue;
+                    grupo.add(primera);
+                    long limite = System.nanoTime() + ventanaNanos;
+                    while (grupo.size() < maxSolicitudes) {
+                        long resta = limite - System.nanoTime();
+                        var siguiente = resta > 0 ? cola.poll(resta, TimeUnit.NANOSECONDS) : cola.poll();
+                        if (siguiente == null) break;
+                        grupo.add(siguiente);
+                    }
+                    registrar(grupo);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Error inesperado en el escritor de group commit", e);
+                    grupo.forEach(s -> s.respuesta().completeExceptionally(e));
+                } finally {
+                    grupo.clear();
+                }
+            }
+        }
+
+        private void registrar(List<Solicitud> grupo) {
+            Object[] resultados = new Object[grupo.size()];
+            int[] orden = IntStream.range(0, grupo.size()).boxed()
+                    .sorted(Comparator.comparing(k -> grupo.get(k).request().cuentaId()))
+                    .mapToInt(Integer::intValue).toArray();
+            try {
+                tiempoCommit.record(() -> transactionTemplate.executeWithoutResult(s -> {
+                    for (int k : orden) {
+                        resultados[k] = conSavepoint(grupo.get(k).request());
+                    }
+                }));
+                tamanoGrupo.record(grupo.size());
+            } catch (RuntimeException e) {
+                // Falló el commit del grupo completo (por ejemplo un conflicto con otra ruta): cada movimiento va por separado.
+                log.warn("Commit de grupo fallido, reintentando {} movimientos de a uno", grupo.size(), e);
+                gruposFallidos.increment();
+                for (int k = 0; k < grupo.size(); k++) {
+                    var r = grupo.get(k).request();
+                    try {
+                        resultados[k] = transactionTemplate.execute(s -> motor.aplicar(r));
+                    } catch (RuntimeException ex) {
+                        resultados[k] = ex;
+                    }
+                }
+            }
+            for (int k = 0; k < grupo.size(); k++) {
+                var respuesta = grupo.get(k).respuesta();
+                if (resultados[k] instanceof RuntimeException e) respuesta.completeExceptionally(e);
+                else respuesta.complete((MovimientoResponse) resultados[k]);
+            }
+        }
+
+        private Object conSavepoint(MovimientoRequest r) {
+            Savepoint savepoint = jdbc.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+            try {
+                var aplicado = motor.aplicar(r);
+                jdbc.execute((ConnectionCallback<Void>) c -> {
+                    c.releaseSavepoint(savepoint);
+                    return null;
+                });
+                return aplicado;
+            } catch (RuntimeException e) {
+                jdbc.execute((ConnectionCallback<Void>) c -> {
+                    c.rollback(savepoint);
+                    return null;
+                });
+                return e;
+            }
+        }
+    }
+}
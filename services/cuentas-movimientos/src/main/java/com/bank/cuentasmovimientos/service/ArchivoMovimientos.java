@@ -0,0 +1,269 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.Cuenta;
+import com.bank.cuentasmovimientos.domain.Movimiento;
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.repository.RangoFechas;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Meses de movimiento archivados como {@code movimiento_AAAA_MM.tsv.gz} (formato texto de COPY, fecha
+ * en UTC, ordenado por cuenta y fecha) en {@code movimientos.particiones.archivo.directorio}. Los
+ * reportes de estado de cuenta los leen cuando el rango pedido cae en meses que ya no están en la base,
+ * y los replays de idempotencyKey cuando movimiento_clave apunta a un mes archivado.
+ */
+@Component
+public class ArchivoMovimientos {
+
+    private static final DateTimeFormatter MES = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern NOMBRE = Pattern.compile("movimiento_(\\d{4}_\\d{2})\\.tsv\\.gz");
+    private static final Pattern TEMPORAL = Pattern.compile("movimiento_(\\d{4}_\\d{2})\\.tsv\\.gz\\.tmp");
+    private static final String COLUMNAS =
+            "id, cuenta_id, fecha AT TIME ZONE 'UTC', tipo, valor, saldo_posterior, referencia, idempotency_key, "
+            + "transferencia_id";
+    private static final String CLAVES_ARCHIVADAS =
+            "SELECT idempotency_key, fecha FROM movimiento_clave WHERE idempotency_key = ANY (?) AND fecha < ?";
+
+    private final JdbcTemplate jdbc;
+    private final Path directorio;
+    /** Meses publicados; se lee del directorio la primera vez y se renueva en cada {@link #publicar}. */
+    private volatile List<YearMonth> archivados;
+
+    public ArchivoMovimientos(JdbcTemplate jdbc,
+                              @Value("${movimientos.particiones.archivo.directorio:archivo/movimientos}") Path directorio) {
+        this.jdbc = jdbc;
+        this.directorio = directorio;
+    }
+
+    static String tabla(YearMonth mes) {
+        return "movimiento_" + mes.format(MES);
+    }
+
+    /**
+     * Copia la partición del mes a un archivo temporal; {@link #publicar} lo deja visible una vez que
+     * la partición ya no está en la base, así un reporte nunca ve el mes dos veces.
+     */
+    void exportar(YearMonth mes) {
+        try {
+            Files.createDirectories(directorio);
+            Path temporal = temporal(mes);
+            try (var out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)), 1 << 16)) {
+                String copy = "COPY (SELECT " + COLUMNAS + " FROM " + tabla(mes) + " ORDER BY cuenta_id, fecha, id) TO STDOUT";
+                jdbc.execute((ConnectionCallback<Long>) c -> {
+                    try {
+                        return c.unwrap(PGConnection.class).getCopyAPI().copyOut(copy, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void publicar(YearMonth mes) {
+        try {
+            if (Files.exists(temporal(mes))) {
+                Files.move(temporal(mes), archivo(mes), StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        archivados = listar(NOMBRE);
+    }
+
+    /** Meses archivados que se cruzan con el rango; un extremo nulo no acota. */
+    public List<YearMonth> meses(LocalDate fechaInicio, LocalDate fechaFin) {
+        return archivados().stream()
+                .filter(mes -> fechaInicio == null || !mes.atEndOfMonth().isBefore(fechaInicio))
+                .filter(mes -> fechaFin == null || !mes.atDay(1).isAfter(fechaFin))
+                .toList();
+    }
+
+    /** Exportaciones que quedaron sin publicar por una falla a mitad de archivar. */
+    List<YearMonth> pendientes() {
+        return listar(TEMPORAL);
+    }
+
+    private List<YearMonth> listar(Pattern patron) {
+        if (!Files.isDirectory(directorio)) return List.of();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.map(p -> patron.matcher(p.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(m -> YearMonth.parse(m.group(1), MES))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<YearMonth> archivados() {
+        var meses = archivados;
+        if (meses == null) {
+            meses = listar(NOMBRE);
+            archivados = meses;
+        }
+        return meses;
+    }
+
+    /** Primer día que sigue en la base: todo lo anterior está archivado. */
+    public Optional<LocalDate> hastaArchivado() {
+        var meses = archivados();
+        return meses.isEmpty() ? Optional.empty() : Optional.of(meses.get(meses.size() - 1).plusMonths(1).atDay(1));
+    }
+
+    /**
+     * Movimientos archivados de las cuentas en el rango, agrupados por cuenta y en orden cronológico
+     * dentro de cada una.
+     */
+    public Map<UUID, List<Movimiento>> leer(List<YearMonth> meses, Collection<UUID> cuentas, LocalDate fechaInicio,
+                                            LocalDate fechaFin) {
+        var rango = RangoFechas.de(fechaInicio, fechaFin);
+        Set<UUID> buscadas = new HashSet<>(cuentas);
+        Map<UUID, List<Movimiento>> porCuenta = new LinkedHashMap<>();
+        for (YearMonth mes : meses) {
+            recorrer(mes, campos -> {
+                UUID cuentaId = UUID.fromString(campos[1]);
+                if (!buscadas.contains(cuentaId)) return;
+                var fecha = fecha(campos[2]);
+                if (rango.desde() != null && fecha.isBefore(rango.desde())) return;
+                if (rango.hasta() != null && !fecha.isBefore(rango.hasta())) return;
+                porCuenta.computeIfAbsent(cuentaId, k -> new ArrayList<>()).add(movimiento(campos, cuentaId, fecha));
+            });
+        }
+        return porCuenta;
+    }
+
+    /**
+     * Movimientos archivados de las idempotencyKey dadas. movimiento_clave conserva las claves de los
+     * meses archivados y su fecha dice qué archivo leer; las que no están archivadas no aparecen. Sin
+     * meses archivados no consulta nada, y un archivo solo se lee si alguna clave cae en su mes y hasta
+     * encontrar todas las de ese mes.
+     */
+    public Map<String, Movimiento> buscarPorClave(Collection<String> claves) {
+        var hasta = hastaArchivado();
+        if (claves.isEmpty() || hasta.isEmpty()) return Map.of();
+        String[] buscadas = claves.toArray(String[]::new);
+        Map<YearMonth, Set<String>> porMes = new TreeMap<>();
+        jdbc.query(CLAVES_ARCHIVADAS, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("varchar", buscadas));
+            ps.setObject(2, hasta.get().atStartOfDay().atOffset(ZoneOffset.UTC));
+        }, (RowCallbackHandler) rs -> porMes.computeIfAbsent(
+                YearMonth.from(rs.getObject("fecha", OffsetDateTime.class).withOffsetSameInstant(ZoneOffset.UTC)),
+                k -> new HashSet<>()).add(rs.getString("idempotency_key")));
+
+        Map<String, Movimiento> encontrados = new HashMap<>();
+        porMes.forEach((mes, pendientes) -> {
+            if (!Files.exists(archivo(mes))) return;
+            recorrerMientras(mes, campos -> {
+                if (campos[7] != null && pendientes.remove(campos[7])) {
+                    encontrados.put(campos[7], movimiento(campos, UUID.fromString(campos[1]), fecha(campos[2])));
+                }
+                return !pendientes.isEmpty();
+            });
+        });
+        return encontrados;
+    }
+
+    private void recorrer(YearMonth mes, Consumer<String[]> accion) {
+        recorrerMientras(mes, campos -> {
+            accion.accept(campos);
+            return true;
+        });
+    }
+
+    /** Como {@link #recorrer}, pero deja de leer cuando la acción devuelve false. */
+    private void recorrerMientras(YearMonth mes, Predicate<String[]> accion) {
+        try (var lector = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archivo(mes)), 1 << 16), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (!accion.test(campos(linea))) return;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static OffsetDateTime fecha(String campo) {
+        return LocalDateTime.parse(campo.replace(' ', 'T')).atOffset(ZoneOffset.UTC);
+    }
+
+    private static Movimiento movimiento(String[] campos, UUID cuentaId, OffsetDateTime fecha) {
+        return Movimiento.builder()
+                .id(UUID.fromString(campos[0]))
+                .cuenta(Cuenta.builder().id(cuentaId).build())
+                .fecha(fecha)
+                .tipo(TipoMovimiento.valueOf(campos[3]))
+                .valor(new BigDecimal(campos[4]))
+                .saldoPosterior(new BigDecimal(campos[5]))
+                .referencia(campos[6])
+                .idempotencyKey(campos[7])
+                // Los archivos anteriores a las transferencias traen solo ocho campos.
+                .transferenciaId(campos.length > 8 && campos[8] != null ? UUID.fromString(campos[8]) : null)
+                .build();
+    }
+
+    /** Separa una línea del formato texto de COPY: tabulador entre campos, {@code \N} para null y escapes con barra. */
+    static String[] campos(String linea) {
+        String[] campos = linea.split("\t", -1);
+        for (int k = 0; k < campos.length; k++) {
+            campos[k] = campos[k].equals("\\N") ? null : sinEscapes(campos[k]);
+        }
+        return campos;
+    }
+
+    private static String sinEscapes(String campo) {
+        if (campo.indexOf('\\') < 0) return campo;
+        var texto = new StringBuilder(campo.length());
+        for (int i = 0; i < campo.length(); i++) {
+            char c = campo.charAt(i);
+            if (c == '\\' && i + 1 < campo.length()) {
+                c = switch (campo.charAt(++i)) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> campo.charAt(i);
+                };
+            }
+            texto.append(c);
+        }
+        return texto.toString();
+    }
+
+    private Path archivo(YearMonth mes) {
+        return directorio.resolve(tabla(mes) + ".tsv.gz");
+    }
+
+    private Path temporal(YearMonth mes) {
+        return directorio.resolve(tabla(mes) + ".tsv.gz.tmp");
+    }
+}
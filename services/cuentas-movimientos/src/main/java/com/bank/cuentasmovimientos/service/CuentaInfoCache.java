@@ -0,0 +1,56 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.repository.CuentaInfo;
+import com.bank.cuentasmovimientos.repository.CuentaRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Número, tipo, cliente y estado de cada cuenta, para validar movimientos y armar reportes sin
+ * leer la fila de cuenta. Las cuentas inexistentes no se guardan, así una cuenta recién creada se
+ * ve en la siguiente consulta; un cambio de estado hecho fuera del servicio tarda hasta el ttl.
+ */
+@Component
+public class CuentaInfoCache implements MeterBinder {
+
+    private final CuentaRepo cuentaRepo;
+    private final Cache<UUID, CuentaInfo> cache;
+
+    public CuentaInfoCache(CuentaRepo cuentaRepo,
+                           @Value("${movimientos.cuentas.cache.max-entradas:100000}") long maxEntradas,
+                           @Value("${movimientos.cuentas.cache.ttl:10m}") Duration ttl) {
+        this.cuentaRepo = cuentaRepo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<CuentaInfo> buscar(UUID cuentaId) {
+        return Optional.ofNullable(cache.get(cuentaId, id -> cuentaRepo.findInfoById(id).orElse(null)));
+    }
+
+    /** Cuenta existente y activa; si no, IllegalArgumentException antes de abrir transacción. */
+    public CuentaInfo validarParaMovimiento(UUID cuentaId) {
+        var cuenta = buscar(cuentaId).orElseThrow(() -> new IllegalArgumentException("Cuenta no existe"));
+        if (!cuenta.activa()) {
+            throw new IllegalArgumentException("Cuenta no está activa");
+        }
+        return cuenta;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "cuentas");
+    }
+}
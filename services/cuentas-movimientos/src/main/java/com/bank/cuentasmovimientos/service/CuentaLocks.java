@@ -0,0 +1,94 @@
+package com.bank.cuentasmovimientos.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa dentro del nodo las operaciones sobre una misma cuenta (locks por franja)
+ * y reintenta de forma acotada los conflictos de bloqueo que reporte la base de datos.
+ */
+@Component
+public class CuentaLocks {
+
+    private final ReentrantLock[] franjas;
+    private final int maxIntentos;
+    private final long esperaMs;
+
+    public CuentaLocks(@Value("${movimientos.concurrencia.franjas:256}") int franjas,
+                       @Value("${movimientos.concurrencia.max-intentos:3}") int maxIntentos,
+                       @Value("${movimientos.concurrencia.espera-ms:20}") long esperaMs) {
+        this.franjas = new ReentrantLock[franjas];
+        for (int i = 0; i < franjas; i++) {
+            this.franjas[i] = new ReentrantLock(true);
+        }
+        this.maxIntentos = Math.max(1, maxIntentos);
+        this.esperaMs = esperaMs;
+    }
+
+    public <T> T ejecutar(UUID cuentaId, Supplier<T> accion) {
+        ReentrantLock lock = franja(cuentaId);
+        lock.lock();
+        try {
+            return conReintentos(accion);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Igual que {@link #ejecutar(UUID, Supplier)} para dos cuentas. Las franjas se toman siempre en el
+     * mismo orden (por índice; dos cuentas pueden compartir franja), así dos operaciones cruzadas no se
+     * esperan mutuamente.
+     */
+    public <T> T ejecutar(UUID cuentaA, UUID cuentaB, Supplier<T> accion) {
+        int a = indice(cuentaA);
+        int b = indice(cuentaB);
+        if (a == b) return ejecutar(cuentaA, accion);
+        ReentrantLock primero = franjas[Math.min(a, b)];
+        ReentrantLock segundo = franjas[Math.max(a, b)];
+        primero.lock();
+        try {
+            segundo.lock();
+            try {
+                return conReintentos(accion);
+            } finally {
+                segundo.unlock();
+            }
+        } finally {
+            primero.unlock();
+        }
+    }
+
+    private <T> T conReintentos(Supplier<T> accion) {
+        for (int intento = 1; ; intento++) {
+            try {
+                return accion.get();
+            } catch (ConcurrencyFailureException e) {
+                if (intento >= maxIntentos) throw e;
+                esperar(intento);
+            }
+        }
+    }
+
+    private void esperar(int intento) {
+        try {
+            Thread.sleep(esperaMs * intento);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reintento interrumpido", e);
+        }
+    }
+
+    ReentrantLock franja(UUID cuentaId) {
+        return franjas[indice(cuentaId)];
+    }
+
+    private int indice(UUID cuentaId) {
+        return Math.floorMod(cuentaId.hashCode(), franjas.length);
+    }
+}
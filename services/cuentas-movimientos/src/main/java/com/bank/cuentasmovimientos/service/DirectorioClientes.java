@@ -0,0 +1,81 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Nombres de clientes consultados a personas-clientes. Las consultas concurrentes del mismo id
+ * comparten una sola llamada; si no hay respuesta a tiempo se usa un nombre genérico.
+ */
+@Component
+public class DirectorioClientes implements MeterBinder {
+
+    private final RestClient rest;
+    private final Duration timeout;
+    private final AsyncLoadingCache<UUID, Optional<String>> nombres;
+
+    public DirectorioClientes(RestClient.Builder builder,
+                              @Value("${movimientos.clientes.url:http://localhost:8081}") String url,
+                              @Value("${movimientos.clientes.timeout:500ms}") Duration timeout,
+                              @Value("${movimientos.clientes.max-entradas:10000}") long maxEntradas,
+                              @Value("${movimientos.clientes.ttl:10m}") Duration ttl) {
+        var requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.rest = builder.baseUrl(url).requestFactory(requestFactory).build();
+        this.timeout = timeout;
+        this.nombres = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync(this::consultar);
+    }
+
+    public String nombre(UUID clienteId) {
+        try {
+            return nombres.get(clienteId).get(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .orElseGet(() -> nombreGenerico(clienteId));
+        } catch (TimeoutException | ExecutionException e) {
+            return nombreGenerico(clienteId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return nombreGenerico(clienteId);
+        }
+    }
+
+    public static String nombreGenerico(UUID clienteId) {
+        return "Cliente #" + clienteId.toString().substring(0, 8);
+    }
+
+    /** Un 4xx se guarda como ausente; los errores de red o 5xx no se cachean y se reintentan. */
+    private Optional<String> consultar(UUID clienteId) {
+        try {
+            var cliente = rest.get().uri("/clientes/{id}", clienteId).retrieve().body(ClienteRemoto.class);
+            return Optional.ofNullable(cliente).map(ClienteRemoto::nombre);
+        } catch (HttpClientErrorException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, nombres.synchronous(), "clientes");
+    }
+
+    record ClienteRemoto(UUID id, String nombre) {}
+}
@@ -0,0 +1,95 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.Movimiento;
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.ReporteEstadoCuentaResponse.CuentaDetalle;
+import com.bank.cuentasmovimientos.dto.ReporteEstadoCuentaResponse.MovimientoDetalle;
+import com.bank.cuentasmovimientos.repository.CuentaInfo;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Estado de cuenta en una sola pasada sobre movimientos ya ordenados por cuenta y fecha
+ * ascendente: cada cuenta se cierra cuando aparece la siguiente, sin agrupar ni reordenar.
+ */
+final class EstadoCuentaPlegado implements Consumer<Movimiento> {
+
+    @Getter private final List<CuentaDetalle> cuentas = new ArrayList<>();
+    @Getter private BigDecimal totalInicial = BigDecimal.ZERO;
+    @Getter private BigDecimal totalCreditos = BigDecimal.ZERO;
+    @Getter private BigDecimal totalDebitos = BigDecimal.ZERO;
+    @Getter private BigDecimal totalFinal = BigDecimal.ZERO;
+
+    private final Function<UUID, Optional<CuentaInfo>> infoCuentas;
+    private UUID cuentaId;
+    private CuentaDetalle.CuentaDetalleBuilder cuenta;
+    private List<MovimientoDetalle> movimientos;
+    private BigDecimal saldoInicial;
+    private BigDecimal creditos;
+    private BigDecimal debitos;
+    private BigDecimal saldoFinal;
+
+    /** Número y tipo de cada cuenta se resuelven por id, una vez por cuenta. */
+    EstadoCuentaPlegado(Function<UUID, Optional<CuentaInfo>> infoCuentas) {
+        this.infoCuentas = infoCuentas;
+    }
+
+    @Override
+    public void accept(Movimiento m) {
+        boolean credito = m.getTipo() == TipoMovimiento.CREDITO;
+        if (!m.getCuenta().getId().equals(cuentaId)) {
+            cerrarCuenta();
+            cuentaId = m.getCuenta().getId();
+            var info = infoCuentas.apply(cuentaId);
+            cuenta = CuentaDetalle.builder()
+                    .cuentaId(cuentaId)
+                    .numero(info.map(CuentaInfo::numero).orElse(null))
+                    .tipo(info.map(i -> String.valueOf(i.tipo())).orElse(null));
+            movimientos = new ArrayList<>();
+            saldoInicial = credito ? m.getSaldoPosterior().subtract(m.getValor()) : m.getSaldoPosterior().add(m.getValor());
+            creditos = BigDecimal.ZERO;
+            debitos = BigDecimal.ZERO;
+        }
+
+        if (credito) creditos = creditos.add(m.getValor());
+        else debitos = debitos.add(m.getValor());
+        saldoFinal = m.getSaldoPosterior();
+
+        movimientos.add(MovimientoDetalle.builder()
+                .tipo(String.valueOf(m.getTipo()))
+                .valor(m.getValor())
+                .saldoDisponible(m.getSaldoPosterior())
+                .referencia(m.getReferencia())
+                .fecha(m.getFecha().toLocalDateTime())
+                .build());
+    }
+
+    /** Cierra la última cuenta abierta; llamar una vez al terminar de recorrer. */
+    EstadoCuentaPlegado terminar() {
+        cerrarCuenta();
+        return this;
+    }
+
+    private void cerrarCuenta() {
+        if (cuentaId == null) return;
+        cuentas.add(cuenta
+                .saldoInicial(saldoInicial)
+                .totalCreditos(creditos)
+                .totalDebitos(debitos)
+                .saldoFinal(saldoFinal)
+                .movimientos(movimientos)
+                .build());
+        totalInicial = totalInicial.add(saldoInicial);
+        totalCreditos = totalCreditos.add(creditos);
+        totalDebitos = totalDebitos.add(debitos);
+        totalFinal = totalFinal.add(saldoFinal);
+        cuentaId = null;
+    }
+}
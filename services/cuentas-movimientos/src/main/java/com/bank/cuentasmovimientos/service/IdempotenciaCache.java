@@ -0,0 +1,60 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Respuestas de movimientos confirmados por idempotencyKey, para contestar reintentos sin
+ * consultar la base. Solo se alimenta después del commit; movimiento_clave sigue siendo la garantía final.
+ */
+@Component
+public class IdempotenciaCache implements MeterBinder {
+
+    private final Cache<String, MovimientoResponse> cache;
+
+    public IdempotenciaCache(@Value("${movimientos.idempotencia.max-entradas:100000}") long maxEntradas,
+                             @Value("${movimientos.idempotencia.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<MovimientoResponse> buscar(String idempotencyKey) {
+        return Optional.ofNullable(cache.getIfPresent(idempotencyKey));
+    }
+
+    public void registrar(String idempotencyKey, MovimientoResponse respuesta) {
+        cache.put(idempotencyKey, respuesta);
+    }
+
+    public void registrarTrasCommit(String idempotencyKey, MovimientoResponse respuesta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registrar(idempotencyKey, respuesta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registrar(idempotencyKey, respuesta);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "idempotencia");
+    }
+}
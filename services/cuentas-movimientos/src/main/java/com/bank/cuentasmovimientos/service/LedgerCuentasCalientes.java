@@ -0,0 +1,339 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.domain.UuidV7;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.handler.ColaSaturadaException;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Saldos de las cuentas calientes ({@code movimientos.ledger.cuentas-calientes}) en memoria. Cada
+ * cuenta pertenece a una partición con una cola acotada y un único hilo escritor: el escritor toma
+ * lo acumulado en la cola, valida contra el saldo en memoria y registra el lote completo (movimientos,
+ * saldo de cuenta y saldo_diario) en una sola transacción antes de responder. Al arrancar, el saldo
+ * sale del último movimiento de cada cuenta.
+ *
+ * <p>Supone una sola instancia del servicio escribiendo esas cuentas; las demás siguen por
+ * {@link MotorMovimientos} con lock de fila.
+ */
+@Slf4j
+@Component
+public class LedgerCuentasCalientes implements SmartLifecycle {
+
+    static final String LEDGER_BUSY = "LEDGER_BUSY";
+
+    private static final String INSERTAR = """
+            INSERT INTO movimiento (id, cuenta_id, fecha, tipo, valor, saldo_posterior, referencia, idempotency_key)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String ULTIMO_MOVIMIENTO = """
+            SELECT saldo_posterior, fecha FROM movimiento WHERE cuenta_id = ?
+            ORDER BY fecha DESC, id DESC LIMIT 1
+            """;
+
+    /** Resultado para quien envió el movimiento; replay si la idempotencyKey ya estaba registrada. */
+    public record Aplicado(MovimientoResponse movimiento, boolean replay) {}
+
+    private record Solicitud(MovimientoRequest request, CompletableFuture<Aplicado> respuesta) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final MovimientosExistentes existentes;
+    private final SaldoDiarioService saldosDiarios;
+    private final Set<UUID> configuradas;
+    private final int capacidad;
+    private final int tamanoLote;
+    private final Duration esperaRespuesta;
+    private final Timer tiempoLote;
+    private final Particion[] particiones;
+
+    private volatile Set<UUID> propias = Set.of();
+    private volatile boolean activo;
+
+    public LedgerCuentasCalientes(JdbcTemplate jdbc, TransactionTemplate transactionTemplate,
+                                  MovimientosExistentes existentes, SaldoDiarioService saldosDiarios,
+                                  MeterRegistry registry,
+                                  @Value("${movimientos.ledger.cuentas-calientes:}") String cuentasCalientes,
+                                  @Value("${movimientos.ledger.particiones:4}") int particiones,
+                                  @Value("${movimientos.ledger.capacidad:65536}") int capacidad,
+                                  @Value("${movimientos.ledger.tamano-lote:1000}") int tamanoLote,
+                                  @Value("${movimientos.ledger.espera-respuesta:5s}") Duration esperaRespuesta) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.existentes = existentes;
+        this.saldosDiarios = saldosDiarios;
+        this.configuradas = Arrays.stream(cuentasCalientes.split(","))
+                .map(String::trim).filter(s -> !s.isEmpty()).map(UUID::fromString)
+                .collect(java.util.stream.Collectors.toUnmodifiableSet());
+        this.capacidad = capacidad;
+        this.tamanoLote = tamanoLote;
+        this.esperaRespuesta = esperaRespuesta;
+        this.particiones = new Particion[configuradas.isEmpty() ? 0 : particiones];
+        this.tiempoLote = Timer.builder("movimientos.ledger.lote")
+                .description("Tiempo de registrar un lote del ledger, incluido el commit")
+                .register(registry);
+        Gauge.builder("movimientos.ledger.cola", this, l -> Arrays.stream(l.particiones)
+                        .filter(Objects::nonNull).mapToInt(p -> p.cola.size()).sum())
+                .description("Movimientos esperando en las colas del ledger")
+                .register(registry);
+    }
+
+    /** true si la cuenta es caliente y su saldo ya se cargó en memoria. */
+    public boolean atiende(UUID cuentaId) {
+        return propias.contains(cuentaId);
+    }
+
+    /** Conexiones que pueden retener los escritores a la vez: una por partición (ninguna sin cuentas calientes). */
+    public int conexiones() {
+        return particiones.length;
+    }
+
+    public Aplicado aplicar(MovimientoRequest r) {
+        var futuro = enviar(r);
+        try {
+            return futuro.get(esperaRespuesta.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ColaSaturadaException(LEDGER_BUSY, "Sin respuesta del ledger; reintente con la misma idempotencyKey");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera del ledger interrumpida", e);
+        }
+    }
+
+    /** Encola el movimiento; los de una misma cuenta se registran en el orden de llegada. */
+    public CompletableFuture<Aplicado> enviar(MovimientoRequest r) {
+        var solicitud = new Solicitud(r, new CompletableFuture<>());
+        try {
+            if (!activo || !particion(r.cuentaId()).cola.offer(solicitud, esperaRespuesta.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ColaSaturadaException(LEDGER_BUSY, "Cola del ledger llena");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera del ledger interrumpida", e);
+        }
+        return solicitud.respuesta();
+    }
+
+    @Override
+    public void start() {
+        if (configuradas.isEmpty()) return;
+        for (int i = 0; i < particiones.length; i++) {
+            particiones[i] = new Particion(i);
+        }
+        Set<UUID> cargadas = new HashSet<>();
+        for (UUID cuentaId : configuradas) {
+            if (particion(cuentaId).cargar(cuentaId)) cargadas.add(cuentaId);
+            else log.warn("Cuenta caliente {} no existe; se ignora", cuentaId);
+        }
+        activo = true;
+        for (Particion p : particiones) p.escritor.start();
+        propias = Set.copyOf(cargadas);
+        log.info("Ledger en memoria para {} cuentas en {} particiones", cargadas.size(), particiones.length);
+    }
+
+    /**
+     * Deja de aceptar movimientos (LEDGER_BUSY) y espera a que cada escritor registre su cola; recién
+     * entonces suelta sus cuentas al motor, que de otro modo podría registrar sobre un saldo que el
+     * escritor todavía va a pisar. Si un escritor no termina a tiempo sus cuentas siguen rechazando.
+     */
+    @Override
+    public void stop() {
+        activo = false;
+        Set<UUID> liberadas = new HashSet<>();
+        for (Particion p : particiones) {
+            if (p == null) continue;
+            try {
+                p.escritor.join(esperaRespuesta.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (p.escritor.isAlive()) log.warn("El escritor {} no terminó; sus cuentas siguen en el ledger", p.escritor.getName());
+            else liberadas.addAll(p.saldos.keySet());
+        }
+        propias = propias.stream().filter(id -> !liberadas.contains(id)).collect(java.util.stream.Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    /** Antes que el servidor web: las cuentas se cargan antes de recibir solicitudes y se drenan después. */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private Particion particion(UUID cuentaId) {
+        return particiones[Math.floorMod(cuentaId.hashCode(), particiones.length)];
+    }
+
+    private final class Particion {
+        private final ArrayBlockingQueue<Solicitud> cola = new ArrayBlockingQueue<>(capacidad);
+        /** Solo los toca el hilo escritor, salvo la carga inicial que ocurre antes de arrancarlo. */
+        private final Map<UUID, BigDecimal> saldos = new HashMap<>();
+        private final Map<UUID, OffsetDateTime> ultimaFecha = new HashMap<>();
+        private final Thread escritor;
+
+        private Particion(int numero) {
+            this.escritor = new Thread(this::escribir, "ledger-" + numero);
+            this.escritor.setDaemon(true);
+        }
+
+        private boolean cargar(UUID cuentaId) {
+            var ultimo = jdbc.query(ULTIMO_MOVIMIENTO, rs -> rs.next()
+                    ? Map.entry(rs.getBigDecimal(1), rs.getObject(2, OffsetDateTime.class)) : null, cuentaId);
+            BigDecimal saldo = ultimo != null ? ultimo.getKey()
+                    : jdbc.query("SELECT saldo FROM cuenta WHERE id = ?", rs -> rs.next() ? rs.getBigDecimal(1) : null, cuentaId);
+            if (saldo == null) return false;
+            saldos.put(cuentaId, saldo);
+            if (ultimo != null) ultimaFecha.put(cuentaId, ultimo.getValue());
+            return true;
+        }
+
+        private void escribir() {
+            List<Solicitud> lote = new ArrayList<>(tamanoLote);
+            while (activo || !cola.isEmpty()) {
+                try {
+                    var primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                    if (primera == null) continue;
+                    lote.add(primera);
+                    cola.drainTo(lote, tamanoLote - 1);
+                    tiempoLote.record(() -> registrar(lote));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Error inesperado en el escritor del ledger", e);
+                    lote.forEach(s -> s.respuesta().completeExceptionally(e));
+                } finally {
+                    lote.clear();
+                }
+            }
+        }
+
+        private void registrar(List<Solicitud> lote) {
+            Object[] resultados;
+            try {
+                resultados = intentar(lote);
+            } catch (RuntimeException e) {
+                // Otra ruta registró alguna clave entre la consulta de existentes y el insert: se sigue de a
+                // uno, así solo falla el movimiento en conflicto y los demás del lote se registran.
+                log.warn("Registrando uno a uno el lote del ledger tras error", e);
+                resultados = new Object[lote.size()];
+                for (int k = 0; k < lote.size(); k++) {
+                    try {
+                        resultados[k] = intentar(List.of(lote.get(k)))[0];
+                    } catch (RuntimeException f) {
+                        resultados[k] = f;
+                    }
+                }
+            }
+            for (int k = 0; k < lote.size(); k++) {
+                var respuesta = lote.get(k).respuesta();
+                if (resultados[k] instanceof RuntimeException e) respuesta.completeExceptionally(e);
+                else respuesta.complete((Aplicado) resultados[k]);
+            }
+        }
+
+        /**
+         * Aplica el lote en memoria y lo registra; si la transacción falla, los saldos y la última fecha
+         * de cada cuenta vuelven a como estaban.
+         */
+        private Object[] intentar(List<Solicitud> lote) {
+            var previos = existentes.buscar(lote.stream().map(s -> s.request().idempotencyKey()).distinct().toList());
+            Object[] resultados = new Object[lote.size()];
+            Map<String, Integer> enLote = new HashMap<>();
+            Map<UUID, BigDecimal> saldosAntes = new HashMap<>();
+            Map<UUID, OffsetDateTime> fechasAntes = new HashMap<>();
+            Map<UUID, Map<LocalDate, AcumuladoDia>> dias = new LinkedHashMap<>();
+            List<Object[]> filas = new ArrayList<>();
+
+            for (int k = 0; k < lote.size(); k++) {
+                var r = lote.get(k).request();
+                var previo = previos.get(r.idempotencyKey());
+                Integer primera = enLote.putIfAbsent(r.idempotencyKey(), k);
+                if (previo != null) {
+                    resultados[k] = new Aplicado(previo, true);
+                } else if (primera != null) {
+                    resultados[k] = resultados[primera] instanceof Aplicado a ? new Aplicado(a.movimiento(), true) : resultados[primera];
+                } else {
+                    resultados[k] = aplicarEnMemoria(r, saldosAntes, fechasAntes, dias, filas);
+                }
+            }
+
+            try {
+                if (!filas.isEmpty()) {
+                    transactionTemplate.executeWithoutResult(s -> {
+                        jdbc.batchUpdate(INSERTAR, filas);
+                        jdbc.batchUpdate("UPDATE cuenta SET saldo = ? WHERE id = ?", saldosAntes.keySet().stream()
+                                .map(id -> new Object[]{saldos.get(id), id}).toList());
+                        dias.forEach((cuentaId, porDia) -> porDia.forEach((dia, d) ->
+                                saldosDiarios.registrarDia(cuentaId, dia, d.apertura, d.creditos, d.debitos, d.cierre, d.cantidad)));
+                    });
+                }
+            } catch (RuntimeException e) {
+                saldos.putAll(saldosAntes);
+                fechasAntes.forEach((cuentaId, fecha) -> {
+                    if (fecha == null) ultimaFecha.remove(cuentaId);
+                    else ultimaFecha.put(cuentaId, fecha);
+                });
+                throw e;
+            }
+            return resultados;
+        }
+
+        private Object aplicarEnMemoria(MovimientoRequest r, Map<UUID, BigDecimal> saldosAntes,
+                                        Map<UUID, OffsetDateTime> fechasAntes,
+                                        Map<UUID, Map<LocalDate, AcumuladoDia>> dias, List<Object[]> filas) {
+            BigDecimal saldo = saldos.get(r.cuentaId());
+            if (saldo == null) return new IllegalArgumentException("Cuenta no existe");
+            if (r.tipo() != TipoMovimiento.CREDITO && saldo.compareTo(r.valor()) < 0) {
+                return new SaldoNoDisponibleException("Saldo no disponible");
+            }
+
+            BigDecimal nuevo = r.tipo() == TipoMovimiento.CREDITO ? saldo.add(r.valor()) : saldo.subtract(r.valor());
+            saldosAntes.putIfAbsent(r.cuentaId(), saldo);
+            saldos.put(r.cuentaId(), nuevo);
+
+            UUID id = UuidV7.generar();
+            OffsetDateTime fecha = siguienteFecha(r.cuentaId(), fechasAntes);
+            dias.computeIfAbsent(r.cuentaId(), c -> new LinkedHashMap<>())
+                    .computeIfAbsent(SaldoDiarioService.dia(fecha), d -> new AcumuladoDia(saldo))
+                    .sumar(r.tipo(), r.valor(), nuevo);
+            filas.add(new Object[]{id, r.cuentaId(), fecha, r.tipo().name(), r.valor(), nuevo, r.referencia(), r.idempotencyKey()});
+            return new Aplicado(new MovimientoResponse(id, r.cuentaId(), r.tipo(), r.valor(), nuevo), false);
+        }
+
+        /** Fechas estrictamente crecientes por cuenta, para que el último movimiento sea el del saldo vigente. */
+        private OffsetDateTime siguienteFecha(UUID cuentaId, Map<UUID, OffsetDateTime> fechasAntes) {
+            var fecha = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            var anterior = ultimaFecha.get(cuentaId);
+            if (!fechasAntes.containsKey(cuentaId)) fechasAntes.put(cuentaId, anterior);
+            if (anterior != null && !fecha.isAfter(anterior)) fecha = anterior.plus(1, ChronoUnit.MICROS);
+            ultimaFecha.put(cuentaId, fecha);
+            return fecha;
+        }
+    }
+}
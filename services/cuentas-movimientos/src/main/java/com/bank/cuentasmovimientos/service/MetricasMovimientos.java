@@ -0,0 +1,76 @@
+package com.bank.cuentasmovimientos.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Métricas de registro de movimientos y de reportes. {@code movimientos.aplicar} mide la
+ * operación completa por resultado y {@code movimientos.aplicar.transaccion} solo la parte
+ * dentro de la transacción (consultas y commit); la diferencia es espera de lock y JVM.
+ */
+@Component
+public class MetricasMovimientos {
+
+    public static final String APLICADO = "aplicado";
+    public static final String REPLAY = "replay";
+    public static final String SALDO_INSUFICIENTE = "saldo_insuficiente";
+    public static final String CUENTA_INEXISTENTE = "cuenta_inexistente";
+    public static final String CUENTA_CALIENTE = "cuenta_caliente";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final Timer transaccion;
+
+    public MetricasMovimientos(MeterRegistry registry) {
+        this.registry = registry;
+        this.transaccion = Timer.builder("movimientos.aplicar.transaccion")
+                .description("Tiempo dentro de la transacción de aplicar, incluido el commit")
+                .register(registry);
+    }
+
+    public void aplicar(String resultado, long nanos) {
+        Timer.builder("movimientos.aplicar")
+                .description("Tiempo total de aplicar un movimiento")
+                .tag("resultado", resultado)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void transferir(String resultado, long nanos) {
+        Timer.builder("movimientos.transferir")
+                .description("Tiempo total de una transferencia")
+                .tag("resultado", resultado)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> T transaccion(Supplier<T> accion) {
+        return transaccion.record(accion);
+    }
+
+    public <T> T reporte(String modo, Supplier<T> generar, ToIntFunction<T> filas) {
+        long inicio = System.nanoTime();
+        T resultado = generar.get();
+        reporte(modo, System.nanoTime() - inicio, filas.applyAsInt(resultado));
+        return resultado;
+    }
+
+    public void reporte(String modo, long nanos, long filas) {
+        Timer.builder("reportes.generacion")
+                .description("Tiempo de generación de reportes")
+                .tag("modo", modo)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("reportes.filas")
+                .description("Movimientos o cuentas incluidos en cada reporte")
+                .tag("modo", modo)
+                .register(registry)
+                .record(filas);
+    }
+}
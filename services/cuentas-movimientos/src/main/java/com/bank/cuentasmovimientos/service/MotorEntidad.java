@@ -0,0 +1,97 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.Cuenta;
+import com.bank.cuentasmovimientos.domain.Movimiento;
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.domain.UuidV7;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.dto.TransferenciaRequest;
+import com.bank.cuentasmovimientos.dto.TransferenciaResponse;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import com.bank.cuentasmovimientos.repository.CuentaRepo;
+import com.bank.cuentasmovimientos.repository.MovimientoRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "movimientos.motor", havingValue = "entidad", matchIfMissing = true)
+@RequiredArgsConstructor
+public class MotorEntidad implements MotorMovimientos {
+    private final CuentaRepo cuentaRepo;
+    private final MovimientoRepo movRepo;
+    private final SaldoDiarioService saldosDiarios;
+
+    @Override
+    public MovimientoResponse aplicar(MovimientoRequest r) {
+        rechazarDuplicado(r.idempotencyKey());
+        var cuenta = bloquear(r.cuentaId());
+        var mov = registrar(cuenta, r.tipo(), r.valor(), r.referencia(), r.idempotencyKey(), null);
+        return new MovimientoResponse(mov.getId(), cuenta.getId(), r.tipo(), r.valor(), mov.getSaldoPosterior());
+    }
+
+    @Override
+    public TransferenciaResponse transferir(TransferenciaRequest r) {
+        rechazarDuplicado(r.idempotencyKey());
+        Cuenta origen;
+        Cuenta destino;
+        if (r.origenPrimero()) {
+            origen = bloquear(r.cuentaOrigenId());
+            destino = bloquear(r.cuentaDestinoId());
+        } else {
+            destino = bloquear(r.cuentaDestinoId());
+            origen = bloquear(r.cuentaOrigenId());
+        }
+
+        UUID transferenciaId = UuidV7.generar();
+        var debito = registrar(origen, TipoMovimiento.DEBITO, r.valor(), r.referencia(), r.idempotencyKey(), transferenciaId);
+        var credito = registrar(destino, TipoMovimiento.CREDITO, r.valor(), r.referencia(), r.claveCredito(), transferenciaId);
+        return new TransferenciaResponse(transferenciaId,
+                new MovimientoResponse(debito.getId(), origen.getId(), TipoMovimiento.DEBITO, r.valor(), debito.getSaldoPosterior()),
+                new MovimientoResponse(credito.getId(), destino.getId(), TipoMovimiento.CREDITO, r.valor(), credito.getSaldoPosterior()));
+    }
+
+    private void rechazarDuplicado(String idempotencyKey) {
+        if (movRepo.findByIdempotencyKey(idempotencyKey).isPresent()) {
+            // MovimientoService y TransferenciaService responden el duplicado como replay, igual que con el motor SQL.
+            throw new DuplicateKeyException("idempotencyKey ya registrado: " + idempotencyKey);
+        }
+    }
+
+    private Cuenta bloquear(UUID cuentaId) {
+        return cuentaRepo.findByIdForUpdate(cuentaId)
+                .orElseThrow(() -> new IllegalArgumentException("Cuenta no existe"));
+    }
+
+    private Movimiento registrar(Cuenta cuenta, TipoMovimiento tipo, BigDecimal valor, String referencia,
+                                 String idempotencyKey, UUID transferenciaId) {
+        if (tipo == TipoMovimiento.CREDITO) {
+            cuenta.acreditar(valor);
+        } else {
+            try { cuenta.debitar(valor); }
+            catch (IllegalStateException e) { throw new SaldoNoDisponibleException("Saldo no disponible"); }
+        }
+
+        var mov = Movimiento.builder()
+                .id(UuidV7.generar())
+                .cuenta(cuenta)
+                .fecha(OffsetDateTime.now())
+                .tipo(tipo)
+                .valor(valor)
+                .saldoPosterior(cuenta.getSaldo())
+                .referencia(referencia)
+                .idempotencyKey(idempotencyKey)
+                .transferenciaId(transferenciaId)
+                .build();
+
+        movRepo.save(mov);
+        saldosDiarios.registrar(cuenta.getId(), mov.getFecha(), tipo, valor, mov.getSaldoPosterior());
+        return mov;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.dto.TransferenciaRequest;
+import com.bank.cuentasmovimientos.dto.TransferenciaResponse;
+
+/**
+ * Estrategia de registro de un movimiento. Se invoca dentro de la transacción abierta por
+ * {@link MovimientoService} o {@link TransferenciaService}; se selecciona con la propiedad {@code movimientos.motor}.
+ */
+public interface MotorMovimientos {
+    MovimientoResponse aplicar(MovimientoRequest r);
+
+    /** Registra el débito y el crédito tomando las cuentas en orden de cuentaId. */
+    TransferenciaResponse transferir(TransferenciaRequest r);
+}
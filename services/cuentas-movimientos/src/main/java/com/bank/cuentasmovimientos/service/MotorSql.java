@@ -0,0 +1,90 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.domain.UuidV7;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.dto.TransferenciaRequest;
+import com.bank.cuentasmovimientos.dto.TransferenciaResponse;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Registra el movimiento con un UPDATE condicional sobre el saldo y un único INSERT,
+ * sin cargar la entidad Cuenta. El duplicado por idempotencyKey lo rechaza movimiento_clave
+ * (DuplicateKeyException) y la transacción se deshace completa.
+ */
+@Component
+@ConditionalOnProperty(name = "movimientos.motor", havingValue = "sql")
+@RequiredArgsConstructor
+public class MotorSql implements MotorMovimientos {
+
+    private static final String ACREDITAR =
+            "UPDATE cuenta SET saldo = saldo + ? WHERE id = ? RETURNING saldo";
+    private static final String DEBITAR =
+            "UPDATE cuenta SET saldo = saldo - ? WHERE id = ? AND saldo >= ? RETURNING saldo";
+    private static final String INSERTAR = """
+            INSERT INTO movimiento (id, cuenta_id, fecha, tipo, valor, saldo_posterior, referencia, idempotency_key,
+                                    transferencia_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final SaldoDiarioService saldosDiarios;
+
+    @Override
+    public MovimientoResponse aplicar(MovimientoRequest r) {
+        return registrar(r.cuentaId(), r.tipo(), r.valor(), r.referencia(), r.idempotencyKey(), null);
+    }
+
+    @Override
+    public TransferenciaResponse transferir(TransferenciaRequest r) {
+        UUID transferenciaId = UuidV7.generar();
+        MovimientoResponse debito;
+        MovimientoResponse credito;
+        if (r.origenPrimero()) {
+            debito = registrar(r.cuentaOrigenId(), TipoMovimiento.DEBITO, r.valor(), r.referencia(), r.idempotencyKey(), transferenciaId);
+            credito = registrar(r.cuentaDestinoId(), TipoMovimiento.CREDITO, r.valor(), r.referencia(), r.claveCredito(), transferenciaId);
+        } else {
+            credito = registrar(r.cuentaDestinoId(), TipoMovimiento.CREDITO, r.valor(), r.referencia(), r.claveCredito(), transferenciaId);
+            debito = registrar(r.cuentaOrigenId(), TipoMovimiento.DEBITO, r.valor(), r.referencia(), r.idempotencyKey(), transferenciaId);
+        }
+        return new TransferenciaResponse(transferenciaId, debito, credito);
+    }
+
+    private MovimientoResponse registrar(UUID cuentaId, TipoMovimiento tipo, BigDecimal valor, String referencia,
+                                         String idempotencyKey, UUID transferenciaId) {
+        BigDecimal saldo = tipo == TipoMovimiento.CREDITO
+                ? actualizarSaldo(ACREDITAR, valor, cuentaId)
+                : actualizarSaldo(DEBITAR, valor, cuentaId, valor);
+
+        if (saldo == null) {
+            if (!existeCuenta(cuentaId)) throw new IllegalArgumentException("Cuenta no existe");
+            throw new SaldoNoDisponibleException("Saldo no disponible");
+        }
+
+        UUID id = UuidV7.generar();
+        OffsetDateTime fecha = OffsetDateTime.now();
+        jdbc.update(INSERTAR, id, cuentaId, fecha, tipo.name(), valor, saldo, referencia, idempotencyKey, transferenciaId);
+        saldosDiarios.registrar(cuentaId, fecha, tipo, valor, saldo);
+
+        return new MovimientoResponse(id, cuentaId, tipo, valor, saldo);
+    }
+
+    private BigDecimal actualizarSaldo(String sql, Object... args) {
+        return jdbc.query(sql, rs -> rs.next() ? rs.getBigDecimal(1) : null, args);
+    }
+
+    private boolean existeCuenta(UUID cuentaId) {
+        return Boolean.TRUE.equals(jdbc.query("SELECT 1 FROM cuenta WHERE id = ?", (ResultSetExtractor<Boolean>) ResultSet::next, cuentaId));
+    }
+}
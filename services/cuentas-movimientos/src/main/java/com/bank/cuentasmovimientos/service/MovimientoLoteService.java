@@ -0,0 +1,277 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.domain.UuidV7;
+import com.bank.cuentasmovimientos.dto.MovimientoLoteResultado;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.handler.ColaSaturadaException;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import com.bank.cuentasmovimientos.repository.CuentaInfo;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Aplica lotes de movimientos agrupados por cuenta: una transacción por cuenta, el saldo se
+ * bloquea una sola vez y los movimientos se insertan con JDBC batch. Los movimientos de una cuenta
+ * en un lote comparten la fecha tomada con el lock ya adquirido y su orden lo da el id (UUID v7,
+ * creciente), como en el resto de las lecturas por (fecha, id).
+ */
+@Service
+public class MovimientoLoteService {
+
+    static final String INSUFFICIENT_FUNDS = "INSUFFICIENT_FUNDS";
+    static final String ACCOUNT_NOT_FOUND = "ACCOUNT_NOT_FOUND";
+    static final String ACCOUNT_INACTIVE = "ACCOUNT_INACTIVE";
+    static final String INVALID_REQUEST = "INVALID_REQUEST";
+    static final String DUPLICATE_KEY = "DUPLICATE_KEY";
+    static final String DATABASE_ERROR = "DATABASE_ERROR";
+
+    private static final String INSERTAR = """
+            INSERT INTO movimiento (id, cuenta_id, fecha, tipo, valor, saldo_posterior, referencia, idempotency_key)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final CuentaLocks cuentaLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final SaldoDiarioService saldosDiarios;
+    private final CuentaInfoCache cuentas;
+    private final MovimientosExistentes registrados;
+    private final LedgerCuentasCalientes ledger;
+    private final int maxItems;
+    private final int tamanoBatch;
+    private final int tramo;
+
+    public MovimientoLoteService(JdbcTemplate jdbc, CuentaLocks cuentaLocks, TransactionTemplate transactionTemplate,
+                                 Validator validator, SaldoDiarioService saldosDiarios, CuentaInfoCache cuentas,
+                                 MovimientosExistentes registrados, LedgerCuentasCalientes ledger,
+                                 @Value("${movimientos.lote.max-items:50000}") int maxItems,
+                                 @Value("${movimientos.lote.tamano-batch:500}") int tamanoBatch,
+                                 @Value("${movimientos.lote.tramo:5000}") int tramo) {
+        this.jdbc = jdbc;
+        this.cuentaLocks = cuentaLocks;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.saldosDiarios = saldosDiarios;
+        this.cuentas = cuentas;
+        this.registrados = registrados;
+        this.ledger = ledger;
+        this.maxItems = maxItems;
+        this.tamanoBatch = tamanoBatch;
+        this.tramo = Math.min(tramo, maxItems);
+    }
+
+    /**
+     * Lote de tamaño desconocido (NDJSON): se lee y aplica de a {@code movimientos.lote.tramo}
+     * movimientos, así la memoria no depende del tamaño del cuerpo, y cada resultado sale apenas se
+     * conoce, con su índice en el lote completo. Un tramo ya aplicado no se deshace si uno posterior
+     * falla; el reintento con las mismas idempotencyKey devuelve REPLAY para lo ya registrado.
+     */
+    public void aplicarEnTramos(Iterator<MovimientoRequest> items, Consumer<MovimientoLoteResultado> salida) {
+        List<MovimientoRequest> pendientes = new ArrayList<>(tramo);
+        int desde = 0;
+        while (items.hasNext()) {
+            pendientes.add(items.next());
+            if (pendientes.size() == tramo || !items.hasNext()) {
+                int base = desde;
+                for (var r : aplicar(pendientes)) {
+                    salida.accept(new MovimientoLoteResultado(base + r.indice(), r.idempotencyKey(), r.estado(), r.code(),
+                            r.message(), r.movimiento()));
+                }
+                desde += pendientes.size();
+                pendientes.clear();
+            }
+        }
+    }
+
+    public List<MovimientoLoteResultado> aplicar(List<MovimientoRequest> items) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + maxItems + " movimientos");
+        }
+
+        MovimientoLoteResultado[] resultados = new MovimientoLoteResultado[items.size()];
+        Map<String, Integer> primeraAparicion = new HashMap<>();
+        Map<UUID, List<Integer>> porCuenta = new LinkedHashMap<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            var r = items.get(i);
+            if (r == null || !validator.validate(r).isEmpty()) {
+                resultados[i] = rechazado(i, r == null ? null : r.idempotencyKey(), INVALID_REQUEST, "Movimiento inválido");
+            } else if (primeraAparicion.putIfAbsent(r.idempotencyKey(), i) == null) {
+                porCuenta.computeIfAbsent(r.cuentaId(), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, MovimientoResponse> existentes = registrados.buscar(primeraAparicion.keySet());
+        Map<Integer, CompletableFuture<LedgerCuentasCalientes.Aplicado>> enLedger = new LinkedHashMap<>();
+        for (var grupo : porCuenta.entrySet()) {
+            if (ledger.atiende(grupo.getKey())) {
+                enviarAlLedger(grupo.getKey(), grupo.getValue(), items, existentes, resultados, enLedger);
+            } else {
+                aplicarCuenta(grupo.getKey(), grupo.getValue(), items, existentes, resultados);
+            }
+        }
+        enLedger.forEach((i, futuro) -> resultados[i] = esperarLedger(i, items.get(i), futuro));
+
+        for (int i = 0; i < items.size(); i++) {
+            if (resultados[i] == null) {
+                var r = items.get(i);
+                var original = resultados[primeraAparicion.get(r.idempotencyKey())];
+                resultados[i] = original.movimiento() != null
+                        ? new MovimientoLoteResultado(i, r.idempotencyKey(), MovimientoLoteResultado.REPLAY, null, null, original.movimiento())
+                        : new MovimientoLoteResultado(i, r.idempotencyKey(), original.estado(), original.code(), original.message(), null);
+            }
+        }
+        return Arrays.asList(resultados);
+    }
+
+    /** Las cuentas calientes no se bloquean aquí: sus movimientos van a la cola del escritor de su partición. */
+    private void enviarAlLedger(UUID cuentaId, List<Integer> indices, List<MovimientoRequest> items,
+                                Map<String, MovimientoResponse> existentes, MovimientoLoteResultado[] resultados,
+                                Map<Integer, CompletableFuture<LedgerCuentasCalientes.Aplicado>> enLedger) {
+        boolean activa = cuentas.buscar(cuentaId).map(CuentaInfo::activa).orElse(true);
+        for (int i : indices) {
+            var r = items.get(i);
+            var previo = existentes.get(r.idempotencyKey());
+            if (previo != null) {
+                resultados[i] = new MovimientoLoteResultado(i, r.idempotencyKey(), MovimientoLoteResultado.REPLAY, null, null, previo);
+            } else if (!activa) {
+                resultados[i] = rechazado(i, r.idempotencyKey(), ACCOUNT_INACTIVE, "Cuenta no está activa");
+            } else {
+                try {
+                    enLedger.put(i, ledger.enviar(r));
+                } catch (ColaSaturadaException e) {
+                    resultados[i] = rechazado(i, r.idempotencyKey(), e.getCode(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private MovimientoLoteResultado esperarLedger(int i, MovimientoRequest r,
+                                                  CompletableFuture<LedgerCuentasCalientes.Aplicado> futuro) {
+        try {
+            var aplicado = futuro.get();
+            return new MovimientoLoteResultado(i, r.idempotencyKey(),
+                    aplicado.replay() ? MovimientoLoteResultado.REPLAY : MovimientoLoteResultado.APLICADO,
+                    null, null, aplicado.movimiento());
+        } catch (ExecutionException e) {
+            return switch (e.getCause()) {
+                case SaldoNoDisponibleException x -> rechazado(i, r.idempotencyKey(), INSUFFICIENT_FUNDS, x.getMessage());
+                case IllegalArgumentException x -> rechazado(i, r.idempotencyKey(), ACCOUNT_NOT_FOUND, x.getMessage());
+                case RuntimeException x -> throw x;
+                default -> throw new IllegalStateException(e.getCause());
+            };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera del ledger interrumpida", e);
+        }
+    }
+
+    private void aplicarCuenta(UUID cuentaId, List<Integer> indices, List<MovimientoRequest> items,
+                               Map<String, MovimientoResponse> existentes, MovimientoLoteResultado[] resultados) {
+        boolean activa = cuentas.buscar(cuentaId).map(CuentaInfo::activa).orElse(true);
+        try {
+            cuentaLocks.ejecutar(cuentaId, () -> {
+                try {
+                    transactionTemplate.executeWithoutResult(s -> registrar(cuentaId, activa, indices, items, existentes, resultados));
+                } catch (DuplicateKeyException e) {
+                    // Otra petición registró alguna de las claves después de la consulta inicial: se sigue de a un
+                    // movimiento, así la clave en conflicto no arrastra al resto de la cuenta.
+                    var claves = indices.stream().map(i -> items.get(i).idempotencyKey()).toList();
+                    existentes.putAll(registrados.buscar(claves));
+                    for (int i : indices) aplicarUno(cuentaId, activa, i, items, existentes, resultados);
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            // Nada de esta cuenta quedó registrado; las demás cuentas del lote siguen su curso.
+            for (int i : indices) {
+                resultados[i] = rechazado(i, items.get(i).idempotencyKey(), DATABASE_ERROR,
+                        "No se pudo registrar; reintente con la misma idempotencyKey");
+            }
+        }
+    }
+
+    private void aplicarUno(UUID cuentaId, boolean activa, int i, List<MovimientoRequest> items,
+                            Map<String, MovimientoResponse> existentes, MovimientoLoteResultado[] resultados) {
+        var r = items.get(i);
+        try {
+            try {
+                transactionTemplate.executeWithoutResult(s -> registrar(cuentaId, activa, List.of(i), items, existentes, resultados));
+            } catch (DuplicateKeyException e) {
+                var previo = registrados.buscar(List.of(r.idempotencyKey())).get(r.idempotencyKey());
+                resultados[i] = previo != null
+                        ? new MovimientoLoteResultado(i, r.idempotencyKey(), MovimientoLoteResultado.REPLAY, null, null, previo)
+                        : rechazado(i, r.idempotencyKey(), DUPLICATE_KEY, "idempotencyKey ya registrada");
+            }
+        } catch (DataAccessException e) {
+            resultados[i] = rechazado(i, r.idempotencyKey(), DATABASE_ERROR, "No se pudo registrar; reintente con la misma idempotencyKey");
+        }
+    }
+
+    private void registrar(UUID cuentaId, boolean activa, List<Integer> indices, List<MovimientoRequest> items,
+                           Map<String, MovimientoResponse> existentes, MovimientoLoteResultado[] resultados) {
+        BigDecimal saldo = jdbc.query("SELECT saldo FROM cuenta WHERE id = ? FOR UPDATE",
+                rs -> rs.next() ? rs.getBigDecimal(1) : null, cuentaId);
+
+        List<Object[]> filas = new ArrayList<>();
+        Map<LocalDate, AcumuladoDia> dias = new LinkedHashMap<>();
+        // Con el lock tomado: nada de la cuenta puede registrarse con una fecha entre esta y el commit.
+        OffsetDateTime fecha = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        for (int i : indices) {
+            var r = items.get(i);
+            var previo = existentes.get(r.idempotencyKey());
+            if (previo != null) {
+                resultados[i] = new MovimientoLoteResultado(i, r.idempotencyKey(), MovimientoLoteResultado.REPLAY, null, null, previo);
+                continue;
+            }
+            if (saldo == null) {
+                resultados[i] = rechazado(i, r.idempotencyKey(), ACCOUNT_NOT_FOUND, "Cuenta no existe");
+                continue;
+            }
+            if (!activa) {
+                resultados[i] = rechazado(i, r.idempotencyKey(), ACCOUNT_INACTIVE, "Cuenta no está activa");
+                continue;
+            }
+            if (r.tipo() != TipoMovimiento.CREDITO && saldo.compareTo(r.valor()) < 0) {
+                resultados[i] = rechazado(i, r.idempotencyKey(), INSUFFICIENT_FUNDS, "Saldo no disponible");
+                continue;
+            }
+
+            BigDecimal apertura = saldo;
+            saldo = r.tipo() == TipoMovimiento.CREDITO ? saldo.add(r.valor()) : saldo.subtract(r.valor());
+            UUID id = UuidV7.generar();
+            dias.computeIfAbsent(SaldoDiarioService.dia(fecha), d -> new AcumuladoDia(apertura)).sumar(r.tipo(), r.valor(), saldo);
+            filas.add(new Object[]{id, cuentaId, fecha, r.tipo().name(), r.valor(), saldo, r.referencia(), r.idempotencyKey()});
+            resultados[i] = new MovimientoLoteResultado(i, r.idempotencyKey(), MovimientoLoteResultado.APLICADO, null, null,
+                    new MovimientoResponse(id, cuentaId, r.tipo(), r.valor(), saldo));
+        }
+
+        if (filas.isEmpty()) return;
+        for (int desde = 0; desde < filas.size(); desde += tamanoBatch) {
+            jdbc.batchUpdate(INSERTAR, filas.subList(desde, Math.min(desde + tamanoBatch, filas.size())));
+        }
+        jdbc.update("UPDATE cuenta SET saldo = ? WHERE id = ?", saldo, cuentaId);
+        dias.forEach((dia, d) -> saldosDiarios.registrarDia(cuentaId, dia, d.apertura, d.creditos, d.debitos, d.cierre, d.cantidad));
+    }
+
+    private static MovimientoLoteResultado rechazado(int indice, String key, String code, String message) {
+        return new MovimientoLoteResultado(indice, key, MovimientoLoteResultado.RECHAZADO, code, message, null);
+    }
+}
@@ -0,0 +1,48 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Movimientos ya registrados para un conjunto de idempotencyKey, con una consulta por cada mil claves.
+ * Las claves que no están en movimiento se buscan en los meses archivados.
+ */
+@Component
+@RequiredArgsConstructor
+public class MovimientosExistentes {
+
+    private static final String EXISTENTES = """
+            SELECT id, cuenta_id, tipo, valor, saldo_posterior, idempotency_key
+            FROM movimiento WHERE idempotency_key = ANY (?)
+            """;
+    private static final int CONSULTA_CLAVES = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final ArchivoMovimientos archivo;
+
+    public Map<String, MovimientoResponse> buscar(Collection<String> claves) {
+        Map<String, MovimientoResponse> existentes = new HashMap<>();
+        List<String> lista = new ArrayList<>(claves);
+        for (int desde = 0; desde < lista.size(); desde += CONSULTA_CLAVES) {
+            String[] tramo = lista.subList(desde, Math.min(desde + CONSULTA_CLAVES, lista.size())).toArray(String[]::new);
+            jdbc.query(EXISTENTES, ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", tramo)), (RowCallbackHandler) rs -> {
+                existentes.put(rs.getString("idempotency_key"), new MovimientoResponse(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("cuenta_id", UUID.class),
+                        TipoMovimiento.valueOf(rs.getString("tipo")),
+                        rs.getBigDecimal("valor"),
+                        rs.getBigDecimal("saldo_posterior")));
+            });
+            var faltantes = Arrays.stream(tramo).filter(k -> !existentes.containsKey(k)).toList();
+            archivo.buscarPorClave(faltantes).forEach((clave, m) -> existentes.put(clave, new MovimientoResponse(
+                    m.getId(), m.getCuenta().getId(), m.getTipo(), m.getValor(), m.getSaldoPosterior())));
+        }
+        return existentes;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.Movimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.handler.ClaveRegistradaException;
+import com.bank.cuentasmovimientos.repository.MovimientoRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Movimiento ya registrado con una idempotencyKey, para contestar los reintentos como replay. */
+@Component
+@RequiredArgsConstructor
+public class MovimientosRegistrados {
+    static final String IDEMPOTENCY_KEY_UNAVAILABLE = "IDEMPOTENCY_KEY_UNAVAILABLE";
+
+    private final MovimientoRepo movRepo;
+    private final ArchivoMovimientos archivo;
+
+    /**
+     * Movimiento registrado con la clave, en la base o en un mes archivado. Si movimiento_clave la
+     * tiene pero el movimiento no aparece se responde 409; si tampoco la tiene, la falla no era de la
+     * clave y se relanza {@code e}.
+     */
+    public Movimiento buscar(String idempotencyKey, RuntimeException e){
+        var guardado = movRepo.findByIdempotencyKey(idempotencyKey);
+        if (guardado.isPresent()) return guardado.get();
+        var archivado = archivo.buscarPorClave(List.of(idempotencyKey)).get(idempotencyKey);
+        if (archivado != null) return archivado;
+        if (movRepo.claveRegistrada(idempotencyKey)) {
+            throw new ClaveRegistradaException(IDEMPOTENCY_KEY_UNAVAILABLE,
+                    "idempotencyKey ya registrada; su movimiento ya no está disponible");
+        }
+        throw e;
+    }
+
+    public static MovimientoResponse aRespuesta(Movimiento m){
+        return new MovimientoResponse(m.getId(), m.getCuenta().getId(), m.getTipo(), m.getValor(), m.getSaldoPosterior());
+    }
+}
@@ -0,0 +1,95 @@
+package com.bank.cuentasmovimientos.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Mantenimiento diario de las particiones mensuales de movimiento (ver db/particiones.sql): crea las
+ * de los próximos meses y, con {@code movimientos.particiones.archivo.habilitado}, pasa a
+ * {@link ArchivoMovimientos} las que superan la retención y las quita de la base.
+ */
+@Slf4j
+@Component
+public class ParticionesMovimiento {
+
+    private static final DateTimeFormatter MES = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String PARTICIONES = """
+            SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'movimiento'::regclass AND c.relname ~ '^movimiento_[0-9]{4}_[0-9]{2}$'
+            ORDER BY c.relname
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final ArchivoMovimientos archivo;
+    private final int mesesAdelante;
+    private final boolean archivar;
+    private final int mesesRetencion;
+
+    public ParticionesMovimiento(JdbcTemplate jdbc, TransactionTemplate transactionTemplate, ArchivoMovimientos archivo,
+                                 @Value("${movimientos.particiones.meses-adelante:3}") int mesesAdelante,
+                                 @Value("${movimientos.particiones.archivo.habilitado:false}") boolean archivar,
+                                 @Value("${movimientos.particiones.archivo.meses-retencion:24}") int mesesRetencion) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.archivo = archivo;
+        this.mesesAdelante = mesesAdelante;
+        this.archivar = archivar;
+        this.mesesRetencion = mesesRetencion;
+    }
+
+    @Scheduled(cron = "${movimientos.particiones.cron:0 15 3 * * *}", zone = "UTC")
+    public void mantener() {
+        int creadas = crear(YearMonth.now(ZoneOffset.UTC).plusMonths(mesesAdelante));
+        if (creadas > 0) log.info("Creadas {} particiones de movimiento", creadas);
+        if (archivar) {
+            archivar(YearMonth.now(ZoneOffset.UTC).minusMonths(mesesRetencion));
+        }
+    }
+
+    /** Crea las particiones que falten desde el mes actual hasta {@code hasta} inclusive. */
+    public int crear(YearMonth hasta) {
+        LocalDate hoy = LocalDate.now(ZoneOffset.UTC);
+        Integer creadas = jdbc.queryForObject("SELECT crear_particiones_movimiento(?, ?)", Integer.class,
+                hoy, hasta.atEndOfMonth());
+        return creadas == null ? 0 : creadas;
+    }
+
+    /**
+     * Archiva los meses anteriores a {@code antesDe}: exporta la partición, la separa y la borra en una
+     * transacción, y recién entonces publica el archivo. Si algo falla a mitad, la próxima ejecución
+     * retoma el mes.
+     */
+    public List<YearMonth> archivar(YearMonth antesDe) {
+        for (YearMonth mes : archivo.pendientes()) {
+            if (jdbc.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class, ArchivoMovimientos.tabla(mes))) {
+                archivo.publicar(mes);
+            }
+        }
+        List<YearMonth> meses = jdbc.queryForList(PARTICIONES, String.class).stream()
+                .map(nombre -> YearMonth.parse(nombre.substring("movimiento_".length()), MES))
+                .filter(mes -> mes.isBefore(antesDe))
+                .toList();
+        for (YearMonth mes : meses) {
+            String tabla = ArchivoMovimientos.tabla(mes);
+            archivo.exportar(mes);
+            transactionTemplate.executeWithoutResult(s -> {
+                jdbc.execute("ALTER TABLE movimiento DETACH PARTITION " + tabla);
+                jdbc.execute("DROP TABLE " + tabla);
+            });
+            archivo.publicar(mes);
+            log.info("Archivado {}", tabla);
+        }
+        return meses;
+    }
+}
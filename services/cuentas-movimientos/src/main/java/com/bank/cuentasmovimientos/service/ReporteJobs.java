@@ -0,0 +1,184 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.EstadoReporteJob;
+import com.bank.cuentasmovimientos.domain.UuidV7;
+import com.bank.cuentasmovimientos.dto.ReporteJobRequest;
+import com.bank.cuentasmovimientos.dto.ReporteJobResponse;
+import com.bank.cuentasmovimientos.handler.ColaSaturadaException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Estados de cuenta generados fuera del hilo de la solicitud. Los trabajos corren en
+ * {@code movimientos.reportes.jobs.hilos} hilos propios, así nunca retienen más conexiones que
+ * esas, y esperan en una cola acotada; con la cola llena el alta responde 503. El resultado queda
+ * en {@code <directorio>/<jobId>.json} hasta que vence la retención.
+ */
+@Slf4j
+@Component
+public class ReporteJobs implements SmartLifecycle {
+
+    static final String REPORT_JOBS_BUSY = "REPORT_JOBS_BUSY";
+
+    private record Job(UUID id, EstadoReporteJob estado, OffsetDateTime creadoEn, OffsetDateTime terminadoEn, String error) {
+        Job con(EstadoReporteJob nuevo, String mensaje) {
+            boolean terminado = nuevo == EstadoReporteJob.LISTO || nuevo == EstadoReporteJob.FALLIDO;
+            return new Job(id, nuevo, creadoEn, terminado ? OffsetDateTime.now(ZoneOffset.UTC) : null, mensaje);
+        }
+
+        ReporteJobResponse respuesta() {
+            return new ReporteJobResponse(id, estado, creadoEn, terminadoEn, error);
+        }
+    }
+
+    private final ReporteMovimientosService reportes;
+    private final ObjectMapper mapper;
+    private final Path directorio;
+    private final Duration retencion;
+    private final ThreadPoolExecutor ejecutor;
+    private final ConcurrentMap<UUID, Job> jobs = new ConcurrentHashMap<>();
+    private volatile boolean activo;
+
+    public ReporteJobs(ReporteMovimientosService reportes, ObjectMapper mapper, MeterRegistry registry,
+                       @Value("${movimientos.reportes.jobs.hilos:2}") int hilos,
+                       @Value("${movimientos.reportes.jobs.capacidad:100}") int capacidad,
+                       @Value("${movimientos.reportes.jobs.directorio:reportes/jobs}") Path directorio,
+                       @Value("${movimientos.reportes.jobs.retencion:24h}") Duration retencion) {
+        this.reportes = reportes;
+        this.mapper = mapper;
+        this.directorio = directorio;
+        this.retencion = retencion;
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacidad),
+                Thread.ofPlatform().name("reporte-job-", 0).daemon().factory());
+        Gauge.builder("reportes.jobs.cola", ejecutor, e -> e.getQueue().size())
+                .description("Reportes esperando un hilo de generación")
+                .register(registry);
+    }
+
+    /** Conexiones que pueden retener los trabajos a la vez: una por hilo. */
+    public int conexiones() {
+        return ejecutor.getMaximumPoolSize();
+    }
+
+    public ReporteJobResponse crear(ReporteJobRequest r) {
+        if (r.fechaFin().isBefore(r.fechaInicio())) {
+            throw new IllegalArgumentException("fechaFin no puede ser anterior a fechaInicio");
+        }
+        var job = new Job(UuidV7.generar(), EstadoReporteJob.PENDIENTE, OffsetDateTime.now(ZoneOffset.UTC), null, null);
+        jobs.put(job.id(), job);
+        try {
+            ejecutor.execute(() -> generar(job.id(), r));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            throw new ColaSaturadaException(REPORT_JOBS_BUSY, "Cola de reportes llena; reintente más tarde");
+        }
+        return job.respuesta();
+    }
+
+    /** Estado del trabajo; tras un reinicio solo se conocen los que dejaron resultado en disco. */
+    public Optional<ReporteJobResponse> estado(UUID jobId) {
+        var job = jobs.get(jobId);
+        if (job != null) return Optional.of(job.respuesta());
+        return resultado(jobId).map(archivo -> {
+            var fecha = modificado(archivo).atOffset(ZoneOffset.UTC);
+            return new ReporteJobResponse(jobId, EstadoReporteJob.LISTO, null, fecha, null);
+        });
+    }
+
+    public Optional<Path> resultado(UUID jobId) {
+        Path archivo = archivo(jobId);
+        return Files.isRegularFile(archivo) ? Optional.of(archivo) : Optional.empty();
+    }
+
+    private void generar(UUID jobId, ReporteJobRequest r) {
+        jobs.computeIfPresent(jobId, (id, j) -> j.con(EstadoReporteJob.EN_CURSO, null));
+        try {
+            var reporte = reportes.obtenerEstadoCuenta(r.clienteId(), r.fechaInicio(), r.fechaFin(), r.conMovimientos());
+            Files.createDirectories(directorio);
+            Path temporal = directorio.resolve(jobId + ".json.tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16)) {
+                mapper.writeValue(out, reporte);
+            }
+            Files.move(temporal, archivo(jobId), StandardCopyOption.ATOMIC_MOVE);
+            jobs.computeIfPresent(jobId, (id, j) -> j.con(EstadoReporteJob.LISTO, null));
+        } catch (Exception e) {
+            log.warn("Falló el reporte {}", jobId, e);
+            jobs.computeIfPresent(jobId, (id, j) -> j.con(EstadoReporteJob.FALLIDO, e.getMessage()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${movimientos.reportes.jobs.limpieza:PT1H}")
+    public void limpiar() {
+        var limite = OffsetDateTime.now(ZoneOffset.UTC).minus(retencion);
+        jobs.values().removeIf(j -> j.terminadoEn() != null && j.terminadoEn().isBefore(limite));
+        if (!Files.isDirectory(directorio)) return;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(p -> p.getFileName().toString().endsWith(".json"))
+                    .filter(p -> modificado(p).isBefore(limite.toInstant()))
+                    .forEach(p -> {
+                        try {
+                            Files.deleteIfExists(p);
+                        } catch (IOException e) {
+                            log.warn("No se pudo borrar {}", p, e);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void start() {
+        activo = true;
+    }
+
+    @Override
+    public void stop() {
+        activo = false;
+        ejecutor.shutdownNow();
+        try {
+            ejecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    private Path archivo(UUID jobId) {
+        return directorio.resolve(jobId + ".json");
+    }
+
+    private static Instant modificado(Path archivo) {
+        try {
+            return Files.getLastModifiedTime(archivo).toInstant();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.Movimiento;
+import com.bank.cuentasmovimientos.dto.*;
+import com.bank.cuentasmovimientos.repository.CuentaInfo;
+import com.bank.cuentasmovimientos.repository.CuentaRepo;
+import com.bank.cuentasmovimientos.repository.CursorMovimiento;
+import com.bank.cuentasmovimientos.repository.MovimientoRepo;
+import com.bank.cuentasmovimientos.repository.ResumenCuenta;
+import com.bank.cuentasmovimientos.repository.ResumenSaldoCuenta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/** Detalle, resumen y estado de cuenta de un cliente; solo lee. */
+@Service
+@RequiredArgsConstructor
+public class ReporteMovimientosService {
+    private final MovimientoRepo movRepo;
+    private final CuentaRepo cuentaRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final SaldoDiarioService saldosDiarios;
+    private final DirectorioClientes directorio;
+    private final MetricasMovimientos metricas;
+    private final CuentaInfoCache cuentas;
+    private final ArchivoMovimientos archivo;
+
+    public List<ReporteDetalleDTO> obtenerDetalle(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        return metricas.reporte("detalle", () -> movRepo.findByClienteAndFechas(clienteId, fechaInicio, fechaFin)
+                .stream().map(this::aDetalle).collect(Collectors.toList()), List::size);
+    }
+
+    public PaginaDetalleResponse obtenerDetallePagina(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                                                      String cursor, int tamano) {
+        return metricas.reporte("detalle-pagina", () -> paginaDetalle(clienteId, fechaInicio, fechaFin, cursor, tamano),
+                p -> p.items().size());
+    }
+
+    private PaginaDetalleResponse paginaDetalle(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                                                String cursor, int tamano) {
+        var despuesDe = cursor == null || cursor.isBlank() ? null : CursorMovimiento.decodificar(cursor);
+        List<Movimiento> movimientos = movRepo.findPaginaByClienteAndFechas(clienteId, fechaInicio, fechaFin,
+                despuesDe, tamano + 1);
+
+        boolean hayMas = movimientos.size() > tamano;
+        var pagina = hayMas ? movimientos.subList(0, tamano) : movimientos;
+        String siguiente = null;
+        if (hayMas) {
+            var ultimo = pagina.get(pagina.size() - 1);
+            siguiente = new CursorMovimiento(ultimo.getFecha(), ultimo.getId()).codificar();
+        }
+        return new PaginaDetalleResponse(pagina.stream().map(this::aDetalle).toList(), siguiente);
+    }
+
+    public void recorrerDetalle(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin, Consumer<ReporteDetalleDTO> accion) {
+        long inicio = System.nanoTime();
+        long[] filas = {0};
+        soloLectura().executeWithoutResult(s ->
+                movRepo.forEachByClienteAndFechas(clienteId, fechaInicio, fechaFin, m -> {
+                    accion.accept(aDetalle(m));
+                    filas[0]++;
+                }));
+        metricas.reporte("detalle-stream", System.nanoTime() - inicio, filas[0]);
+    }
+
+    private TransactionTemplate soloLectura() {
+        var lectura = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        lectura.setReadOnly(true);
+        return lectura;
+    }
+
+    private ReporteDetalleDTO aDetalle(Movimiento m) {
+        return new ReporteDetalleDTO(
+                m.getFecha().toLocalDateTime(),
+                m.getTipo().toString(),
+                m.getValor(),
+                m.getSaldoPosterior(),
+                m.getReferencia(),
+                cuentas.buscar(m.getCuenta().getId()).map(CuentaInfo::numero).orElse(null)
+        );
+    }
+
+    public ReporteResumenDTO obtenerResumen(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        List<ResumenCuenta> cuentas = metricas.reporte("resumen",
+                () -> movRepo.resumirPorCuenta(clienteId, fechaInicio, fechaFin), List::size);
+
+        BigDecimal totalCreditos = BigDecimal.ZERO;
+        BigDecimal totalDebitos = BigDecimal.ZERO;
+        for (ResumenCuenta c : cuentas) {
+            totalCreditos = totalCreditos.add(c.totalCreditos());
+            totalDebitos = totalDebitos.add(c.totalDebitos());
+        }
+
+        BigDecimal saldoFinal = cuentas.isEmpty() ? BigDecimal.ZERO : cuentas.get(0).saldoFinal();
+
+        return new ReporteResumenDTO(clienteId.toString(), totalCreditos, totalDebitos, saldoFinal);
+    }
+
+    public ReporteEstadoCuentaResponse obtenerEstadoCuenta(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        return obtenerEstadoCuenta(clienteId, fechaInicio, fechaFin, true);
+    }
+
+    public ReporteEstadoCuentaResponse obtenerEstadoCuenta(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                                                           boolean incluirMovimientos) {
+        if (!incluirMovimientos) {
+            return metricas.reporte("estado-cuenta-saldos-diarios",
+                    () -> estadoCuentaDesdeSaldosDiarios(clienteId, fechaInicio, fechaFin), r -> r.getCuentas().size());
+        }
+        return metricas.reporte("estado-cuenta", () -> estadoCuenta(clienteId, fechaInicio, fechaFin),
+                r -> r.getCuentas().stream().mapToInt(c -> c.getMovimientos().size()).sum());
+    }
+
+    private ReporteEstadoCuentaResponse estadoCuenta(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        var estado = new EstadoCuentaPlegado(cuentas::buscar);
+        var meses = archivo.meses(fechaInicio, fechaFin);
+        if (meses.isEmpty()) {
+            soloLectura().executeWithoutResult(s -> movRepo.forEachPorCuentaByClienteAndFechas(clienteId, fechaInicio, fechaFin, estado));
+        } else {
+            // Lo archivado es anterior a todo lo que sigue en la base: cada cuenta empieza por sus meses archivados.
+            var archivados = archivo.leer(meses, cuentaRepo.findIdsByClienteId(clienteId), fechaInicio, fechaFin);
+            soloLectura().executeWithoutResult(s -> movRepo.forEachPorCuentaByClienteAndFechas(clienteId, fechaInicio, fechaFin, m -> {
+                var previos = archivados.remove(m.getCuenta().getId());
+                if (previos != null) previos.forEach(estado);
+                estado.accept(m);
+            }));
+            archivados.values().forEach(previos -> previos.forEach(estado));
+        }
+        estado.terminar();
+
+        if (estado.getCuentas().isEmpty()) {
+            return ReporteEstadoCuentaResponse.builder()
+                    .clienteId(clienteId)
+                    .fechaInicio(fechaInicio)
+                    .fechaFin(fechaFin)
+                    .generadoEn(LocalDateTime.now())
+                    .saldoTotalInicial(BigDecimal.ZERO)
+                    .totalCreditos(BigDecimal.ZERO)
+                    .totalDebitos(BigDecimal.ZERO)
+                    .saldoTotalFinal(BigDecimal.ZERO)
+                    .cuentas(List.of())
+                    .build();
+        }
+
+        return ReporteEstadoCuentaResponse.builder()
+                .clienteId(clienteId)
+                .nombreCliente(directorio.nombre(clienteId))
+                .fechaInicio(fechaInicio)
+                .fechaFin(fechaFin)
+                .generadoEn(LocalDateTime.now())
+                .saldoTotalInicial(estado.getTotalInicial())
+                .totalCreditos(estado.getTotalCreditos())
+                .totalDebitos(estado.getTotalDebitos())
+                .saldoTotalFinal(estado.getTotalFinal())
+                .cuentas(estado.getCuentas())
+                .build();
+    }
+
+    private ReporteEstadoCuentaResponse estadoCuentaDesdeSaldosDiarios(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        List<ResumenSaldoCuenta> resumen = saldosDiarios.resumirPorCuenta(clienteId, fechaInicio, fechaFin);
+
+        BigDecimal totalInicial = BigDecimal.ZERO;
+        BigDecimal totalCreditos = BigDecimal.ZERO;
+        BigDecimal totalDebitos = BigDecimal.ZERO;
+        BigDecimal totalFinal = BigDecimal.ZERO;
+        List<ReporteEstadoCuentaResponse.CuentaDetalle> cuentas = new ArrayList<>();
+
+        for (ResumenSaldoCuenta c : resumen) {
+            totalInicial = totalInicial.add(c.saldoInicial());
+            totalCreditos = totalCreditos.add(c.totalCreditos());
+            totalDebitos = totalDebitos.add(c.totalDebitos());
+            totalFinal = totalFinal.add(c.saldoFinal());
+
+            cuentas.add(ReporteEstadoCuentaResponse.CuentaDetalle.builder()
+                    .cuentaId(c.cuentaId())
+                    .numero(c.numero())
+                    .tipo(c.tipo())
+                    .saldoInicial(c.saldoInicial())
+                    .totalCreditos(c.totalCreditos())
+                    .totalDebitos(c.totalDebitos())
+                    .saldoFinal(c.saldoFinal())
+                    .movimientos(List.of())
+                    .build());
+        }
+
+        return ReporteEstadoCuentaResponse.builder()
+                .clienteId(clienteId)
+                .nombreCliente(resumen.isEmpty() ? null : directorio.nombre(clienteId))
+                .fechaInicio(fechaInicio)
+                .fechaFin(fechaFin)
+                .generadoEn(LocalDateTime.now())
+                .saldoTotalInicial(totalInicial)
+                .totalCreditos(totalCreditos)
+                .totalDebitos(totalDebitos)
+                .saldoTotalFinal(totalFinal)
+                .cuentas(cuentas)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.repository.InconsistenciaSaldoDiario;
+import com.bank.cuentasmovimientos.repository.ResumenSaldoCuenta;
+import com.bank.cuentasmovimientos.repository.SaldoDiarioRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mantiene la tabla saldo_diario: acumulación incremental al registrar movimientos,
+ * reconstrucción desde el libro de movimientos y verificación contra él.
+ */
+@Service
+@RequiredArgsConstructor
+public class SaldoDiarioService {
+
+    /** Agregado diario por cuenta calculado desde movimiento; recibe el filtro de cuentas como %s. */
+    private static final String AGREGADO_LIBRO = """
+            SELECT x.cuenta_id, x.dia,
+                   (array_agg(x.apertura ORDER BY x.fecha, x.id))[1] AS apertura,
+                   COALESCE(SUM(x.valor) FILTER (WHERE x.tipo = 'CREDITO'), 0) AS creditos,
+                   COALESCE(SUM(x.valor) FILTER (WHERE x.tipo <> 'CREDITO'), 0) AS debitos,
+                   (array_agg(x.saldo_posterior ORDER BY x.fecha DESC, x.id DESC))[1] AS cierre,
+                   count(*) AS cantidad
+            FROM (SELECT m.*, (m.fecha AT TIME ZONE 'UTC')::date AS dia,
+                         m.saldo_posterior + CASE WHEN m.tipo = 'CREDITO' THEN -m.valor ELSE m.valor END AS apertura
+                  FROM movimiento m WHERE %s) x
+            GROUP BY x.cuenta_id, x.dia
+            """;
+
+    private final SaldoDiarioRepo repo;
+    private final JdbcTemplate jdbc;
+    private final CuentaLocks cuentaLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final ArchivoMovimientos archivo;
+
+    public void registrar(UUID cuentaId, OffsetDateTime fecha, TipoMovimiento tipo, BigDecimal valor, BigDecimal saldoPosterior) {
+        boolean credito = tipo == TipoMovimiento.CREDITO;
+        repo.acumular(cuentaId, dia(fecha),
+                credito ? saldoPosterior.subtract(valor) : saldoPosterior.add(valor),
+                credito ? valor : BigDecimal.ZERO,
+                credito ? BigDecimal.ZERO : valor,
+                saldoPosterior, 1);
+    }
+
+    public void registrarDia(UUID cuentaId, LocalDate dia, BigDecimal apertura, BigDecimal creditos, BigDecimal debitos,
+                             BigDecimal cierre, int cantidad) {
+        repo.acumular(cuentaId, dia, apertura, creditos, debitos, cierre, cantidad);
+    }
+
+    public static LocalDate dia(OffsetDateTime fecha) {
+        return fecha.atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private static OffsetDateTime inicioDelDia(LocalDate dia) {
+        return dia.atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+    public List<ResumenSaldoCuenta> resumirPorCuenta(UUID clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        return jdbc.query("""
+                SELECT c.id, c.numero, c.tipo,
+                       (array_agg(s.saldo_apertura ORDER BY s.fecha))[1] AS saldo_inicial,
+                       SUM(s.total_creditos) AS creditos, SUM(s.total_debitos) AS debitos,
+                       (array_agg(s.saldo_cierre ORDER BY s.fecha DESC))[1] AS saldo_final
+                FROM cuenta c JOIN saldo_diario s ON s.cuenta_id = c.id
+                WHERE c.cliente_id = ? AND s.fecha >= ? AND s.fecha <= ?
+                GROUP BY c.id, c.numero, c.tipo
+                ORDER BY c.numero
+                """, (rs, i) -> new ResumenSaldoCuenta(
+                        rs.getObject("id", UUID.class), rs.getString("numero"), rs.getString("tipo"),
+                        rs.getBigDecimal("saldo_inicial"), rs.getBigDecimal("creditos"),
+                        rs.getBigDecimal("debitos"), rs.getBigDecimal("saldo_final")),
+                clienteId, fechaInicio, fechaFin);
+    }
+
+    /**
+     * Recalcula las fotos desde movimiento, una cuenta por transacción y con la cuenta bloqueada
+     * para que no se intercalen movimientos nuevos. Las fotos de meses archivados no se tocan.
+     * Devuelve la cantidad de cuentas procesadas.
+     */
+    public int reconstruir(UUID cuentaId) {
+        List<UUID> cuentas = cuentaId != null ? List.of(cuentaId)
+                : jdbc.queryForList("SELECT id FROM cuenta ORDER BY id", UUID.class);
+        LocalDate desde = archivo.hastaArchivado().orElse(null);
+        for (UUID id : cuentas) {
+            cuentaLocks.ejecutar(id, () -> transactionTemplate.execute(s -> {
+                jdbc.query("SELECT 1 FROM cuenta WHERE id = ? FOR UPDATE", rs -> {}, id);
+                if (desde == null) {
+                    jdbc.update("DELETE FROM saldo_diario WHERE cuenta_id = ?", id);
+                    return jdbc.update("""
+                            INSERT INTO saldo_diario (cuenta_id, fecha, saldo_apertura, total_creditos, total_debitos, saldo_cierre, cantidad)
+                            """ + AGREGADO_LIBRO.formatted("m.cuenta_id = ?"), id);
+                }
+                jdbc.update("DELETE FROM saldo_diario WHERE cuenta_id = ? AND fecha >= ?", id, desde);
+                return jdbc.update("""
+                        INSERT INTO saldo_diario (cuenta_id, fecha, saldo_apertura, total_creditos, total_debitos, saldo_cierre, cantidad)
+                        """ + AGREGADO_LIBRO.formatted("m.cuenta_id = ? AND m.fecha >= ?"), id, inicioDelDia(desde));
+            }));
+        }
+        return cuentas.size();
+    }
+
+    public List<InconsistenciaSaldoDiario> verificar(UUID cuentaId) {
+        // Los meses archivados ya no están en movimiento: sus fotos quedan fuera de la comparación.
+        LocalDate desde = archivo.hastaArchivado().orElse(null);
+        String filtroLibro = (cuentaId == null ? "TRUE" : "m.cuenta_id = ?") + (desde == null ? "" : " AND m.fecha >= ?");
+        String filtroFotos = (cuentaId == null ? "TRUE" : "cuenta_id = ?") + (desde == null ? "" : " AND fecha >= ?");
+        String sql = """
+                WITH libro AS (%s),
+                     fotos AS (SELECT * FROM saldo_diario WHERE %s)
+                SELECT COALESCE(l.cuenta_id, f.cuenta_id) AS cuenta_id, COALESCE(l.dia, f.fecha) AS fecha,
+                       CASE WHEN f.cuenta_id IS NULL THEN 'sin foto diaria'
+                            WHEN l.cuenta_id IS NULL THEN 'foto sin movimientos'
+                            ELSE 'totales distintos del libro' END AS detalle
+                FROM libro l FULL JOIN fotos f ON f.cuenta_id = l.cuenta_id AND f.fecha = l.dia
+                WHERE f.cuenta_id IS NULL OR l.cuenta_id IS NULL
+                   OR f.saldo_apertura <> l.apertura OR f.total_creditos <> l.creditos
+                   OR f.total_debitos <> l.debitos OR f.saldo_cierre <> l.cierre OR f.cantidad <> l.cantidad
+                UNION ALL
+                SELECT cuenta_id, fecha, 'apertura distinta del cierre anterior'
+                FROM (SELECT f.*, lag(f.saldo_cierre) OVER (PARTITION BY f.cuenta_id ORDER BY f.fecha) AS cierre_anterior
+                      FROM fotos f) encadenado
+                WHERE cierre_anterior IS NOT NULL AND cierre_anterior <> saldo_apertura
+                ORDER BY cuenta_id, fecha
+                """.formatted(AGREGADO_LIBRO.formatted(filtroLibro), filtroFotos);
+
+        List<Object> args = new ArrayList<>();
+        if (cuentaId != null) args.add(cuentaId);
+        if (desde != null) args.add(inicioDelDia(desde));
+        if (cuentaId != null) args.add(cuentaId);
+        if (desde != null) args.add(desde);
+        return jdbc.query(sql, (rs, i) -> new InconsistenciaSaldoDiario(
+                rs.getObject("cuenta_id", UUID.class), rs.getObject("fecha", LocalDate.class), rs.getString("detalle")), args.toArray());
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.cuentasmovimientos.service;
+
+import com.bank.cuentasmovimientos.dto.TransferenciaRequest;
+import com.bank.cuentasmovimientos.dto.TransferenciaResponse;
+import com.bank.cuentasmovimientos.handler.CuentaCalienteException;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Débito y crédito en una transacción, con las dos cuentas bloqueadas en orden de cuentaId. Las
+ * cuentas del ledger no admiten transferencias: su saldo vive en memoria de su escritor.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransferenciaService {
+    static final String LEDGER_ACCOUNT = "LEDGER_ACCOUNT";
+
+    private final MotorMovimientos motor;
+    private final CuentaLocks cuentaLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final MetricasMovimientos metricas;
+    private final CuentaInfoCache cuentas;
+    private final LedgerCuentasCalientes ledger;
+    private final MovimientosRegistrados registrados;
+
+    public TransferenciaResponse transferir(TransferenciaRequest r){
+        long inicio = System.nanoTime();
+        String resultado = MetricasMovimientos.ERROR;
+        try {
+            if (r.cuentaOrigenId().equals(r.cuentaDestinoId())) {
+                throw new IllegalArgumentException("La cuenta origen y destino deben ser distintas");
+            }
+            try {
+                cuentas.validarParaMovimiento(r.cuentaOrigenId());
+                cuentas.validarParaMovimiento(r.cuentaDestinoId());
+            } catch (IllegalArgumentException e) {
+                var res = replay(r, e);
+                resultado = MetricasMovimientos.REPLAY;
+                return res;
+            }
+            if (ledger.atiende(r.cuentaOrigenId()) || ledger.atiende(r.cuentaDestinoId())) {
+                throw new CuentaCalienteException(LEDGER_ACCOUNT, "Transferencia no disponible para cuentas calientes del ledger");
+            }
+
+            try {
+                var res = cuentaLocks.ejecutar(r.cuentaOrigenId(), r.cuentaDestinoId(),
+                        () -> metricas.transaccion(() -> transactionTemplate.execute(s -> motor.transferir(r))));
+                resultado = MetricasMovimientos.APLICADO;
+                return res;
+            } catch (DataIntegrityViolationException e) {
+                var res = replay(r, e);
+                resultado = MetricasMovimientos.REPLAY;
+                return res;
+            }
+        } catch (SaldoNoDisponibleException e) {
+            resultado = MetricasMovimientos.SALDO_INSUFICIENTE;
+            throw e;
+        } catch (CuentaCalienteException e) {
+            resultado = MetricasMovimientos.CUENTA_CALIENTE;
+            throw e;
+        } catch (IllegalArgumentException e) {
+            resultado = MetricasMovimientos.CUENTA_INEXISTENTE;
+            throw e;
+        } finally {
+            metricas.transferir(resultado, System.nanoTime() - inicio);
+        }
+    }
+
+    private TransferenciaResponse replay(TransferenciaRequest r, RuntimeException e){
+        var debito = registrados.buscar(r.idempotencyKey(), e);
+        if (debito.getTransferenciaId() == null) {
+            throw new IllegalArgumentException("idempotencyKey ya usada por un movimiento que no es transferencia");
+        }
+        var credito = registrados.buscar(r.claveCredito(), e);
+        return new TransferenciaResponse(debito.getTransferenciaId(),
+                MovimientosRegistrados.aRespuesta(debito), MovimientosRegistrados.aRespuesta(credito));
+    }
+}
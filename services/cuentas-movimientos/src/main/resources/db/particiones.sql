@@ -0,0 +1,77 @@
+-- movimiento particionada por mes sobre fecha. Corre antes de ddl-auto (Hibernate solo agrega la FK a cuenta).
+-- Una clave única de una tabla particionada debe incluir fecha, así que la unicidad de idempotency_key
+-- la garantiza movimiento_clave, que se llena con un trigger.
+
+CREATE TABLE IF NOT EXISTS movimiento_clave (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    movimiento_id UUID NOT NULL,
+    fecha TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE OR REPLACE FUNCTION crear_particiones_movimiento(desde DATE, hasta DATE) RETURNS INTEGER AS $$
+DECLARE
+    mes DATE := date_trunc('month', desde)::date;
+    nombre TEXT;
+    creadas INTEGER := 0;
+BEGIN
+    WHILE mes <= hasta LOOP
+        nombre := 'movimiento_' || to_char(mes, 'YYYY_MM');
+        IF to_regclass(nombre) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF movimiento FOR VALUES FROM (%L) TO (%L)', nombre,
+                           mes::timestamp AT TIME ZONE 'UTC', (mes + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+            creadas := creadas + 1;
+        END IF;
+        mes := (mes + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN creadas;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION registrar_clave_movimiento() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO movimiento_clave (idempotency_key, movimiento_id, fecha) VALUES (NEW.idempotency_key, NEW.id, NEW.fecha);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    anterior BOOLEAN := EXISTS (SELECT 1 FROM pg_class WHERE oid = to_regclass('movimiento') AND relkind = 'r');
+    indice RECORD;
+BEGIN
+    IF anterior THEN
+        ALTER TABLE movimiento RENAME TO movimiento_sin_particionar;
+        FOR indice IN SELECT indexname FROM pg_indexes WHERE tablename = 'movimiento_sin_particionar' LOOP
+            EXECUTE format('ALTER INDEX %I RENAME TO %I', indice.indexname, left(indice.indexname, 50) || '_sp');
+        END LOOP;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS movimiento (
+        id UUID NOT NULL,
+        cuenta_id UUID NOT NULL,
+        fecha TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+        tipo VARCHAR(255) CHECK (tipo IN ('DEBITO', 'CREDITO', 'TRANSFERENCIA')),
+        valor NUMERIC(38, 2),
+        saldo_posterior NUMERIC(38, 2),
+        referencia VARCHAR(255),
+        idempotency_key VARCHAR(255) NOT NULL,
+        transferencia_id UUID,
+        PRIMARY KEY (id, fecha)
+    ) PARTITION BY RANGE (fecha);
+    CREATE INDEX IF NOT EXISTS idx_mov_cuenta_fecha ON movimiento (cuenta_id, fecha);
+    CREATE INDEX IF NOT EXISTS idx_mov_idempotency ON movimiento (idempotency_key);
+    ALTER TABLE movimiento ADD COLUMN IF NOT EXISTS transferencia_id UUID;
+    CREATE OR REPLACE TRIGGER trg_movimiento_clave BEFORE INSERT ON movimiento
+        FOR EACH ROW EXECUTE FUNCTION registrar_clave_movimiento();
+
+    PERFORM crear_particiones_movimiento((now() AT TIME ZONE 'UTC')::date - 31, (now() AT TIME ZONE 'UTC')::date + 93);
+
+    IF anterior THEN
+        PERFORM crear_particiones_movimiento((min(fecha) AT TIME ZONE 'UTC')::date, (max(fecha) AT TIME ZONE 'UTC')::date)
+        FROM movimiento_sin_particionar HAVING count(*) > 0;
+        INSERT INTO movimiento (id, cuenta_id, fecha, tipo, valor, saldo_posterior, referencia, idempotency_key)
+        SELECT id, cuenta_id, fecha, tipo, valor, saldo_posterior, referencia, idempotency_key FROM movimiento_sin_particionar;
+        DROP TABLE movimiento_sin_particionar;
+    END IF;
+END
+$$;
@@ -0,0 +1,154 @@
+package com.bank.cuentasmovimientos;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.handler.ColaSaturadaException;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import com.bank.cuentasmovimientos.service.AgrupadorCommits;
+import com.bank.cuentasmovimientos.service.MotorEntidad;
+import com.bank.cuentasmovimientos.service.MotorSql;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AgrupadorCommitsTest {
+
+    @Test
+    @DisplayName("Solicitudes concurrentes comparten commit y un rechazo no afecta a las demás")
+    void agrupa_commits_y_aisla_fallos() throws Exception {
+        var motor = mock(MotorSql.class);
+        when(motor.aplicar(any())).thenAnswer(inv -> {
+            MovimientoRequest r = inv.getArgument(0);
+            if (r.valor().compareTo(new BigDecimal("100")) > 0) throw new SaldoNoDisponibleException("Saldo no disponible");
+            return new MovimientoResponse(UUID.randomUUID(), r.cuentaId(), r.tipo(), r.valor(), BigDecimal.TEN);
+        });
+        var conexion = mock(Connection.class);
+        var jdbc = mock(JdbcTemplate.class);
+        when(jdbc.execute(any(ConnectionCallback.class)))
+                .thenAnswer(inv -> ((ConnectionCallback<?>) inv.getArgument(0)).doInConnection(conexion));
+        var transacciones = mock(PlatformTransactionManager.class);
+        var registry = new SimpleMeterRegistry();
+        var agrupador = new AgrupadorCommits(motor, jdbc, new TransactionTemplate(transacciones), registry,
+                true, Duration.ofMillis(200), 64, 1, 1000, Duration.ofSeconds(5));
+        agrupador.start();
+
+        int solicitudes = 20;
+        var inicio = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(solicitudes);
+        List<Future<MovimientoResponse>> resultados = new ArrayList<>();
+        for (int i = 0; i < solicitudes; i++) {
+            var valor = i == 7 ? new BigDecimal("500") : BigDecimal.ONE;
+            var req = new MovimientoRequest(UUID.randomUUID(), TipoMovimiento.DEBITO, valor, "grupo", "grupo-" + i);
+            resultados.add(pool.submit(() -> {
+                inicio.await();
+                return agrupador.aplicar(req);
+            }));
+        }
+        inicio.countDown();
+
+        for (int i = 0; i < solicitudes; i++) {
+            if (i == 7) {
+                var ex = assertThrows(ExecutionException.class, resultados.get(i)::get);
+                assertInstanceOf(SaldoNoDisponibleException.class, ex.getCause());
+            } else {
+                assertNotNull(resultados.get(i).get(10, TimeUnit.SECONDS));
+            }
+        }
+        pool.shutdown();
+        agrupador.stop();
+
+        verify(conexion, times(1)).rollback(any());
+        long commits = registry.get("movimientos.grupo.tamano").summary().count();
+        assertTrue(commits < solicitudes, "commits: " + commits);
+        verify(transacciones, times((int) commits)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Dentro del grupo las cuentas se registran en orden de cuentaId, como bloquean las transferencias")
+    void registra_en_orden_de_cuenta() throws Exception {
+        var motor = mock(MotorSql.class);
+        Queue<UUID> aplicadas = new ConcurrentLinkedQueue<>();
+        when(motor.aplicar(any())).thenAnswer(inv -> {
+            MovimientoRequest r = inv.getArgument(0);
+            aplicadas.add(r.cuentaId());
+            return new MovimientoResponse(UUID.randomUUID(), r.cuentaId(), r.tipo(), r.valor(), BigDecimal.TEN);
+        });
+        var jdbc = mock(JdbcTemplate.class);
+        when(jdbc.execute(any(ConnectionCallback.class)))
+                .thenAnswer(inv -> ((ConnectionCallback<?>) inv.getArgument(0)).doInConnection(mock(Connection.class)));
+        int solicitudes = 16;
+        // Ventana larga y tope igual a las solicitudes: todas caen en un solo grupo.
+        var agrupador = new AgrupadorCommits(motor, jdbc, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new SimpleMeterRegistry(), true, Duration.ofSeconds(5), solicitudes, 1, 1000, Duration.ofSeconds(10));
+        agrupador.start();
+
+        var pool = Executors.newFixedThreadPool(solicitudes);
+        List<Future<MovimientoResponse>> resultados = new ArrayList<>();
+        for (int i = 0; i < solicitudes; i++) {
+            var req = new MovimientoRequest(UUID.randomUUID(), TipoMovimiento.CREDITO, BigDecimal.ONE, "grupo", "orden-" + i);
+            resultados.add(pool.submit(() -> agrupador.aplicar(req)));
+        }
+        for (var r : resultados) assertNotNull(r.get(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        agrupador.stop();
+
+        var orden = new ArrayList<>(aplicadas);
+        assertEquals(solicitudes, orden.size());
+        assertEquals(orden.stream().sorted().toList(), orden);
+    }
+
+    @Test
+    @DisplayName("Sin respuesta a tiempo la solicitud recibe 503, pero el movimiento igual se registra con el grupo")
+    void espera_vencida_responde_503_y_el_grupo_igual_confirma() throws Exception {
+        var motor = mock(MotorSql.class);
+        var lento = new CountDownLatch(1);
+        when(motor.aplicar(any())).thenAnswer(inv -> {
+            lento.await(5, TimeUnit.SECONDS);
+            MovimientoRequest r = inv.getArgument(0);
+            return new MovimientoResponse(UUID.randomUUID(), r.cuentaId(), r.tipo(), r.valor(), BigDecimal.TEN);
+        });
+        var jdbc = mock(JdbcTemplate.class);
+        when(jdbc.execute(any(ConnectionCallback.class)))
+                .thenAnswer(inv -> ((ConnectionCallback<?>) inv.getArgument(0)).doInConnection(mock(Connection.class)));
+        var transacciones = mock(PlatformTransactionManager.class);
+        var agrupador = new AgrupadorCommits(motor, jdbc, new TransactionTemplate(transacciones), new SimpleMeterRegistry(),
+                true, Duration.ofMillis(2), 64, 1, 1000, Duration.ofMillis(200));
+        agrupador.start();
+
+        var ex = assertThrows(ColaSaturadaException.class, () -> agrupador.aplicar(
+                new MovimientoRequest(UUID.randomUUID(), TipoMovimiento.CREDITO, BigDecimal.ONE, "grupo", "tarde-1")));
+        assertEquals("GROUP_COMMIT_BUSY", ex.getCode());
+        verify(transacciones, never()).commit(any());
+
+        lento.countDown();
+        verify(transacciones, timeout(5000)).commit(any());
+        verify(transacciones, never()).rollback(any());
+        agrupador.stop();
+    }
+
+    @Test
+    @DisplayName("El group commit no arranca con el motor JPA")
+    void requiere_motor_sql() {
+        assertThrows(IllegalStateException.class, () -> new AgrupadorCommits(mock(MotorEntidad.class), mock(JdbcTemplate.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry(),
+                true, Duration.ofMillis(2), 64, 1, 1000, Duration.ofSeconds(5)));
+    }
+}
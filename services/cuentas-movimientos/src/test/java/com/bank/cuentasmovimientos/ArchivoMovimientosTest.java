@@ -0,0 +1,152 @@
+package com.bank.cuentasmovimientos;
+
+import com.bank.cuentasmovimientos.domain.Movimiento;
+import com.bank.cuentasmovimientos.service.ArchivoMovimientos;
+import com.bank.cuentasmovimientos.service.ParticionesMovimiento;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class ArchivoMovimientosTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Lee los meses archivados filtrando por cuenta y rango, con los escapes de COPY")
+    void lee_meses_archivados() throws IOException {
+        var cuenta = UUID.randomUUID();
+        var otra = UUID.randomUUID();
+        escribir("movimiento_2024_01.tsv.gz",
+                linea(cuenta, "2024-01-05 10:00:00.123456", "CREDITO", "100.00", "100.00", "pago\\tcon\\\\barra"),
+                linea(cuenta, "2024-01-31 23:59:59", "DEBITO", "40.00", "60.00", "\\N"),
+                linea(otra, "2024-01-10 08:00:00", "CREDITO", "5.00", "5.00", "otra"));
+        escribir("movimiento_2024_02.tsv.gz",
+                linea(cuenta, "2024-02-01 00:00:00", "CREDITO", "1.00", "61.00", "febrero"));
+        Files.createFile(directorio.resolve("movimiento_2024_03.tsv.gz.tmp"));
+
+        var archivo = new ArchivoMovimientos(null, directorio);
+
+        assertEquals(List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2)), archivo.meses(null, null));
+        assertEquals(List.of(YearMonth.of(2024, 2)), archivo.meses(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 6, 30)));
+        assertEquals(LocalDate.of(2024, 3, 1), archivo.hastaArchivado().orElseThrow());
+
+        var leidos = archivo.leer(archivo.meses(null, null), List.of(cuenta), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+        assertEquals(1, leidos.size());
+        List<Movimiento> movimientos = leidos.get(cuenta);
+        assertEquals(2, movimientos.size());
+        assertEquals("pago\tcon\\barra", movimientos.get(0).getReferencia());
+        assertNull(movimientos.get(1).getReferencia());
+        assertEquals(0, new BigDecimal("60.00").compareTo(movimientos.get(1).getSaldoPosterior()));
+        assertEquals(cuenta, movimientos.get(1).getCuenta().getId());
+    }
+
+    @Test
+    @DisplayName("Conserva el transferencia_id de los movimientos de una transferencia archivada")
+    void lee_transferencia_archivada() throws IOException {
+        var cuenta = UUID.randomUUID();
+        var transferencia = UUID.randomUUID();
+        escribir("movimiento_2024_04.tsv.gz",
+                linea(cuenta, "2024-04-02 09:00:00", "DEBITO", "25.00", "75.00", "transferencia") + "\t" + transferencia,
+                linea(cuenta, "2024-04-03 09:00:00", "CREDITO", "5.00", "80.00", "suelto") + "\t\\N",
+                linea(cuenta, "2024-04-04 09:00:00", "CREDITO", "1.00", "81.00", "formato anterior"));
+
+        var archivo = new ArchivoMovimientos(null, directorio);
+        var movimientos = archivo.leer(archivo.meses(null, null), List.of(cuenta), null, null).get(cuenta);
+
+        assertEquals(3, movimientos.size());
+        assertEquals(transferencia, movimientos.get(0).getTransferenciaId());
+        assertNull(movimientos.get(1).getTransferenciaId());
+        assertNull(movimientos.get(2).getTransferenciaId());
+    }
+
+    @Test
+    @DisplayName("Ubica por movimiento_clave el mes archivado de una idempotencyKey y lee su movimiento")
+    void busca_movimiento_archivado_por_clave() throws Exception {
+        var cuenta = UUID.randomUUID();
+        var id = UUID.randomUUID();
+        escribir("movimiento_2024_05.tsv.gz",
+                linea(cuenta, "2024-05-02 09:00:00", "CREDITO", "1.00", "1.00", "otro"),
+                String.join("\t", id.toString(), cuenta.toString(), "2024-05-09 10:30:00", "DEBITO", "7.00", "3.00",
+                        "\\N", "clave-archivada", "\\N"));
+        var jdbc = mock(JdbcTemplate.class);
+        var rs = mock(ResultSet.class);
+        when(rs.getObject("fecha", OffsetDateTime.class)).thenReturn(OffsetDateTime.of(2024, 5, 9, 5, 30, 0, 0, ZoneOffset.ofHours(-5)));
+        when(rs.getString("idempotency_key")).thenReturn("clave-archivada");
+        doAnswer(inv -> {
+            inv.getArgument(2, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(jdbc).query(startsWith("SELECT idempotency_key, fecha FROM movimiento_clave"), any(PreparedStatementSetter.class),
+                any(RowCallbackHandler.class));
+
+        var encontrados = new ArchivoMovimientos(jdbc, directorio).buscarPorClave(List.of("clave-archivada", "nueva"));
+
+        assertEquals(1, encontrados.size());
+        var m = encontrados.get("clave-archivada");
+        assertEquals(id, m.getId());
+        assertEquals(cuenta, m.getCuenta().getId());
+        assertEquals(0, new BigDecimal("3.00").compareTo(m.getSaldoPosterior()));
+        assertTrue(new ArchivoMovimientos(jdbc, directorio.resolve("vacio")).buscarPorClave(List.of("clave-archivada")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Sin meses archivados no consulta movimiento_clave; el límite se renueva al publicar, no en cada llamada")
+    void limite_archivado_en_cache() throws IOException {
+        var jdbc = mock(JdbcTemplate.class);
+        var archivo = new ArchivoMovimientos(jdbc, directorio);
+        assertTrue(archivo.buscarPorClave(List.of("a", "b")).isEmpty());
+        assertTrue(archivo.hastaArchivado().isEmpty());
+        verifyNoInteractions(jdbc);
+
+        // Un archivo que aparece por fuera de publicar no se ve hasta la próxima publicación.
+        escribir("movimiento_2024_06.tsv.gz", linea(UUID.randomUUID(), "2024-06-01 00:00:00", "CREDITO", "1.00", "1.00", "x"));
+        assertTrue(archivo.hastaArchivado().isEmpty());
+
+        escribir("movimiento_2024_07.tsv.gz.tmp", linea(UUID.randomUUID(), "2024-07-01 00:00:00", "CREDITO", "1.00", "1.00", "x"));
+        when(jdbc.queryForObject(startsWith("SELECT to_regclass"), eq(Boolean.class), any(Object[].class))).thenReturn(true);
+        new ParticionesMovimiento(jdbc, new TransactionTemplate(mock(PlatformTransactionManager.class)), archivo, 3, true, 24)
+                .archivar(YearMonth.of(2000, 1));
+
+        assertEquals(LocalDate.of(2024, 8, 1), archivo.hastaArchivado().orElseThrow());
+        assertEquals(List.of(YearMonth.of(2024, 6), YearMonth.of(2024, 7)), archivo.meses(null, null));
+    }
+
+    private void escribir(String nombre, String... lineas) throws IOException {
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(directorio.resolve(nombre))),
+                StandardCharsets.UTF_8)) {
+            for (String l : lineas) out.write(l + "\n");
+        }
+    }
+
+    private static String linea(UUID cuenta, String fecha, String tipo, String valor, String saldo, String referencia) {
+        return String.join("\t", UUID.randomUUID().toString(), cuenta.toString(), fecha, tipo, valor, saldo, referencia,
+                UUID.randomUUID().toString());
+    }
+}
@@ -0,0 +1,119 @@
+package com.bank.cuentasmovimientos;
+
+import com.bank.cuentasmovimientos.service.DirectorioClientes;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DirectorioClientesTest {
+
+    private HttpServer servidor;
+    private final AtomicInteger llamadas = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long demoraMs = 0;
+
+    @BeforeEach
+    void iniciar() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.createContext("/clientes/", this::responder);
+        servidor.start();
+    }
+
+    @AfterEach
+    void detener() {
+        servidor.stop(0);
+    }
+
+    private void responder(HttpExchange exchange) throws IOException {
+        llamadas.incrementAndGet();
+        try {
+            Thread.sleep(demoraMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String id = exchange.getRequestURI().getPath().substring("/clientes/".length());
+        byte[] body = ("{\"id\":\"" + id + "\",\"clientId\":\"c-1\",\"estado\":\"ACTIVO\",\"nombre\":\"Ana Pérez\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        if (status == 200) {
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } else {
+            exchange.sendResponseHeaders(status, -1);
+        }
+        exchange.close();
+    }
+
+    private DirectorioClientes directorio(Duration timeout) {
+        return new DirectorioClientes(RestClient.builder(), "http://localhost:" + servidor.getAddress().getPort(),
+                timeout, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Resuelve el nombre y lo sirve desde cache en las siguientes consultas")
+    void resuelve_y_cachea_nombre() {
+        var directorio = directorio(Duration.ofSeconds(2));
+        var id = UUID.randomUUID();
+
+        assertEquals("Ana Pérez", directorio.nombre(id));
+        assertEquals("Ana Pérez", directorio.nombre(id));
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    @DisplayName("Las consultas concurrentes del mismo cliente comparten una sola llamada")
+    void consultas_concurrentes_se_agrupan() throws Exception {
+        demoraMs = 200;
+        var directorio = directorio(Duration.ofSeconds(2));
+        var id = UUID.randomUUID();
+        var pool = Executors.newFixedThreadPool(16);
+        List<Future<String>> tareas = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            tareas.add(pool.submit(() -> directorio.nombre(id)));
+        }
+        for (Future<String> t : tareas) {
+            assertEquals("Ana Pérez", t.get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    @DisplayName("Si el servicio no responde a tiempo devuelve el nombre genérico")
+    void timeout_devuelve_nombre_generico() {
+        demoraMs = 500;
+        var directorio = directorio(Duration.ofMillis(100));
+        var id = UUID.randomUUID();
+
+        assertEquals(DirectorioClientes.nombreGenerico(id), directorio.nombre(id));
+    }
+
+    @Test
+    @DisplayName("Un cliente inexistente usa el nombre genérico sin volver a consultar")
+    void cliente_inexistente_devuelve_nombre_generico() {
+        status = 404;
+        var directorio = directorio(Duration.ofSeconds(2));
+        var id = UUID.randomUUID();
+
+        assertEquals(DirectorioClientes.nombreGenerico(id), directorio.nombre(id));
+        assertEquals(DirectorioClientes.nombreGenerico(id), directorio.nombre(id));
+        assertEquals(1, llamadas.get());
+    }
+}
@@ -0,0 +1,152 @@
+package com.bank.cuentasmovimientos;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.handler.ColaSaturadaException;
+import com.bank.cuentasmovimientos.service.LedgerCuentasCalientes;
+import com.bank.cuentasmovimientos.service.MovimientosExistentes;
+import com.bank.cuentasmovimientos.service.SaldoDiarioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LedgerCuentasCalientesTest {
+
+    @Test
+    @DisplayName("Un lote que no se registra devuelve el saldo y la última fecha a como estaban")
+    void rollback_restaura_saldo_y_fecha() throws Exception {
+        var cuentaId = UUID.randomUUID();
+        // Última fecha en el futuro: la siguiente sale de ella + 1µs y así se ve si quedó movida.
+        var ultima = OffsetDateTime.now().plusHours(1).truncatedTo(ChronoUnit.MICROS);
+        var jdbc = mock(JdbcTemplate.class);
+        doReturn(Map.entry(new BigDecimal("100.00"), ultima))
+                .when(jdbc).query(startsWith("SELECT saldo_posterior"), any(ResultSetExtractor.class), eq(cuentaId));
+        when(jdbc.batchUpdate(startsWith("INSERT"), anyList()))
+                .thenThrow(new DataIntegrityViolationException("falla"))
+                .thenThrow(new DataIntegrityViolationException("falla"))
+                .thenReturn(new int[]{1});
+        var existentes = mock(MovimientosExistentes.class);
+        when(existentes.buscar(any())).thenReturn(Map.of());
+
+        var ledger = new LedgerCuentasCalientes(jdbc, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                existentes, mock(SaldoDiarioService.class), new SimpleMeterRegistry(), cuentaId.toString(),
+                1, 100, 10, Duration.ofSeconds(5));
+        ledger.start();
+        try {
+            var fallido = ledger.enviar(new MovimientoRequest(cuentaId, TipoMovimiento.DEBITO, new BigDecimal("30.00"), "r", "k1"));
+            var ex = assertThrows(ExecutionException.class, () -> fallido.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(DataIntegrityViolationException.class, ex.getCause());
+
+            var aplicado = ledger.enviar(new MovimientoRequest(cuentaId, TipoMovimiento.DEBITO, new BigDecimal("30.00"), "r", "k2"))
+                    .get(5, TimeUnit.SECONDS);
+            assertEquals(new BigDecimal("70.00"), aplicado.movimiento().saldoPosterior());
+        } finally {
+            ledger.stop();
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> filas = ArgumentCaptor.forClass(List.class);
+        verify(jdbc, times(3)).batchUpdate(startsWith("INSERT"), filas.capture());
+        assertEquals(ultima.plus(1, ChronoUnit.MICROS), filas.getAllValues().get(2).get(0)[2]);
+    }
+
+    @Test
+    @DisplayName("Si el lote choca con una clave se registra de a uno y solo falla el movimiento en conflicto")
+    void lote_en_conflicto_se_registra_de_a_uno() throws Exception {
+        var cuentaId = UUID.randomUUID();
+        var jdbc = mock(JdbcTemplate.class);
+        var enCurso = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+        doReturn(Map.entry(new BigDecimal("100.00"), OffsetDateTime.now()))
+                .when(jdbc).query(startsWith("SELECT saldo_posterior"), any(ResultSetExtractor.class), eq(cuentaId));
+        when(jdbc.batchUpdate(startsWith("INSERT"), anyList()))
+                .thenAnswer(inv -> {
+                    enCurso.countDown();
+                    liberar.await(5, TimeUnit.SECONDS);
+                    return new int[]{1};
+                })
+                .thenThrow(new DuplicateKeyException("movimiento_clave_pkey"))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DuplicateKeyException("movimiento_clave_pkey"));
+        var ledger = ledger(jdbc, cuentaId);
+        ledger.start();
+        try {
+            // El primero retiene al escritor para que los otros dos lleguen juntos en el siguiente lote.
+            var primero = ledger.enviar(new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, BigDecimal.ONE, "r", "k0"));
+            assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+            var segundo = ledger.enviar(new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, BigDecimal.ONE, "r", "k1"));
+            var tercero = ledger.enviar(new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, BigDecimal.ONE, "r", "k2"));
+            liberar.countDown();
+
+            assertEquals(new BigDecimal("101.00"), primero.get(5, TimeUnit.SECONDS).movimiento().saldoPosterior());
+            assertEquals(new BigDecimal("102.00"), segundo.get(5, TimeUnit.SECONDS).movimiento().saldoPosterior());
+            var ex = assertThrows(ExecutionException.class, () -> tercero.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(DuplicateKeyException.class, ex.getCause());
+        } finally {
+            ledger.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Al detenerse registra lo encolado antes de devolver las cuentas al motor")
+    void stop_drena_antes_de_soltar_las_cuentas() throws Exception {
+        var cuentaId = UUID.randomUUID();
+        var jdbc = mock(JdbcTemplate.class);
+        var enCurso = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+        doReturn(Map.entry(new BigDecimal("100.00"), OffsetDateTime.now()))
+                .when(jdbc).query(startsWith("SELECT saldo_posterior"), any(ResultSetExtractor.class), eq(cuentaId));
+        when(jdbc.batchUpdate(startsWith("INSERT"), anyList())).thenAnswer(inv -> {
+            enCurso.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return new int[]{1};
+        });
+        var ledger = ledger(jdbc, cuentaId);
+        ledger.start();
+        var pendiente = ledger.enviar(new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, BigDecimal.ONE, "r", "k0"));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+        var deteniendo = new Thread(ledger::stop);
+        deteniendo.start();
+        Thread.sleep(100);
+        // Mientras drena la cuenta sigue siendo del ledger, que ya no acepta movimientos nuevos.
+        assertTrue(ledger.atiende(cuentaId));
+        assertThrows(ColaSaturadaException.class,
+                () -> ledger.enviar(new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, BigDecimal.ONE, "r", "k1")));
+
+        liberar.countDown();
+        deteniendo.join(5_000);
+        assertTrue(pendiente.isDone());
+        assertFalse(ledger.atiende(cuentaId));
+    }
+
+    private static LedgerCuentasCalientes ledger(JdbcTemplate jdbc, UUID cuentaId) {
+        var existentes = mock(MovimientosExistentes.class);
+        when(existentes.buscar(any())).thenReturn(Map.of());
+        return new LedgerCuentasCalientes(jdbc, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                existentes, mock(SaldoDiarioService.class), new SimpleMeterRegistry(), cuentaId.toString(),
+                1, 100, 10, Duration.ofSeconds(5));
+    }
+}
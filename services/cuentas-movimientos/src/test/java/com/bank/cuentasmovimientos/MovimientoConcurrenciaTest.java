@@ -0,0 +1,200 @@
+package com.bank.cuentasmovimientos;
+
+import com.bank.cuentasmovimientos.domain.*;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.TransferenciaRequest;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import com.bank.cuentasmovimientos.repository.CuentaInfo;
+import com.bank.cuentasmovimientos.repository.CuentaRepo;
+import com.bank.cuentasmovimientos.repository.MovimientoRepo;
+import com.bank.cuentasmovimientos.service.AgrupadorCommits;
+import com.bank.cuentasmovimientos.service.ArchivoMovimientos;
+import com.bank.cuentasmovimientos.service.CuentaInfoCache;
+import com.bank.cuentasmovimientos.service.CuentaLocks;
+import com.bank.cuentasmovimientos.service.IdempotenciaCache;
+import com.bank.cuentasmovimientos.service.LedgerCuentasCalientes;
+import com.bank.cuentasmovimientos.service.MetricasMovimientos;
+import com.bank.cuentasmovimientos.service.MotorEntidad;
+import com.bank.cuentasmovimientos.service.MovimientoService;
+import com.bank.cuentasmovimientos.service.MovimientosRegistrados;
+import com.bank.cuentasmovimientos.service.SaldoDiarioService;
+import com.bank.cuentasmovimientos.service.TransferenciaService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MovimientoConcurrenciaTest {
+
+    private static final int HILOS = 64;
+    private static final int OPERACIONES_POR_HILO = 200;
+
+    @Test
+    @DisplayName("El saldo final coincide con la suma de movimientos aceptados bajo alta concurrencia")
+    void saldo_final_coincide_con_movimientos_aceptados() throws Exception {
+        var saldoInicial = new BigDecimal("1000.00");
+        var cuenta = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("999").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(saldoInicial).saldo(saldoInicial)
+                .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+
+        var cuentaRepo = mock(CuentaRepo.class);
+        var movRepo = mock(MovimientoRepo.class);
+        Queue<Movimiento> aceptados = new ConcurrentLinkedQueue<>();
+        when(cuentaRepo.findByIdForUpdate(cuenta.getId())).thenReturn(Optional.of(cuenta));
+        when(cuentaRepo.findInfoById(cuenta.getId())).thenReturn(Optional.of(CuentaInfo.de(cuenta)));
+        when(movRepo.save(any(Movimiento.class))).thenAnswer(inv -> {
+            Movimiento m = inv.getArgument(0);
+            aceptados.add(m);
+            return m;
+        });
+
+        var saldosDiarios = mock(SaldoDiarioService.class);
+        var service = new MovimientoService(new MotorEntidad(cuentaRepo, movRepo, saldosDiarios), new CuentaLocks(64, 3, 0),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new IdempotenciaCache(1000, Duration.ofMinutes(1)),
+                new MetricasMovimientos(new SimpleMeterRegistry()), new CuentaInfoCache(cuentaRepo, 1000, Duration.ofMinutes(1)),
+                mock(LedgerCuentasCalientes.class), mock(AgrupadorCommits.class),
+                new MovimientosRegistrados(movRepo, mock(ArchivoMovimientos.class)));
+
+        var rechazados = new AtomicInteger();
+        var inicio = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            int hilo = h;
+            tareas.add(pool.submit(() -> {
+                inicio.await();
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    var tipo = (hilo + i) % 3 == 0 ? TipoMovimiento.CREDITO : TipoMovimiento.DEBITO;
+                    var req = new MovimientoRequest(cuenta.getId(), tipo,
+                            BigDecimal.valueOf(1 + ThreadLocalRandom.current().nextInt(50)),
+                            "stress", hilo + "-" + i);
+                    try {
+                        service.aplicar(req);
+                    } catch (SaldoNoDisponibleException e) {
+                        rechazados.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        inicio.countDown();
+        for (Future<?> t : tareas) {
+            t.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        BigDecimal esperado = saldoInicial;
+        for (Movimiento m : aceptados) {
+            esperado = m.getTipo() == TipoMovimiento.CREDITO ? esperado.add(m.getValor()) : esperado.subtract(m.getValor());
+        }
+
+        assertEquals(HILOS * OPERACIONES_POR_HILO, aceptados.size() + rechazados.get());
+        assertEquals(0, esperado.compareTo(cuenta.getSaldo()));
+        assertTrue(cuenta.getSaldo().signum() >= 0);
+    }
+
+    @Test
+    @DisplayName("Transferencias cruzadas entre pocas cuentas no se bloquean y conservan el dinero total")
+    void transferencias_cruzadas_conservan_saldo() throws Exception {
+        var saldoInicial = new BigDecimal("500.00");
+        List<Cuenta> lista = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            lista.add(Cuenta.builder()
+                    .id(UUID.randomUUID()).numero("T" + i).tipo(TipoCuenta.AHORROS)
+                    .saldoInicial(saldoInicial).saldo(saldoInicial)
+                    .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build());
+        }
+        Map<UUID, Cuenta> porId = lista.stream().collect(Collectors.toMap(Cuenta::getId, Function.identity()));
+
+        var cuentaRepo = mock(CuentaRepo.class);
+        var movRepo = mock(MovimientoRepo.class);
+        Queue<Movimiento> aceptados = new ConcurrentLinkedQueue<>();
+        when(cuentaRepo.findByIdForUpdate(any())).thenAnswer(inv -> Optional.ofNullable(porId.get(inv.<UUID>getArgument(0))));
+        when(cuentaRepo.findInfoById(any())).thenAnswer(inv -> Optional.ofNullable(porId.get(inv.<UUID>getArgument(0))).map(CuentaInfo::de));
+        when(movRepo.save(any(Movimiento.class))).thenAnswer(inv -> {
+            Movimiento m = inv.getArgument(0);
+            aceptados.add(m);
+            return m;
+        });
+
+        var saldosDiarios = mock(SaldoDiarioService.class);
+        // Pocas franjas para que cuentas distintas compartan lock y se crucen en ambos sentidos.
+        var service = new TransferenciaService(new MotorEntidad(cuentaRepo, movRepo, saldosDiarios), new CuentaLocks(4, 3, 0),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new MetricasMovimientos(new SimpleMeterRegistry()), new CuentaInfoCache(cuentaRepo, 1000, Duration.ofMinutes(1)),
+                mock(LedgerCuentasCalientes.class), new MovimientosRegistrados(movRepo, mock(ArchivoMovimientos.class)));
+
+        var rechazadas = new AtomicInteger();
+        var inicio = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            int hilo = h;
+            tareas.add(pool.submit(() -> {
+                inicio.await();
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    int a = (hilo + i) % lista.size();
+                    int b = (a + 1 + i % (lista.size() - 1)) % lista.size();
+                    // Hilos pares van de a hacia b y los impares al revés.
+                    var origen = lista.get(hilo % 2 == 0 ? a : b).getId();
+                    var destino = lista.get(hilo % 2 == 0 ? b : a).getId();
+                    var req = new TransferenciaRequest(origen, destino,
+                            BigDecimal.valueOf(1 + ThreadLocalRandom.current().nextInt(80)), "cruce", "tr-" + hilo + "-" + i);
+                    try {
+                        var res = service.transferir(req);
+                        assertEquals(origen, res.debito().cuentaId());
+                        assertEquals(destino, res.credito().cuentaId());
+                    } catch (SaldoNoDisponibleException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        inicio.countDown();
+        for (Future<?> t : tareas) {
+            t.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        var porTransferencia = aceptados.stream().collect(Collectors.groupingBy(Movimiento::getTransferenciaId));
+        assertEquals(HILOS * OPERACIONES_POR_HILO, porTransferencia.size() + rechazadas.get());
+        porTransferencia.values().forEach(par -> {
+            assertEquals(2, par.size());
+            assertEquals(1, par.stream().filter(m -> m.getTipo() == TipoMovimiento.DEBITO).count());
+        });
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Cuenta c : lista) {
+            BigDecimal esperado = saldoInicial;
+            for (Movimiento m : aceptados) {
+                if (m.getCuenta() != c) continue;
+                esperado = m.getTipo() == TipoMovimiento.CREDITO ? esperado.add(m.getValor()) : esperado.subtract(m.getValor());
+            }
+            assertEquals(0, esperado.compareTo(c.getSaldo()));
+            assertTrue(c.getSaldo().signum() >= 0);
+            total = total.add(c.getSaldo());
+        }
+        assertEquals(0, saldoInicial.multiply(BigDecimal.valueOf(lista.size())).compareTo(total));
+    }
+}
@@ -0,0 +1,164 @@
+package com.bank.cuentasmovimientos;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoLoteResultado;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.dto.TransferenciaRequest;
+import com.bank.cuentasmovimientos.service.CuentaInfoCache;
+import com.bank.cuentasmovimientos.service.CuentaLocks;
+import com.bank.cuentasmovimientos.service.LedgerCuentasCalientes;
+import com.bank.cuentasmovimientos.service.MovimientoLoteService;
+import com.bank.cuentasmovimientos.service.MovimientosExistentes;
+import com.bank.cuentasmovimientos.service.SaldoDiarioService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MovimientoLoteServiceTest {
+
+    @Test
+    @DisplayName("Un conflicto de claves tras la consulta inicial se resuelve por movimiento, sin fallar el lote")
+    void conflicto_de_claves_se_reporta_por_movimiento() {
+        var cuentaA = UUID.randomUUID();
+        var cuentaB = UUID.randomUUID();
+        var jdbc = mock(JdbcTemplate.class);
+        doReturn(new BigDecimal("100.00"))
+                .when(jdbc).query(startsWith("SELECT saldo FROM cuenta"), any(ResultSetExtractor.class), eq(cuentaA));
+        doThrow(new DataAccessResourceFailureException("sin conexión"))
+                .when(jdbc).query(startsWith("SELECT saldo FROM cuenta"), any(ResultSetExtractor.class), eq(cuentaB));
+        when(jdbc.batchUpdate(startsWith("INSERT"), anyList()))
+                .thenThrow(new DuplicateKeyException("movimiento_clave_pkey"))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DuplicateKeyException("movimiento_clave_pkey"))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+        var previo = new MovimientoResponse(UUID.randomUUID(), cuentaA, TipoMovimiento.CREDITO, BigDecimal.ONE, new BigDecimal("50.00"));
+        var registrados = mock(MovimientosExistentes.class);
+        when(registrados.buscar(any())).thenReturn(new HashMap<>(), new HashMap<>(), new HashMap<>(Map.of("a-1", previo)));
+        var cuentas = mock(CuentaInfoCache.class);
+        when(cuentas.buscar(any())).thenReturn(Optional.empty());
+
+        var service = new MovimientoLoteService(jdbc, new CuentaLocks(16, 3, 0),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(SaldoDiarioService.class), cuentas,
+                registrados, mock(LedgerCuentasCalientes.class), 1000, 500, 1000);
+
+        var resultados = service.aplicar(List.of(
+                new MovimientoRequest(cuentaA, TipoMovimiento.CREDITO, BigDecimal.TEN, "lote", "a-0"),
+                new MovimientoRequest(cuentaA, TipoMovimiento.CREDITO, BigDecimal.ONE, "lote", "a-1"),
+                new MovimientoRequest(cuentaA, TipoMovimiento.DEBITO, BigDecimal.ONE, "lote", "a-2"),
+                new MovimientoRequest(cuentaB, TipoMovimiento.CREDITO, BigDecimal.ONE, "lote", "b-0")));
+
+        assertEquals(MovimientoLoteResultado.APLICADO, resultados.get(0).estado());
+        assertEquals(new BigDecimal("110.00"), resultados.get(0).movimiento().saldoPosterior());
+        assertEquals(MovimientoLoteResultado.REPLAY, resultados.get(1).estado());
+        assertEquals(previo, resultados.get(1).movimiento());
+        assertEquals(MovimientoLoteResultado.RECHAZADO, resultados.get(2).estado());
+        assertEquals("DATABASE_ERROR", resultados.get(2).code());
+        assertEquals(MovimientoLoteResultado.RECHAZADO, resultados.get(3).estado());
+        assertEquals("DATABASE_ERROR", resultados.get(3).code());
+    }
+
+    @Test
+    @DisplayName("Los movimientos de una cuenta comparten la fecha tomada con el lock, ordenados por id y nunca en el futuro")
+    @SuppressWarnings("unchecked")
+    void filas_comparten_fecha_y_se_ordenan_por_id() {
+        var cuenta = UUID.randomUUID();
+        var jdbc = mock(JdbcTemplate.class);
+        doReturn(new BigDecimal("100.00"))
+                .when(jdbc).query(startsWith("SELECT saldo FROM cuenta"), any(ResultSetExtractor.class), eq(cuenta));
+        when(jdbc.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[]{1, 1, 1});
+        var registrados = mock(MovimientosExistentes.class);
+        when(registrados.buscar(any())).thenReturn(new HashMap<>());
+        var cuentas = mock(CuentaInfoCache.class);
+        when(cuentas.buscar(any())).thenReturn(Optional.empty());
+        var service = new MovimientoLoteService(jdbc, new CuentaLocks(16, 3, 0),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(SaldoDiarioService.class), cuentas,
+                registrados, mock(LedgerCuentasCalientes.class), 1000, 500, 1000);
+
+        service.aplicar(List.of(
+                new MovimientoRequest(cuenta, TipoMovimiento.CREDITO, BigDecimal.ONE, "lote", "f-0"),
+                new MovimientoRequest(cuenta, TipoMovimiento.CREDITO, BigDecimal.ONE, "lote", "f-1"),
+                new MovimientoRequest(cuenta, TipoMovimiento.CREDITO, BigDecimal.ONE, "lote", "f-2")));
+        var despues = OffsetDateTime.now();
+
+        var filas = ArgumentCaptor.forClass(List.class);
+        verify(jdbc).batchUpdate(startsWith("INSERT"), filas.capture());
+        List<Object[]> insertadas = filas.getValue();
+        assertEquals(3, insertadas.size());
+        var fecha = (OffsetDateTime) insertadas.get(0)[2];
+        assertFalse(fecha.isAfter(despues));
+        for (int i = 1; i < insertadas.size(); i++) {
+            assertEquals(fecha, insertadas.get(i)[2]);
+            assertTrue(((UUID) insertadas.get(i - 1)[0]).compareTo((UUID) insertadas.get(i)[0]) < 0);
+        }
+    }
+
+    @Test
+    @DisplayName("El lote por tramos informa cada resultado con su índice en el lote completo")
+    void tramos_conservan_el_indice_global() {
+        var registrados = mock(MovimientosExistentes.class);
+        when(registrados.buscar(any())).thenReturn(new HashMap<>());
+        var service = new MovimientoLoteService(mock(JdbcTemplate.class), new CuentaLocks(16, 3, 0),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(SaldoDiarioService.class),
+                mock(CuentaInfoCache.class), registrados, mock(LedgerCuentasCalientes.class), 1000, 500, 2);
+        var items = new ArrayList<MovimientoRequest>();
+        for (int i = 0; i < 5; i++) {
+            // Sin valor: cada ítem se rechaza en la validación y no toca la base.
+            items.add(new MovimientoRequest(UUID.randomUUID(), TipoMovimiento.CREDITO, null, "lote", "t-" + i));
+        }
+
+        var resultados = new ArrayList<MovimientoLoteResultado>();
+        service.aplicarEnTramos(items.iterator(), resultados::add);
+
+        assertEquals(5, resultados.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, resultados.get(i).indice());
+            assertEquals("t-" + i, resultados.get(i).idempotencyKey());
+        }
+        verify(registrados, times(3)).buscar(any());
+    }
+
+    @Test
+    @DisplayName("Las idempotencyKey con el sufijo reservado del crédito de una transferencia se rechazan")
+    void rechaza_clave_con_sufijo_de_credito() {
+        var registrados = mock(MovimientosExistentes.class);
+        when(registrados.buscar(any())).thenReturn(new HashMap<>());
+        var service = new MovimientoLoteService(mock(JdbcTemplate.class), new CuentaLocks(16, 3, 0),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(SaldoDiarioService.class),
+                mock(CuentaInfoCache.class), registrados, mock(LedgerCuentasCalientes.class), 1000, 500, 1000);
+
+        var resultados = service.aplicar(List.of(
+                new MovimientoRequest(UUID.randomUUID(), TipoMovimiento.CREDITO, BigDecimal.ONE, "lote", "t1/credito")));
+
+        assertEquals("INVALID_REQUEST", resultados.get(0).code());
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        assertTrue(validator.validate(new MovimientoRequest(UUID.randomUUID(), TipoMovimiento.CREDITO, BigDecimal.ONE,
+                "r", "t1/credito/2")).isEmpty());
+        assertFalse(validator.validate(new TransferenciaRequest(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.ONE,
+                "r", "t1/credito")).isEmpty());
+    }
+}
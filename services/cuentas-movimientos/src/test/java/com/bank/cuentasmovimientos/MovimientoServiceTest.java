@@ -1,34 +1,68 @@
 package com.bank.cuentasmovimientos;
 
 import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.service.AgrupadorCommits;
+import com.bank.cuentasmovimientos.service.ArchivoMovimientos;
+import com.bank.cuentasmovimientos.service.CuentaInfoCache;
+import com.bank.cuentasmovimientos.service.CuentaLocks;
+import com.bank.cuentasmovimientos.service.IdempotenciaCache;
+import com.bank.cuentasmovimientos.service.LedgerCuentasCalientes;
+import com.bank.cuentasmovimientos.service.MetricasMovimientos;
+import com.bank.cuentasmovimientos.service.MotorEntidad;
 import com.bank.cuentasmovimientos.service.MovimientoService;
+import com.bank.cuentasmovimientos.service.MovimientosRegistrados;
+import com.bank.cuentasmovimientos.service.SaldoDiarioService;
+import com.bank.cuentasmovimientos.handler.ClaveRegistradaException;
 import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
 import com.bank.cuentasmovimientos.domain.*;
 import com.bank.cuentasmovimientos.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class MovimientoServiceTest {
 
     private CuentaRepo cuentaRepo;
     private MovimientoRepo movRepo;
+    private SaldoDiarioService saldosDiarios;
+    private SimpleMeterRegistry registry;
+    private LedgerCuentasCalientes ledger;
+    private ArchivoMovimientos archivo;
     private MovimientoService service;
 
     @BeforeEach
     void setup() {
         cuentaRepo = mock(CuentaRepo.class);
         movRepo = mock(MovimientoRepo.class);
-        service = new MovimientoService(cuentaRepo, movRepo);
+        saldosDiarios = mock(SaldoDiarioService.class);
+        registry = new SimpleMeterRegistry();
+        ledger = mock(LedgerCuentasCalientes.class);
+        archivo = mock(ArchivoMovimientos.class);
+        // La validación previa lee la misma cuenta que cada prueba deja en findByIdForUpdate.
+        when(cuentaRepo.findInfoById(any())).thenAnswer(inv -> cuentaRepo.findByIdForUpdate(inv.getArgument(0)).map(CuentaInfo::de));
+        service = new MovimientoService(new MotorEntidad(cuentaRepo, movRepo, saldosDiarios), new CuentaLocks(16, 3, 0),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new IdempotenciaCache(1000, Duration.ofMinutes(1)),
+                new MetricasMovimientos(registry), new CuentaInfoCache(cuentaRepo, 1000, Duration.ofMinutes(1)),
+                ledger, mock(AgrupadorCommits.class), new MovimientosRegistrados(movRepo, archivo));
     }
 
     @Test
@@ -39,7 +73,7 @@ public class MovimientoServiceTest {
                 .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
                 .estado("ACTIVA").clienteId(UUID.randomUUID()).build();
 
-        when(cuentaRepo.findById(cuenta.getId())).thenReturn(Optional.of(cuenta));
+        when(cuentaRepo.findByIdForUpdate(cuenta.getId())).thenReturn(Optional.of(cuenta));
         when(movRepo.findByIdempotencyKey("k1")).thenReturn(Optional.empty());
 
         var req = new MovimientoRequest(cuenta.getId(), TipoMovimiento.CREDITO,
@@ -50,6 +84,8 @@ public class MovimientoServiceTest {
         assertEquals(TipoMovimiento.CREDITO, res.tipo());
         assertEquals(new BigDecimal("150.00"), res.saldoPosterior());
         verify(movRepo).save(Mockito.any(Movimiento.class));
+        verify(saldosDiarios).registrar(eq(cuenta.getId()), any(OffsetDateTime.class), eq(TipoMovimiento.CREDITO),
+                eq(new BigDecimal("50.00")), eq(new BigDecimal("150.00")));
     }
 
     @Test
@@ -60,7 +96,7 @@ public class MovimientoServiceTest {
                 .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
                 .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
 
-        when(cuentaRepo.findById(cuenta.getId())).thenReturn(Optional.of(cuenta));
+        when(cuentaRepo.findByIdForUpdate(cuenta.getId())).thenReturn(Optional.of(cuenta));
         when(movRepo.findByIdempotencyKey("k1")).thenReturn(Optional.empty());
 
         var req = new MovimientoRequest(cuenta.getId(), TipoMovimiento.DEBITO,
@@ -81,7 +117,7 @@ public class MovimientoServiceTest {
                 .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("10.00"))
                 .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
 
-        when(cuentaRepo.findById(cuenta.getId())).thenReturn(Optional.of(cuenta));
+        when(cuentaRepo.findByIdForUpdate(cuenta.getId())).thenReturn(Optional.of(cuenta));
         when(movRepo.findByIdempotencyKey("k1")).thenReturn(Optional.empty());
 
         var req = new MovimientoRequest(cuenta.getId(), TipoMovimiento.DEBITO,
@@ -121,37 +157,166 @@ public class MovimientoServiceTest {
     }
 
     @Test
-    @DisplayName("Debe generar reporte de resumen correctamente")
-    void obtener_resumen_funciona_correctamente() {
-        var clienteId = UUID.randomUUID();
-        var cuenta = Cuenta.builder().id(UUID.randomUUID()).numero("900").build();
-        var movimientos = List.of(
-                Movimiento.builder().cuenta(cuenta).tipo(TipoMovimiento.CREDITO)
-                        .valor(new BigDecimal("200.00")).saldoPosterior(new BigDecimal("200.00")).build(),
-                Movimiento.builder().cuenta(cuenta).tipo(TipoMovimiento.DEBITO)
-                        .valor(new BigDecimal("50.00")).saldoPosterior(new BigDecimal("150.00")).build()
-        );
-
-        when(movRepo.findByClienteAndFechas(clienteId, LocalDate.now().minusDays(5), LocalDate.now()))
-                .thenReturn(movimientos);
-
-        var resumen = service.obtenerResumen(clienteId, LocalDate.now().minusDays(5), LocalDate.now());
-
-        assertEquals(new BigDecimal("200.00"), resumen.getTotalCreditos());
-        assertEquals(new BigDecimal("50.00"), resumen.getTotalDebitos());
-        assertEquals(new BigDecimal("200.00"), resumen.getSaldoFinal());
+    @DisplayName("Debe responder el reintento desde la caché sin consultar la base")
+    void aplicar_reintento_se_resuelve_desde_cache() {
+        var cuenta = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("600").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
+                .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+
+        when(cuentaRepo.findByIdForUpdate(cuenta.getId())).thenReturn(Optional.of(cuenta));
+        when(movRepo.findByIdempotencyKey("k1")).thenReturn(Optional.empty());
+
+        var req = new MovimientoRequest(cuenta.getId(), TipoMovimiento.CREDITO,
+                new BigDecimal("25.00"), "abono", "k1");
+
+        var primero = service.aplicar(req);
+        var reintento = service.aplicar(req);
+
+        assertEquals(primero, reintento);
+        verify(movRepo, times(1)).findByIdempotencyKey("k1");
+        verify(movRepo, times(1)).save(Mockito.any(Movimiento.class));
     }
 
     @Test
-    @DisplayName("Debe retornar lista vacía si no hay movimientos en el detalle")
-    void obtener_detalle_devuelve_lista_vacia() {
-        var clienteId = UUID.randomUUID();
+    @DisplayName("Debe convertir la violación de movimiento_clave en una respuesta de replay")
+    void aplicar_violacion_de_clave_devuelve_existente() {
+        var cuenta = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("700").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
+                .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+
+        var existente = Movimiento.builder()
+                .id(UUID.randomUUID()).cuenta(cuenta).fecha(OffsetDateTime.now())
+                .tipo(TipoMovimiento.CREDITO).valor(new BigDecimal("10.00"))
+                .saldoPosterior(new BigDecimal("110.00")).idempotencyKey("k1").build();
 
-        when(movRepo.findByClienteAndFechas(clienteId, LocalDate.now().minusDays(5), LocalDate.now()))
-                .thenReturn(List.of());
+        when(cuentaRepo.findByIdForUpdate(cuenta.getId())).thenReturn(Optional.of(cuenta));
+        when(movRepo.findByIdempotencyKey("k1")).thenReturn(Optional.empty(), Optional.of(existente));
+        when(movRepo.save(Mockito.any(Movimiento.class))).thenThrow(new DataIntegrityViolationException("movimiento_clave_pkey"));
 
-        var detalle = service.obtenerDetalle(clienteId, LocalDate.now().minusDays(5), LocalDate.now());
-        assertTrue(detalle.isEmpty());
+        var req = new MovimientoRequest(cuenta.getId(), TipoMovimiento.CREDITO,
+                new BigDecimal("10.00"), "abono", "k1");
+
+        var res = service.aplicar(req);
+
+        assertEquals(existente.getId(), res.movimientoId());
+        assertEquals(new BigDecimal("110.00"), res.saldoPosterior());
     }
-}
 
+    @Test
+    @DisplayName("El reintento de una clave de un mes archivado repite la respuesta desde el archivo o responde 409")
+    void aplicar_reintento_de_clave_archivada() {
+        var cuenta = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("710").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
+                .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+        var archivado = Movimiento.builder()
+                .id(UUID.randomUUID()).cuenta(Cuenta.builder().id(cuenta.getId()).build()).fecha(OffsetDateTime.now().minusYears(3))
+                .tipo(TipoMovimiento.CREDITO).valor(new BigDecimal("10.00"))
+                .saldoPosterior(new BigDecimal("40.00")).idempotencyKey("viejo").build();
+        when(cuentaRepo.findByIdForUpdate(cuenta.getId())).thenReturn(Optional.of(cuenta));
+        when(movRepo.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        when(movRepo.save(Mockito.any(Movimiento.class))).thenThrow(new DataIntegrityViolationException("movimiento_clave_pkey"));
+        when(archivo.buscarPorClave(List.of("viejo"))).thenReturn(Map.of("viejo", archivado));
+        when(movRepo.claveRegistrada("perdido")).thenReturn(true);
+
+        var res = service.aplicar(new MovimientoRequest(cuenta.getId(), TipoMovimiento.CREDITO,
+                new BigDecimal("10.00"), "abono", "viejo"));
+        assertEquals(archivado.getId(), res.movimientoId());
+        assertEquals(new BigDecimal("40.00"), res.saldoPosterior());
+
+        var ex = assertThrows(ClaveRegistradaException.class, () -> service.aplicar(new MovimientoRequest(cuenta.getId(),
+                TipoMovimiento.CREDITO, new BigDecimal("10.00"), "abono", "perdido")));
+        assertEquals("IDEMPOTENCY_KEY_UNAVAILABLE", ex.getCode());
+        assertThrows(DataIntegrityViolationException.class, () -> service.aplicar(new MovimientoRequest(cuenta.getId(),
+                TipoMovimiento.CREDITO, new BigDecimal("10.00"), "abono", "otra-falla")));
+    }
+
+    @Test
+    @DisplayName("Registra el tiempo de aplicar separado por resultado")
+    void aplicar_registra_metricas_por_resultado() {
+        var cuenta = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("300").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("10.00"))
+                .estado("ACTIVA").clienteId(UUID.randomUUID()).build();
+        when(cuentaRepo.findByIdForUpdate(cuenta.getId())).thenReturn(Optional.of(cuenta));
+        when(movRepo.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+
+        var credito = new MovimientoRequest(cuenta.getId(), TipoMovimiento.CREDITO, new BigDecimal("5.00"), "abono", "m1");
+        service.aplicar(credito);
+        service.aplicar(credito);
+        assertThrows(SaldoNoDisponibleException.class, () -> service.aplicar(
+                new MovimientoRequest(cuenta.getId(), TipoMovimiento.DEBITO, new BigDecimal("99.00"), "retiro", "m2")));
+        assertThrows(IllegalArgumentException.class, () -> service.aplicar(
+                new MovimientoRequest(UUID.randomUUID(), TipoMovimiento.DEBITO, new BigDecimal("1.00"), "retiro", "m3")));
+
+        assertEquals(1, registry.get("movimientos.aplicar").tag("resultado", MetricasMovimientos.APLICADO).timer().count());
+        assertEquals(1, registry.get("movimientos.aplicar").tag("resultado", MetricasMovimientos.REPLAY).timer().count());
+        assertEquals(1, registry.get("movimientos.aplicar").tag("resultado", MetricasMovimientos.SALDO_INSUFICIENTE).timer().count());
+        assertEquals(1, registry.get("movimientos.aplicar").tag("resultado", MetricasMovimientos.CUENTA_INEXISTENTE).timer().count());
+    }
+
+    @Test
+    @DisplayName("Rechaza movimientos sobre una cuenta inactiva sin abrir transacción")
+    void aplicar_cuenta_inactiva_falla_antes_de_bloquear() {
+        var cuenta = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("800").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
+                .estado(Status.INACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+        doReturn(Optional.of(CuentaInfo.de(cuenta))).when(cuentaRepo).findInfoById(cuenta.getId());
+
+        var req = new MovimientoRequest(cuenta.getId(), TipoMovimiento.CREDITO, new BigDecimal("5.00"), "abono", "inactiva");
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> service.aplicar(req));
+        assertEquals("Cuenta no está activa", ex.getMessage());
+        verify(cuentaRepo, never()).findByIdForUpdate(any());
+        verify(movRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Los movimientos de una cuenta caliente se registran por el ledger sin lock de fila")
+    void aplicar_cuenta_caliente_va_por_el_ledger() {
+        var cuenta = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("900").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
+                .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+        doReturn(Optional.of(CuentaInfo.de(cuenta))).when(cuentaRepo).findInfoById(cuenta.getId());
+        var req = new MovimientoRequest(cuenta.getId(), TipoMovimiento.CREDITO, new BigDecimal("5.00"), "abono", "caliente");
+        var movimiento = new MovimientoResponse(UUID.randomUUID(), cuenta.getId(), TipoMovimiento.CREDITO,
+                new BigDecimal("5.00"), new BigDecimal("105.00"));
+        when(ledger.atiende(cuenta.getId())).thenReturn(true);
+        when(ledger.aplicar(req)).thenReturn(new LedgerCuentasCalientes.Aplicado(movimiento, false));
+
+        assertEquals(movimiento, service.aplicar(req));
+        assertEquals(movimiento, service.aplicar(req));
+
+        verify(ledger, times(1)).aplicar(req);
+        verify(cuentaRepo, never()).findByIdForUpdate(any());
+        assertEquals(1, registry.get("movimientos.aplicar").tag("resultado", MetricasMovimientos.APLICADO).timer().count());
+        assertEquals(1, registry.get("movimientos.aplicar").tag("resultado", MetricasMovimientos.REPLAY).timer().count());
+    }
+
+    @Test
+    @DisplayName("Un conflicto de clave en el ledger se contesta como replay del movimiento registrado")
+    void aplicar_cuenta_caliente_con_clave_registrada_hace_replay() {
+        var cuenta = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("901").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
+                .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+        doReturn(Optional.of(CuentaInfo.de(cuenta))).when(cuentaRepo).findInfoById(cuenta.getId());
+        var existente = Movimiento.builder()
+                .id(UUID.randomUUID()).cuenta(cuenta).fecha(OffsetDateTime.now())
+                .tipo(TipoMovimiento.CREDITO).valor(new BigDecimal("5.00"))
+                .saldoPosterior(new BigDecimal("105.00")).idempotencyKey("caliente-dup").build();
+        var req = new MovimientoRequest(cuenta.getId(), TipoMovimiento.CREDITO, new BigDecimal("5.00"), "abono", "caliente-dup");
+        when(ledger.atiende(cuenta.getId())).thenReturn(true);
+        when(ledger.aplicar(req)).thenThrow(new org.springframework.dao.DuplicateKeyException("movimiento_clave_pkey"));
+        when(movRepo.findByIdempotencyKey("caliente-dup")).thenReturn(Optional.of(existente));
+
+        var res = service.aplicar(req);
+
+        assertEquals(existente.getId(), res.movimientoId());
+        assertEquals(1, registry.get("movimientos.aplicar").tag("resultado", MetricasMovimientos.REPLAY).timer().count());
+    }
+}
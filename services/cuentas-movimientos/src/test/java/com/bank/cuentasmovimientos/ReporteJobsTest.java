@@ -0,0 +1,113 @@
+package com.bank.cuentasmovimientos;
+
+import com.bank.cuentasmovimientos.domain.EstadoReporteJob;
+import com.bank.cuentasmovimientos.dto.ReporteEstadoCuentaResponse;
+import com.bank.cuentasmovimientos.dto.ReporteJobRequest;
+import com.bank.cuentasmovimientos.handler.ColaSaturadaException;
+import com.bank.cuentasmovimientos.service.ReporteJobs;
+import com.bank.cuentasmovimientos.service.ReporteMovimientosService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReporteJobsTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2024, 12, 31);
+
+    @TempDir
+    Path directorio;
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    @DisplayName("El trabajo genera el estado de cuenta en segundo plano y lo deja en disco")
+    void genera_y_guarda_el_reporte() throws Exception {
+        var clienteId = UUID.randomUUID();
+        var otroCliente = UUID.randomUUID();
+        var service = mock(ReporteMovimientosService.class);
+        var reporte = ReporteEstadoCuentaResponse.builder()
+                .clienteId(clienteId).fechaInicio(INICIO).fechaFin(FIN)
+                .saldoTotalInicial(BigDecimal.ZERO).saldoTotalFinal(new BigDecimal("150.00"))
+                .cuentas(List.of()).build();
+        when(service.obtenerEstadoCuenta(clienteId, INICIO, FIN, false)).thenReturn(reporte);
+        when(service.obtenerEstadoCuenta(eq(otroCliente), any(), any(), anyBoolean())).thenThrow(new IllegalStateException("sin base"));
+        var jobs = new ReporteJobs(service, mapper, new SimpleMeterRegistry(), 1, 10, directorio, Duration.ofHours(1));
+
+        var listo = jobs.crear(new ReporteJobRequest(clienteId, INICIO, FIN, false));
+        var fallido = jobs.crear(new ReporteJobRequest(otroCliente, INICIO, FIN, null));
+
+        assertEquals(EstadoReporteJob.LISTO, esperar(jobs, listo.jobId()));
+        assertEquals(EstadoReporteJob.FALLIDO, esperar(jobs, fallido.jobId()));
+        assertEquals("sin base", jobs.estado(fallido.jobId()).orElseThrow().error());
+        assertTrue(jobs.resultado(fallido.jobId()).isEmpty());
+
+        var guardado = mapper.readTree(Files.readAllBytes(jobs.resultado(listo.jobId()).orElseThrow()));
+        assertEquals(clienteId.toString(), guardado.get("clienteId").asText());
+        assertEquals("2024-12-31", guardado.get("fechaFin").asText());
+        assertEquals(0, new BigDecimal("150.00").compareTo(guardado.get("saldoTotalFinal").decimalValue()));
+
+        // Otra instancia (reinicio) reconoce el resultado que quedó en disco.
+        var reiniciado = new ReporteJobs(service, mapper, new SimpleMeterRegistry(), 1, 10, directorio, Duration.ofHours(1));
+        assertEquals(EstadoReporteJob.LISTO, reiniciado.estado(listo.jobId()).orElseThrow().estado());
+        assertTrue(reiniciado.estado(fallido.jobId()).isEmpty());
+        jobs.stop();
+        reiniciado.stop();
+    }
+
+    @Test
+    @DisplayName("Con los hilos ocupados y la cola llena el alta se rechaza con 503")
+    void cola_llena_rechaza() throws Exception {
+        var service = mock(ReporteMovimientosService.class);
+        var enCurso = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+        when(service.obtenerEstadoCuenta(any(), any(), any(), anyBoolean())).thenAnswer(inv -> {
+            enCurso.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return ReporteEstadoCuentaResponse.builder().cuentas(List.of()).build();
+        });
+        var jobs = new ReporteJobs(service, mapper, new SimpleMeterRegistry(), 1, 1, directorio, Duration.ofHours(1));
+
+        var primero = jobs.crear(new ReporteJobRequest(UUID.randomUUID(), INICIO, FIN, true));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+        assertEquals(EstadoReporteJob.EN_CURSO, jobs.estado(primero.jobId()).orElseThrow().estado());
+        var encolado = jobs.crear(new ReporteJobRequest(UUID.randomUUID(), INICIO, FIN, true));
+        assertEquals(EstadoReporteJob.PENDIENTE, encolado.estado());
+
+        var ex = assertThrows(ColaSaturadaException.class, () -> jobs.crear(new ReporteJobRequest(UUID.randomUUID(), INICIO, FIN, true)));
+        assertEquals("REPORT_JOBS_BUSY", ex.getCode());
+
+        liberar.countDown();
+        assertEquals(EstadoReporteJob.LISTO, esperar(jobs, encolado.jobId()));
+        jobs.stop();
+    }
+
+    private static EstadoReporteJob esperar(ReporteJobs jobs, UUID jobId) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            var estado = jobs.estado(jobId).orElseThrow().estado();
+            if (estado == EstadoReporteJob.LISTO || estado == EstadoReporteJob.FALLIDO) return estado;
+            Thread.sleep(10);
+        }
+        fail("El trabajo " + jobId + " no terminó");
+        return null;
+    }
+}
@@ -0,0 +1,166 @@
+package com.bank.cuentasmovimientos;
+
+import com.bank.cuentasmovimientos.service.ArchivoMovimientos;
+import com.bank.cuentasmovimientos.service.CuentaInfoCache;
+import com.bank.cuentasmovimientos.service.DirectorioClientes;
+import com.bank.cuentasmovimientos.service.MetricasMovimientos;
+import com.bank.cuentasmovimientos.service.ReporteMovimientosService;
+import com.bank.cuentasmovimientos.service.SaldoDiarioService;
+import com.bank.cuentasmovimientos.domain.*;
+import com.bank.cuentasmovimientos.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReporteMovimientosServiceTest {
+
+    private CuentaRepo cuentaRepo;
+    private MovimientoRepo movRepo;
+    private SaldoDiarioService saldosDiarios;
+    private ReporteMovimientosService service;
+
+    @BeforeEach
+    void setup() {
+        cuentaRepo = mock(CuentaRepo.class);
+        movRepo = mock(MovimientoRepo.class);
+        saldosDiarios = mock(SaldoDiarioService.class);
+        service = new ReporteMovimientosService(movRepo, cuentaRepo,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), saldosDiarios,
+                mock(DirectorioClientes.class), new MetricasMovimientos(new SimpleMeterRegistry()),
+                new CuentaInfoCache(cuentaRepo, 1000, Duration.ofMinutes(1)), mock(ArchivoMovimientos.class));
+    }
+
+    @Test
+    @DisplayName("Debe generar reporte de resumen correctamente")
+    void obtener_resumen_funciona_correctamente() {
+        var clienteId = UUID.randomUUID();
+        var cuentaId = UUID.randomUUID();
+
+        when(movRepo.resumirPorCuenta(clienteId, LocalDate.now().minusDays(5), LocalDate.now()))
+                .thenReturn(List.of(new ResumenCuenta(cuentaId, new BigDecimal("200.00"),
+                        new BigDecimal("50.00"), new BigDecimal("200.00"))));
+
+        var resumen = service.obtenerResumen(clienteId, LocalDate.now().minusDays(5), LocalDate.now());
+
+        assertEquals(new BigDecimal("200.00"), resumen.getTotalCreditos());
+        assertEquals(new BigDecimal("50.00"), resumen.getTotalDebitos());
+        assertEquals(new BigDecimal("200.00"), resumen.getSaldoFinal());
+    }
+
+    @Test
+    @DisplayName("Debe retornar lista vacía si no hay movimientos en el detalle")
+    void obtener_detalle_devuelve_lista_vacia() {
+        var clienteId = UUID.randomUUID();
+
+        when(movRepo.findByClienteAndFechas(clienteId, LocalDate.now().minusDays(5), LocalDate.now()))
+                .thenReturn(List.of());
+
+        var detalle = service.obtenerDetalle(clienteId, LocalDate.now().minusDays(5), LocalDate.now());
+        assertTrue(detalle.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe paginar el detalle y devolver el cursor del último elemento")
+    void obtener_detalle_paginado_devuelve_cursor() {
+        var clienteId = UUID.randomUUID();
+        var cuenta = Cuenta.builder().id(UUID.randomUUID()).numero("901").build();
+        var ahora = OffsetDateTime.now();
+        var movimientos = List.of(
+                Movimiento.builder().id(UUID.randomUUID()).cuenta(cuenta).fecha(ahora).tipo(TipoMovimiento.CREDITO)
+                        .valor(BigDecimal.ONE).saldoPosterior(BigDecimal.ONE).build(),
+                Movimiento.builder().id(UUID.randomUUID()).cuenta(cuenta).fecha(ahora.minusMinutes(1)).tipo(TipoMovimiento.CREDITO)
+                        .valor(BigDecimal.ONE).saldoPosterior(BigDecimal.ONE).build(),
+                Movimiento.builder().id(UUID.randomUUID()).cuenta(cuenta).fecha(ahora.minusMinutes(2)).tipo(TipoMovimiento.CREDITO)
+                        .valor(BigDecimal.ONE).saldoPosterior(BigDecimal.ONE).build()
+        );
+
+        when(movRepo.findPaginaByClienteAndFechas(clienteId, null, null, null, 3))
+                .thenReturn(movimientos);
+        doReturn(Optional.of(CuentaInfo.de(cuenta))).when(cuentaRepo).findInfoById(cuenta.getId());
+
+        var pagina = service.obtenerDetallePagina(clienteId, null, null, null, 2);
+
+        assertEquals(2, pagina.items().size());
+        assertEquals("901", pagina.items().get(0).getNumeroCuenta());
+        var cursor = CursorMovimiento.decodificar(pagina.siguiente());
+        assertEquals(movimientos.get(1).getId(), cursor.id());
+        assertTrue(movimientos.get(1).getFecha().isEqual(cursor.fecha()));
+    }
+
+    @Test
+    @DisplayName("Estado de cuenta sin movimientos se arma desde las fotos diarias")
+    void estado_cuenta_sin_movimientos_usa_saldos_diarios() {
+        var clienteId = UUID.randomUUID();
+        var inicio = LocalDate.now().minusDays(30);
+        var fin = LocalDate.now();
+
+        when(saldosDiarios.resumirPorCuenta(clienteId, inicio, fin)).thenReturn(List.of(
+                new ResumenSaldoCuenta(UUID.randomUUID(), "100", "AHORROS", new BigDecimal("10.00"),
+                        new BigDecimal("40.00"), new BigDecimal("5.00"), new BigDecimal("45.00")),
+                new ResumenSaldoCuenta(UUID.randomUUID(), "200", "CORRIENTE", new BigDecimal("0.00"),
+                        new BigDecimal("20.00"), BigDecimal.ZERO, new BigDecimal("20.00"))));
+
+        var reporte = service.obtenerEstadoCuenta(clienteId, inicio, fin, false);
+
+        assertEquals(2, reporte.getCuentas().size());
+        assertEquals(new BigDecimal("10.00"), reporte.getSaldoTotalInicial());
+        assertEquals(new BigDecimal("60.00"), reporte.getTotalCreditos());
+        assertEquals(new BigDecimal("65.00"), reporte.getSaldoTotalFinal());
+        assertTrue(reporte.getCuentas().get(0).getMovimientos().isEmpty());
+        verifyNoInteractions(movRepo);
+    }
+
+    @Test
+    @DisplayName("Estado de cuenta calcula el saldo inicial antes del primer movimiento de cada cuenta")
+    void estado_cuenta_saldo_inicial_previo_al_primer_movimiento() {
+        var clienteId = UUID.randomUUID();
+        var ahorros = Cuenta.builder().id(UUID.randomUUID()).numero("100").tipo(TipoCuenta.AHORROS).build();
+        var corriente = Cuenta.builder().id(UUID.randomUUID()).numero("200").tipo(TipoCuenta.CORRIENTE).build();
+        var ahora = OffsetDateTime.now();
+        var movimientos = List.of(
+                Movimiento.builder().id(UUID.randomUUID()).cuenta(ahorros).fecha(ahora.minusHours(2)).tipo(TipoMovimiento.CREDITO)
+                        .valor(new BigDecimal("30.00")).saldoPosterior(new BigDecimal("130.00")).build(),
+                Movimiento.builder().id(UUID.randomUUID()).cuenta(ahorros).fecha(ahora.minusHours(1)).tipo(TipoMovimiento.DEBITO)
+                        .valor(new BigDecimal("10.00")).saldoPosterior(new BigDecimal("120.00")).build(),
+                Movimiento.builder().id(UUID.randomUUID()).cuenta(corriente).fecha(ahora.minusHours(3)).tipo(TipoMovimiento.DEBITO)
+                        .valor(new BigDecimal("5.00")).saldoPosterior(new BigDecimal("45.00")).build()
+        );
+        doAnswer(inv -> {
+            Consumer<Movimiento> accion = inv.getArgument(3);
+            movimientos.forEach(accion);
+            return null;
+        }).when(movRepo).forEachPorCuentaByClienteAndFechas(eq(clienteId), any(), any(), any());
+        doReturn(Optional.of(CuentaInfo.de(ahorros))).when(cuentaRepo).findInfoById(ahorros.getId());
+        doReturn(Optional.of(CuentaInfo.de(corriente))).when(cuentaRepo).findInfoById(corriente.getId());
+
+        var reporte = service.obtenerEstadoCuenta(clienteId, LocalDate.now().minusDays(1), LocalDate.now());
+
+        assertEquals(2, reporte.getCuentas().size());
+        var primera = reporte.getCuentas().get(0);
+        assertEquals("100", primera.getNumero());
+        assertEquals("AHORROS", primera.getTipo());
+        assertEquals(new BigDecimal("100.00"), primera.getSaldoInicial());
+        assertEquals(new BigDecimal("30.00"), primera.getTotalCreditos());
+        assertEquals(new BigDecimal("10.00"), primera.getTotalDebitos());
+        assertEquals(new BigDecimal("120.00"), primera.getSaldoFinal());
+        assertEquals(2, primera.getMovimientos().size());
+        assertEquals(new BigDecimal("50.00"), reporte.getCuentas().get(1).getSaldoInicial());
+        assertEquals(new BigDecimal("150.00"), reporte.getSaldoTotalInicial());
+        assertEquals(new BigDecimal("165.00"), reporte.getSaldoTotalFinal());
+    }
+}
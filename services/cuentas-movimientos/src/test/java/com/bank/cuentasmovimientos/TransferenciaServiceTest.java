@@ -0,0 +1,111 @@
+package com.bank.cuentasmovimientos;
+
+import com.bank.cuentasmovimientos.dto.TransferenciaRequest;
+import com.bank.cuentasmovimientos.service.ArchivoMovimientos;
+import com.bank.cuentasmovimientos.service.CuentaInfoCache;
+import com.bank.cuentasmovimientos.service.CuentaLocks;
+import com.bank.cuentasmovimientos.service.LedgerCuentasCalientes;
+import com.bank.cuentasmovimientos.service.MetricasMovimientos;
+import com.bank.cuentasmovimientos.service.MotorEntidad;
+import com.bank.cuentasmovimientos.service.MovimientosRegistrados;
+import com.bank.cuentasmovimientos.service.SaldoDiarioService;
+import com.bank.cuentasmovimientos.service.TransferenciaService;
+import com.bank.cuentasmovimientos.handler.CuentaCalienteException;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import com.bank.cuentasmovimientos.domain.*;
+import com.bank.cuentasmovimientos.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TransferenciaServiceTest {
+
+    private CuentaRepo cuentaRepo;
+    private MovimientoRepo movRepo;
+    private SimpleMeterRegistry registry;
+    private LedgerCuentasCalientes ledger;
+    private TransferenciaService service;
+
+    @BeforeEach
+    void setup() {
+        cuentaRepo = mock(CuentaRepo.class);
+        movRepo = mock(MovimientoRepo.class);
+        registry = new SimpleMeterRegistry();
+        ledger = mock(LedgerCuentasCalientes.class);
+        // La validación previa lee la misma cuenta que cada prueba deja en findByIdForUpdate.
+        when(cuentaRepo.findInfoById(any())).thenAnswer(inv -> cuentaRepo.findByIdForUpdate(inv.getArgument(0)).map(CuentaInfo::de));
+        service = new TransferenciaService(new MotorEntidad(cuentaRepo, movRepo, mock(SaldoDiarioService.class)),
+                new CuentaLocks(16, 3, 0), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new MetricasMovimientos(registry), new CuentaInfoCache(cuentaRepo, 1000, Duration.ofMinutes(1)),
+                ledger, new MovimientosRegistrados(movRepo, mock(ArchivoMovimientos.class)));
+    }
+
+    @Test
+    @DisplayName("La transferencia debita y acredita enlazadas; sin saldo no toca ninguna de las dos cuentas")
+    void transferir_registra_debito_y_credito_enlazados() {
+        var origen = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("1000").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
+                .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+        var destino = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("1001").tipo(TipoCuenta.CORRIENTE)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("10.00"))
+                .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+        when(cuentaRepo.findByIdForUpdate(origen.getId())).thenReturn(Optional.of(origen));
+        when(cuentaRepo.findByIdForUpdate(destino.getId())).thenReturn(Optional.of(destino));
+        when(movRepo.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+
+        var res = service.transferir(new TransferenciaRequest(origen.getId(), destino.getId(),
+                new BigDecimal("40.00"), "pago", "t1"));
+
+        assertEquals(new BigDecimal("60.00"), res.debito().saldoPosterior());
+        assertEquals(new BigDecimal("50.00"), res.credito().saldoPosterior());
+        var guardados = org.mockito.ArgumentCaptor.forClass(Movimiento.class);
+        verify(movRepo, times(2)).save(guardados.capture());
+        assertEquals(List.of("t1", "t1/credito"), guardados.getAllValues().stream().map(Movimiento::getIdempotencyKey).toList());
+        assertTrue(guardados.getAllValues().stream().allMatch(m -> res.transferenciaId().equals(m.getTransferenciaId())));
+
+        assertThrows(SaldoNoDisponibleException.class, () -> service.transferir(new TransferenciaRequest(
+                destino.getId(), origen.getId(), new BigDecimal("500.00"), "pago", "t2")));
+        assertEquals(new BigDecimal("50.00"), destino.getSaldo());
+        assertEquals(new BigDecimal("60.00"), origen.getSaldo());
+        verify(movRepo, times(2)).save(Mockito.any(Movimiento.class));
+    }
+
+    @Test
+    @DisplayName("Rechaza transferencias con una cuenta caliente del ledger o hacia la misma cuenta")
+    void transferir_rechaza_cuenta_caliente_y_misma_cuenta() {
+        var origen = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("1100").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
+                .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+        var caliente = Cuenta.builder()
+                .id(UUID.randomUUID()).numero("1101").tipo(TipoCuenta.AHORROS)
+                .saldoInicial(BigDecimal.ZERO).saldo(new BigDecimal("100.00"))
+                .estado(Status.ACTIVA.toString()).clienteId(UUID.randomUUID()).build();
+        when(cuentaRepo.findByIdForUpdate(origen.getId())).thenReturn(Optional.of(origen));
+        when(cuentaRepo.findByIdForUpdate(caliente.getId())).thenReturn(Optional.of(caliente));
+        when(ledger.atiende(caliente.getId())).thenReturn(true);
+
+        var ex = assertThrows(CuentaCalienteException.class, () -> service.transferir(new TransferenciaRequest(
+                origen.getId(), caliente.getId(), BigDecimal.ONE, "pago", "t3")));
+        assertEquals("LEDGER_ACCOUNT", ex.getCode());
+        assertEquals(1, registry.get("movimientos.transferir").tag("resultado", MetricasMovimientos.CUENTA_CALIENTE).timer().count());
+        assertThrows(IllegalArgumentException.class, () -> service.transferir(new TransferenciaRequest(
+                origen.getId(), origen.getId(), BigDecimal.ONE, "pago", "t4")));
+        verify(movRepo, never()).save(any());
+    }
+}
@@ -0,0 +1,49 @@
+package com.bank.cuentasmovimientos;
+
+import com.bank.cuentasmovimientos.domain.UuidV7;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    @DisplayName("Versión 7, variante RFC y milisegundo actual en los primeros 48 bits")
+    void formato_v7() {
+        long antes = System.currentTimeMillis();
+        UUID id = UuidV7.generar();
+        long despues = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long milis = id.getMostSignificantBits() >>> 16;
+        assertTrue(milis >= antes && milis <= despues + 1);
+    }
+
+    @Test
+    @DisplayName("Ids consecutivos son estrictamente crecientes aunque caigan en el mismo milisegundo")
+    void crecientes_en_el_mismo_milisegundo() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) ids.add(UuidV7.generar());
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, "desordenado en " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Sin repetidos con varios hilos generando a la vez")
+    void unicos_entre_hilos() {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 200_000).parallel().forEach(i -> ids.add(UuidV7.generar()));
+        assertEquals(200_000, ids.size());
+    }
+}
@@ -0,0 +1,85 @@
+package com.bank.cuentasmovimientos.integration;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import com.bank.cuentasmovimientos.service.LedgerCuentasCalientes;
+import com.bank.cuentasmovimientos.service.MovimientosExistentes;
+import com.bank.cuentasmovimientos.service.SaldoDiarioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class LedgerCuentasCalientesIntegrationTest extends PostgresContainerTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MovimientosExistentes existentes;
+
+    @Autowired
+    private SaldoDiarioService saldosDiarios;
+
+    @Test
+    @DisplayName("El ledger registra en lotes y al reiniciar recupera el saldo desde los movimientos")
+    void ledger_registra_y_recupera_saldo() throws Exception {
+        var cuentaId = UUID.randomUUID();
+        jdbc.update("INSERT INTO cuenta (id, numero, tipo, saldo_inicial, saldo, estado, cliente_id) "
+                + "VALUES (?, ?, 'AHORROS', 100, 100, 'ACTIVA', ?)", cuentaId, "LG-" + cuentaId, UUID.randomUUID());
+
+        var ledger = ledger(cuentaId);
+        ledger.start();
+        List<CompletableFuture<LedgerCuentasCalientes.Aplicado>> futuros = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            var tipo = i % 2 == 0 ? TipoMovimiento.CREDITO : TipoMovimiento.DEBITO;
+            futuros.add(ledger.enviar(new MovimientoRequest(cuentaId, tipo, new BigDecimal("3.00"), "lg", "lg-" + cuentaId + "-" + i)));
+        }
+        futuros.add(ledger.enviar(new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, new BigDecimal("3.00"), "lg", "lg-" + cuentaId + "-0")));
+        futuros.add(ledger.enviar(new MovimientoRequest(cuentaId, TipoMovimiento.DEBITO, new BigDecimal("1000.00"), "lg", "lg-" + cuentaId + "-sin-saldo")));
+
+        for (int i = 0; i < 500; i++) {
+            assertFalse(futuros.get(i).get().replay());
+        }
+        assertTrue(futuros.get(500).get().replay());
+        var ex = assertThrows(ExecutionException.class, () -> futuros.get(501).get());
+        assertInstanceOf(SaldoNoDisponibleException.class, ex.getCause());
+        ledger.stop();
+
+        var saldo = jdbc.queryForObject("SELECT saldo FROM cuenta WHERE id = ?", BigDecimal.class, cuentaId);
+        assertEquals(0, new BigDecimal("100.00").compareTo(saldo));
+        assertEquals(500, jdbc.queryForObject("SELECT count(*) FROM movimiento WHERE cuenta_id = ?", Integer.class, cuentaId));
+        assertTrue(saldosDiarios.verificar(cuentaId).isEmpty());
+
+        // Un saldo de cuenta desalineado no afecta: al arrancar manda el último movimiento.
+        jdbc.update("UPDATE cuenta SET saldo = 0 WHERE id = ?", cuentaId);
+        var reiniciado = ledger(cuentaId);
+        reiniciado.start();
+        var aplicado = reiniciado.aplicar(new MovimientoRequest(cuentaId, TipoMovimiento.DEBITO, new BigDecimal("40.00"), "lg", "lg-" + cuentaId + "-reinicio"));
+        reiniciado.stop();
+        assertEquals(0, new BigDecimal("60.00").compareTo(aplicado.movimiento().saldoPosterior()));
+    }
+
+    private LedgerCuentasCalientes ledger(UUID cuentaId) {
+        return new LedgerCuentasCalientes(jdbc, transactionTemplate, existentes, saldosDiarios, new SimpleMeterRegistry(),
+                cuentaId.toString(), 2, 1024, 100, Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,137 @@
+package com.bank.cuentasmovimientos.integration;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import com.bank.cuentasmovimientos.service.MotorMovimientos;
+import com.bank.cuentasmovimientos.service.MotorSql;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "movimientos.motor=sql")
+class MotorSqlIntegrationTest extends PostgresContainerTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MotorMovimientos motor;
+
+    @Test
+    @DisplayName("El UPDATE condicional devuelve el saldo nuevo y deja el débito hasta cero")
+    void update_condicional_con_returning() {
+        assertInstanceOf(MotorSql.class, motor);
+        var cuentaId = cuenta("10.00");
+
+        var credito = aplicar(cuentaId, TipoMovimiento.CREDITO, "5.00", "ms-c-" + cuentaId);
+        assertEquals(0, new BigDecimal("15.00").compareTo(credito.saldoPosterior()));
+        var debito = aplicar(cuentaId, TipoMovimiento.DEBITO, "15.00", "ms-d-" + cuentaId);
+        assertEquals(0, BigDecimal.ZERO.compareTo(debito.saldoPosterior()));
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(saldo(cuentaId)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(jdbc.queryForObject(
+                "SELECT saldo_posterior FROM movimiento WHERE id = ?", BigDecimal.class, debito.movimientoId())));
+    }
+
+    @Test
+    @DisplayName("Sin saldo suficiente el débito se rechaza sin tocar cuenta ni movimiento; sin cuenta es IllegalArgument")
+    void saldo_insuficiente_y_cuenta_inexistente() {
+        var cuentaId = cuenta("10.00");
+
+        assertThrows(SaldoNoDisponibleException.class,
+                () -> aplicar(cuentaId, TipoMovimiento.DEBITO, "10.01", "ms-x-" + cuentaId));
+        assertEquals(0, new BigDecimal("10.00").compareTo(saldo(cuentaId)));
+        assertEquals(0, filas(cuentaId));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> aplicar(UUID.randomUUID(), TipoMovimiento.CREDITO, "1.00", "ms-n-" + cuentaId));
+    }
+
+    @Test
+    @DisplayName("Una idempotencyKey repetida la rechaza movimiento_clave y la transacción deshace el saldo")
+    void clave_duplicada_por_movimiento_clave() {
+        var cuentaId = cuenta("10.00");
+        aplicar(cuentaId, TipoMovimiento.CREDITO, "5.00", "ms-k-" + cuentaId);
+
+        assertThrows(DuplicateKeyException.class,
+                () -> aplicar(cuentaId, TipoMovimiento.CREDITO, "7.00", "ms-k-" + cuentaId));
+        assertEquals(0, new BigDecimal("15.00").compareTo(saldo(cuentaId)));
+        assertEquals(1, filas(cuentaId));
+        assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM movimiento_clave WHERE idempotency_key = ?",
+                Integer.class, "ms-k-" + cuentaId));
+    }
+
+    @Test
+    @DisplayName("Débitos concurrentes sin locks del nodo nunca dejan el saldo negativo")
+    void debitos_concurrentes_no_sobregiran() throws Exception {
+        var cuentaId = cuenta("10.00");
+        int hilos = 16;
+        int porHilo = 5;
+        var inicio = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(hilos);
+        List<Future<Integer>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            int hilo = h;
+            tareas.add(pool.submit(() -> {
+                inicio.await();
+                int aplicados = 0;
+                for (int i = 0; i < porHilo; i++) {
+                    try {
+                        aplicar(cuentaId, TipoMovimiento.DEBITO, "1.00", "ms-p-" + cuentaId + "-" + hilo + "-" + i);
+                        aplicados++;
+                    } catch (SaldoNoDisponibleException ignored) {
+                    }
+                }
+                return aplicados;
+            }));
+        }
+        inicio.countDown();
+        int aplicados = 0;
+        for (Future<Integer> t : tareas) {
+            aplicados += t.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(10, aplicados);
+        assertEquals(0, BigDecimal.ZERO.compareTo(saldo(cuentaId)));
+        assertEquals(10, filas(cuentaId));
+    }
+
+    private MovimientoResponse aplicar(UUID cuentaId, TipoMovimiento tipo, String valor, String clave) {
+        return transactionTemplate.execute(s ->
+                motor.aplicar(new MovimientoRequest(cuentaId, tipo, new BigDecimal(valor), "ms", clave)));
+    }
+
+    private UUID cuenta(String saldo) {
+        var id = UUID.randomUUID();
+        jdbc.update("INSERT INTO cuenta (id, numero, tipo, saldo_inicial, saldo, estado, cliente_id) "
+                + "VALUES (?, ?, 'AHORROS', ?, ?, 'ACTIVA', ?)", id, "MS-" + id, new BigDecimal(saldo), new BigDecimal(saldo),
+                UUID.randomUUID());
+        return id;
+    }
+
+    private BigDecimal saldo(UUID cuentaId) {
+        return jdbc.queryForObject("SELECT saldo FROM cuenta WHERE id = ?", BigDecimal.class, cuentaId);
+    }
+
+    private int filas(UUID cuentaId) {
+        return jdbc.queryForObject("SELECT count(*) FROM movimiento WHERE cuenta_id = ?", Integer.class, cuentaId);
+    }
+}
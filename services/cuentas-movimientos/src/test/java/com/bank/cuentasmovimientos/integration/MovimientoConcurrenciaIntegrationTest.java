@@ -0,0 +1,91 @@
+package com.bank.cuentasmovimientos.integration;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.dto.MovimientoResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MovimientoConcurrenciaIntegrationTest extends PostgresContainerTest {
+
+    private static final int HILOS = 32;
+    private static final int OPERACIONES_POR_HILO = 40;
+
+    @Autowired
+    private TestRestTemplate http;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    @DisplayName("POST /movimientos concurrentes: cuenta.saldo coincide con la suma de las filas de movimiento")
+    void saldo_coincide_con_filas_de_movimiento() throws Exception {
+        var cuentaId = UUID.randomUUID();
+        jdbc.update("INSERT INTO cuenta (id, numero, tipo, saldo_inicial, saldo, estado, cliente_id) "
+                + "VALUES (?, ?, 'AHORROS', 100, 100, 'ACTIVA', ?)", cuentaId, "CC-" + cuentaId, UUID.randomUUID());
+
+        var inicio = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(HILOS);
+        List<Future<int[]>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            int hilo = h;
+            tareas.add(pool.submit(() -> {
+                inicio.await();
+                // [aplicados, rechazados por saldo]
+                int[] conteo = new int[2];
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    // Débitos más grandes que los créditos: parte de ellos tiene que chocar con el saldo.
+                    var req = (hilo + i) % 2 == 0
+                            ? new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, new BigDecimal("3.00"), "cc", "cc-" + hilo + "-" + i)
+                            : new MovimientoRequest(cuentaId, TipoMovimiento.DEBITO, new BigDecimal("5.00"), "cc", "cc-" + hilo + "-" + i);
+                    var res = http.postForEntity("/movimientos", req, MovimientoResponse.class);
+                    if (res.getStatusCode().is2xxSuccessful()) conteo[0]++;
+                    else if (res.getStatusCode() == HttpStatus.BAD_REQUEST) conteo[1]++;
+                    else fail("Respuesta inesperada " + res.getStatusCode());
+                    // Un reintento con la misma clave repite la respuesta y no agrega filas.
+                    if (i % 10 == 0 && res.getStatusCode().is2xxSuccessful()) {
+                        var otra = http.postForEntity("/movimientos", req, MovimientoResponse.class);
+                        assertEquals(res.getBody().movimientoId(), otra.getBody().movimientoId());
+                    }
+                }
+                return conteo;
+            }));
+        }
+        inicio.countDown();
+        int aplicados = 0;
+        int rechazados = 0;
+        for (Future<int[]> t : tareas) {
+            int[] conteo = t.get(120, TimeUnit.SECONDS);
+            aplicados += conteo[0];
+            rechazados += conteo[1];
+        }
+        pool.shutdown();
+
+        assertEquals(HILOS * OPERACIONES_POR_HILO, aplicados + rechazados);
+        assertEquals(aplicados, jdbc.queryForObject("SELECT count(*) FROM movimiento WHERE cuenta_id = ?", Integer.class, cuentaId));
+        var saldo = jdbc.queryForObject("SELECT saldo FROM cuenta WHERE id = ?", BigDecimal.class, cuentaId);
+        var sumaFilas = jdbc.queryForObject("""
+                SELECT 100 + coalesce(sum(CASE WHEN tipo = 'CREDITO' THEN valor ELSE -valor END), 0)
+                FROM movimiento WHERE cuenta_id = ?
+                """, BigDecimal.class, cuentaId);
+        assertEquals(0, sumaFilas.compareTo(saldo));
+        assertEquals(0, saldo.compareTo(jdbc.queryForObject(
+                "SELECT saldo_posterior FROM movimiento WHERE cuenta_id = ? ORDER BY fecha DESC, id DESC LIMIT 1",
+                BigDecimal.class, cuentaId)));
+        assertTrue(saldo.signum() >= 0);
+    }
+}
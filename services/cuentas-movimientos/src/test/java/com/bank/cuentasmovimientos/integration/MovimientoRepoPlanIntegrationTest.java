@@ -0,0 +1,113 @@
+package com.bank.cuentasmovimientos.integration;
+
+import com.bank.cuentasmovimientos.repository.MovimientoRepo;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bank.cuentasmovimientos.integration.MovimientoRepoPlanIntegrationTest$Sentencias")
+class MovimientoRepoPlanIntegrationTest extends PostgresContainerTest {
+
+    /** Guarda el SQL que Hibernate genera, para pedirle a Postgres el plan de la consulta real. */
+    public static class Sentencias implements StatementInspector {
+        static final Queue<String> CAPTURADAS = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            CAPTURADAS.add(sql);
+            return sql;
+        }
+    }
+
+    private static final int CLIENTES = 2_000;
+    private static final int CUENTAS_POR_CLIENTE = 2;
+    private static final int MOVIMIENTOS_POR_CUENTA = 250;
+    private static final LocalDate HOY = LocalDate.of(2025, 6, 30);
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MovimientoRepo movRepo;
+
+    private UUID clienteId;
+    private List<UUID> cuentas;
+
+    @BeforeEach
+    void seed() {
+        clienteId = jdbc.queryForObject("SELECT md5('cliente1')::uuid", UUID.class);
+        if (jdbc.queryForObject("SELECT count(*) FROM cuenta WHERE cliente_id = ?", Long.class, clienteId) == 0) {
+            jdbc.queryForObject("SELECT crear_particiones_movimiento(?, ?)", Integer.class, HOY.minusMonths(1), HOY);
+            jdbc.update("""
+                    INSERT INTO cuenta (id, numero, tipo, saldo_inicial, saldo, estado, cliente_id)
+                    SELECT gen_random_uuid(), 'N' || c || '-' || k, 'AHORROS', 0, 0, 'ACTIVA',
+                           md5('cliente' || c)::uuid
+                    FROM generate_series(1, ?) c, generate_series(1, ?) k
+                    """, CLIENTES, CUENTAS_POR_CLIENTE);
+            jdbc.update("""
+                    INSERT INTO movimiento (id, cuenta_id, fecha, tipo, valor, saldo_posterior, referencia, idempotency_key)
+                    SELECT gen_random_uuid(), c.id,
+                           timestamptz '2025-06-30 12:00:00+00' - (n || ' hours')::interval,
+                           CASE WHEN n % 3 = 0 THEN 'DEBITO' ELSE 'CREDITO' END, 10, 10 * n, 'seed',
+                           c.id || '-' || n
+                    FROM cuenta c, generate_series(1, ?) n
+                    WHERE c.numero LIKE 'N%'
+                    """, MOVIMIENTOS_POR_CUENTA);
+            jdbc.execute("ANALYZE cuenta");
+            jdbc.execute("ANALYZE movimiento");
+        }
+        cuentas = jdbc.queryForList("SELECT id FROM cuenta WHERE cliente_id = ?", UUID.class, clienteId);
+    }
+
+    @Test
+    @DisplayName("La consulta por cliente y fechas usa idx_mov_cuenta_fecha solo en la partición del rango")
+    void consulta_por_fechas_usa_indice() {
+        Sentencias.CAPTURADAS.clear();
+        movRepo.findByClienteAndFechas(clienteId, HOY.minusDays(3), HOY);
+        String sql = Sentencias.CAPTURADAS.stream()
+                .filter(s -> s.toLowerCase().contains("from movimiento"))
+                .reduce((primera, segunda) -> segunda)
+                .orElseThrow();
+
+        // Mismos valores que el repositorio: las cuentas del cliente y el rango semiabierto por día.
+        List<Object> parametros = new ArrayList<>(cuentas);
+        long marcadores = sql.chars().filter(c -> c == '?').count();
+        while (parametros.size() < marcadores - 2) parametros.add(cuentas.get(cuentas.size() - 1));
+        parametros.add(HOY.minusDays(3).atStartOfDay().atOffset(ZoneOffset.UTC));
+        parametros.add(HOY.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+        String plan = String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class, parametros.toArray()));
+
+        assertTrue(plan.contains("movimiento_2025_06_cuenta_id_fecha_idx"), plan);
+        assertFalse(plan.contains("movimiento_2025_05"), plan);
+        assertFalse(plan.contains("Seq Scan on movimiento"), plan);
+    }
+
+    @Test
+    @DisplayName("Los límites opcionales filtran con rangos semiabiertos por día")
+    void limites_opcionales() {
+        int total = CUENTAS_POR_CLIENTE * MOVIMIENTOS_POR_CUENTA;
+        assertEquals(total, movRepo.findByClienteAndFechas(clienteId, null, null).size());
+
+        // 12:00 de HOY menos n horas: HOY contiene n = 1..12, el día anterior n = 13..36.
+        assertEquals(CUENTAS_POR_CLIENTE * 12, movRepo.findByClienteAndFechas(clienteId, HOY, HOY).size());
+        assertEquals(CUENTAS_POR_CLIENTE * 36, movRepo.findByClienteAndFechas(clienteId, HOY.minusDays(1), null).size());
+        assertEquals(total - CUENTAS_POR_CLIENTE * 12,
+                movRepo.findByClienteAndFechas(clienteId, null, HOY.minusDays(1)).size());
+        assertTrue(movRepo.findByClienteAndFechas(UUID.randomUUID(), null, null).isEmpty());
+    }
+}
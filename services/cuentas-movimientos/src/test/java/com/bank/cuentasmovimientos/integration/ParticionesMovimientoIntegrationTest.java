@@ -0,0 +1,91 @@
+package com.bank.cuentasmovimientos.integration;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.service.ArchivoMovimientos;
+import com.bank.cuentasmovimientos.service.MovimientoService;
+import com.bank.cuentasmovimientos.service.ParticionesMovimiento;
+import com.bank.cuentasmovimientos.service.ReporteMovimientosService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "movimientos.particiones.archivo.directorio=target/archivo-particiones-it")
+class ParticionesMovimientoIntegrationTest extends PostgresContainerTest {
+
+    private static final YearMonth MES = YearMonth.of(2019, 3);
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ParticionesMovimiento particiones;
+
+    @Autowired
+    private ArchivoMovimientos archivo;
+
+    @Autowired
+    private MovimientoService service;
+
+    @Autowired
+    private ReporteMovimientosService reportes;
+
+    @Test
+    @DisplayName("Los meses viejos se archivan y el estado de cuenta los sigue incluyendo")
+    void archiva_y_consulta_meses_viejos() {
+        assertEquals("p", jdbc.queryForObject("SELECT relkind::text FROM pg_class WHERE relname = 'movimiento'", String.class));
+        assertTrue(particiones.crear(YearMonth.now(ZoneOffset.UTC).plusMonths(6)) >= 0);
+        assertNotNull(jdbc.queryForObject("SELECT to_regclass(?)::text", String.class,
+                "movimiento_" + YearMonth.now(ZoneOffset.UTC).plusMonths(6).toString().replace('-', '_')));
+
+        var clienteId = UUID.randomUUID();
+        var cuentaId = UUID.randomUUID();
+        jdbc.update("INSERT INTO cuenta (id, numero, tipo, saldo_inicial, saldo, estado, cliente_id) "
+                + "VALUES (?, ?, 'AHORROS', 0, 30, 'ACTIVA', ?)", cuentaId, "PA-" + cuentaId, clienteId);
+        jdbc.queryForObject("SELECT crear_particiones_movimiento(?, ?)", Integer.class, MES.atDay(1), MES.atEndOfMonth());
+        insertar(cuentaId, MES.atDay(3), "CREDITO", "50.00", "50.00", "pa-1-" + cuentaId);
+        insertar(cuentaId, MES.atDay(20), "DEBITO", "20.00", "30.00", "pa-2-" + cuentaId);
+
+        assertEquals(List.of(MES), particiones.archivar(MES.plusMonths(1)).stream().filter(MES::equals).toList());
+        assertNull(jdbc.queryForObject("SELECT to_regclass(?)::text", String.class, "movimiento_2019_03"));
+        assertTrue(archivo.meses(null, null).contains(MES));
+
+        var reporte = reportes.obtenerEstadoCuenta(clienteId, MES.atDay(1), MES.atEndOfMonth().plusMonths(1));
+        assertEquals(1, reporte.getCuentas().size());
+        assertEquals(2, reporte.getCuentas().get(0).getMovimientos().size());
+        assertEquals(0, BigDecimal.ZERO.compareTo(reporte.getSaldoTotalInicial()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(reporte.getSaldoTotalFinal()));
+
+        // La clave de un movimiento archivado sigue reservada.
+        jdbc.queryForObject("SELECT crear_particiones_movimiento(?, ?)", Integer.class, MES.atDay(1), MES.atEndOfMonth());
+        assertThrows(DuplicateKeyException.class,
+                () -> insertar(cuentaId, MES.atDay(5), "CREDITO", "1.00", "1.00", "pa-1-" + cuentaId));
+
+        // Y su reintento por el servicio repite la respuesta leída del archivo sin mover el saldo.
+        var reintento = service.aplicar(new MovimientoRequest(cuentaId, TipoMovimiento.CREDITO, new BigDecimal("50.00"),
+                "pa", "pa-1-" + cuentaId));
+        assertEquals(0, new BigDecimal("50.00").compareTo(reintento.saldoPosterior()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(
+                jdbc.queryForObject("SELECT saldo FROM cuenta WHERE id = ?", BigDecimal.class, cuentaId)));
+    }
+
+    private void insertar(UUID cuentaId, LocalDate dia, String tipo, String valor, String saldo, String clave) {
+        jdbc.update("INSERT INTO movimiento (id, cuenta_id, fecha, tipo, valor, saldo_posterior, referencia, idempotency_key) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, 'pa', ?)",
+                UUID.randomUUID(), cuentaId, OffsetDateTime.of(dia.atTime(12, 0), ZoneOffset.UTC), tipo,
+                new BigDecimal(valor), new BigDecimal(saldo), clave);
+    }
+}
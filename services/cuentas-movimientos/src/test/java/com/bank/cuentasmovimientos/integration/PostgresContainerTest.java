@@ -0,0 +1,24 @@
+package com.bank.cuentasmovimientos.integration;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Contenedor postgres:16 compartido por todas las pruebas que lo extienden; se inicia una sola
+ * vez para que el contexto de Spring cacheado siga apuntando a la misma base.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+abstract class PostgresContainerTest {
+
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        POSTGRES.start();
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+}
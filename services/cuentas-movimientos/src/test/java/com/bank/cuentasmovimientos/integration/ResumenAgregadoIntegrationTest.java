@@ -0,0 +1,86 @@
+package com.bank.cuentasmovimientos.integration;
+
+import com.bank.cuentasmovimientos.domain.Movimiento;
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.ReporteResumenDTO;
+import com.bank.cuentasmovimientos.repository.MovimientoRepo;
+import com.bank.cuentasmovimientos.service.ReporteMovimientosService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class ResumenAgregadoIntegrationTest extends PostgresContainerTest {
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MovimientoRepo movRepo;
+
+    @Autowired
+    private ReporteMovimientosService service;
+
+    @Test
+    @DisplayName("El resumen agregado en base de datos coincide con el cálculo en memoria")
+    void resumen_agregado_coincide_con_calculo_en_memoria() {
+        var random = new Random(42);
+        var tipos = TipoMovimiento.values();
+        var clienteId = UUID.randomUUID();
+        jdbc.queryForObject("SELECT crear_particiones_movimiento(?, ?)", Integer.class, BASE, BASE.plusDays(90));
+
+        for (int c = 0; c < 4; c++) {
+            UUID cuentaId = UUID.randomUUID();
+            jdbc.update("INSERT INTO cuenta (id, numero, tipo, saldo_inicial, saldo, estado, cliente_id) "
+                    + "VALUES (?, ?, 'AHORROS', 0, 0, 'ACTIVA', ?)", cuentaId, "R-" + cuentaId, clienteId);
+            for (int i = 0; i < 500; i++) {
+                OffsetDateTime fecha = BASE.atStartOfDay().atOffset(ZoneOffset.UTC)
+                        .plusSeconds(random.nextInt(90 * 24 * 3600)).plusNanos(random.nextInt(1_000_000) * 1000L);
+                jdbc.update("INSERT INTO movimiento (id, cuenta_id, fecha, tipo, valor, saldo_posterior, referencia, idempotency_key) "
+                                + "VALUES (?, ?, ?, ?, ?, ?, 'rnd', ?)",
+                        UUID.randomUUID(), cuentaId, fecha, tipos[random.nextInt(tipos.length)].name(),
+                        BigDecimal.valueOf(1 + random.nextInt(100_000), 2),
+                        BigDecimal.valueOf(random.nextInt(10_000_000), 2), UUID.randomUUID().toString());
+            }
+        }
+
+        for (int n = 0; n < 20; n++) {
+            LocalDate inicio = random.nextInt(4) == 0 ? null : BASE.plusDays(random.nextInt(80));
+            LocalDate fin = random.nextInt(4) == 0 ? null : BASE.plusDays(10 + random.nextInt(80));
+            ReporteResumenDTO esperado = resumenEnMemoria(clienteId, movRepo.findByClienteAndFechas(clienteId, inicio, fin));
+            ReporteResumenDTO actual = service.obtenerResumen(clienteId, inicio, fin);
+
+            assertEquals(0, esperado.getTotalCreditos().compareTo(actual.getTotalCreditos()), inicio + ".." + fin);
+            assertEquals(0, esperado.getTotalDebitos().compareTo(actual.getTotalDebitos()), inicio + ".." + fin);
+            assertEquals(0, esperado.getSaldoFinal().compareTo(actual.getSaldoFinal()), inicio + ".." + fin);
+        }
+    }
+
+    /** Implementación anterior de obtenerResumen, sobre movimientos en orden de fecha descendente. */
+    private static ReporteResumenDTO resumenEnMemoria(UUID clienteId, List<Movimiento> movimientos) {
+        BigDecimal totalCreditos = movimientos.stream()
+                .filter(m -> m.getTipo() == TipoMovimiento.CREDITO)
+                .map(Movimiento::getValor)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalDebitos = movimientos.stream()
+                .filter(m -> m.getTipo() == TipoMovimiento.DEBITO)
+                .map(Movimiento::getValor)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal saldoFinal = movimientos.isEmpty() ? BigDecimal.ZERO : movimientos.get(0).getSaldoPosterior();
+        return new ReporteResumenDTO(clienteId.toString(), totalCreditos, totalDebitos, saldoFinal);
+    }
+}
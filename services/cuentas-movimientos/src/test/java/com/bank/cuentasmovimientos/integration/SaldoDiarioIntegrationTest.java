@@ -0,0 +1,81 @@
+package com.bank.cuentasmovimientos.integration;
+
+import com.bank.cuentasmovimientos.domain.TipoMovimiento;
+import com.bank.cuentasmovimientos.dto.MovimientoRequest;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import com.bank.cuentasmovimientos.service.MovimientoLoteService;
+import com.bank.cuentasmovimientos.service.MovimientoService;
+import com.bank.cuentasmovimientos.service.ReporteMovimientosService;
+import com.bank.cuentasmovimientos.service.SaldoDiarioService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SaldoDiarioIntegrationTest extends PostgresContainerTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MovimientoService service;
+
+    @Autowired
+    private ReporteMovimientosService reportes;
+
+    @Autowired
+    private MovimientoLoteService loteService;
+
+    @Autowired
+    private SaldoDiarioService saldosDiarios;
+
+    @Test
+    @DisplayName("Las fotos diarias se mantienen al registrar movimientos y se pueden reconstruir")
+    void fotos_diarias_coinciden_con_el_libro() {
+        var random = new Random(7);
+        var clienteId = UUID.randomUUID();
+        var cuentaId = UUID.randomUUID();
+        jdbc.update("INSERT INTO cuenta (id, numero, tipo, saldo_inicial, saldo, estado, cliente_id) "
+                + "VALUES (?, ?, 'AHORROS', 100, 100, 'ACTIVA', ?)", cuentaId, "SD-" + cuentaId, clienteId);
+
+        for (int i = 0; i < 200; i++) {
+            var tipo = random.nextBoolean() ? TipoMovimiento.CREDITO : TipoMovimiento.DEBITO;
+            try {
+                service.aplicar(new MovimientoRequest(cuentaId, tipo, BigDecimal.valueOf(1 + random.nextInt(5000), 2),
+                        "sd", "sd-" + cuentaId + "-" + i));
+            } catch (SaldoNoDisponibleException ignored) {
+            }
+        }
+        List<MovimientoRequest> lote = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lote.add(new MovimientoRequest(cuentaId, i % 3 == 0 ? TipoMovimiento.DEBITO : TipoMovimiento.CREDITO,
+                    BigDecimal.valueOf(1 + random.nextInt(5000), 2), "sd-lote", "sd-lote-" + cuentaId + "-" + i));
+        }
+        loteService.aplicar(lote);
+
+        assertTrue(saldosDiarios.verificar(cuentaId).isEmpty());
+
+        var hoy = LocalDate.now();
+        var reporte = reportes.obtenerEstadoCuenta(clienteId, hoy.minusDays(1), hoy.plusDays(1), false);
+        var saldo = jdbc.queryForObject("SELECT saldo FROM cuenta WHERE id = ?", BigDecimal.class, cuentaId);
+        assertEquals(0, new BigDecimal("100").compareTo(reporte.getSaldoTotalInicial()));
+        assertEquals(0, saldo.compareTo(reporte.getSaldoTotalFinal()));
+
+        jdbc.update("UPDATE saldo_diario SET total_creditos = total_creditos + 1 WHERE cuenta_id = ?", cuentaId);
+        assertFalse(saldosDiarios.verificar(cuentaId).isEmpty());
+
+        saldosDiarios.reconstruir(cuentaId);
+        assertTrue(saldosDiarios.verificar(cuentaId).isEmpty());
+    }
+}
@@ -0,0 +1,111 @@
+package com.bank.cuentasmovimientos.integration;
+
+import com.bank.cuentasmovimientos.dto.TransferenciaRequest;
+import com.bank.cuentasmovimientos.handler.SaldoNoDisponibleException;
+import com.bank.cuentasmovimientos.service.MotorMovimientos;
+import com.bank.cuentasmovimientos.service.TransferenciaService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class TransferenciaIntegrationTest extends PostgresContainerTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MotorMovimientos motor;
+
+    @Autowired
+    private TransferenciaService service;
+
+    @Test
+    @DisplayName("A→B y B→A concurrentes sin los locks del nodo no generan deadlocks en la base")
+    void transferencias_cruzadas_sin_deadlock() throws Exception {
+        var a = cuenta("100.00");
+        var b = cuenta("100.00");
+
+        int hilos = 32;
+        int porHilo = 50;
+        var inicio = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(hilos);
+        List<Future<Integer>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            int hilo = h;
+            tareas.add(pool.submit(() -> {
+                inicio.await();
+                int aplicadas = 0;
+                for (int i = 0; i < porHilo; i++) {
+                    var req = hilo % 2 == 0
+                            ? new TransferenciaRequest(a, b, BigDecimal.ONE, "cruce", "tr-" + a + "-" + hilo + "-" + i)
+                            : new TransferenciaRequest(b, a, BigDecimal.ONE, "cruce", "tr-" + a + "-" + hilo + "-" + i);
+                    try {
+                        transactionTemplate.execute(s -> motor.transferir(req));
+                        aplicadas++;
+                    } catch (SaldoNoDisponibleException ignored) {
+                    }
+                }
+                return aplicadas;
+            }));
+        }
+        inicio.countDown();
+        int aplicadas = 0;
+        for (Future<Integer> t : tareas) {
+            aplicadas += t.get(120, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(0, new BigDecimal("200.00").compareTo(saldo(a).add(saldo(b))));
+        assertEquals(aplicadas * 2, jdbc.queryForObject(
+                "SELECT count(*) FROM movimiento WHERE cuenta_id IN (?, ?) AND transferencia_id IS NOT NULL",
+                Integer.class, a, b));
+    }
+
+    @Test
+    @DisplayName("Una transferencia se registra una sola vez y el reintento devuelve los mismos movimientos")
+    void transferencia_idempotente() {
+        var a = cuenta("50.00");
+        var b = cuenta("0.00");
+        var req = new TransferenciaRequest(a, b, new BigDecimal("20.00"), "pago", "tr-idem-" + a);
+
+        var primera = service.transferir(req);
+        var repetida = service.transferir(req);
+
+        assertEquals(primera.transferenciaId(), repetida.transferenciaId());
+        assertEquals(primera.debito().movimientoId(), repetida.debito().movimientoId());
+        assertEquals(primera.credito().movimientoId(), repetida.credito().movimientoId());
+        assertEquals(0, new BigDecimal("30.00").compareTo(saldo(a)));
+        assertEquals(0, new BigDecimal("20.00").compareTo(saldo(b)));
+
+        assertThrows(SaldoNoDisponibleException.class, () -> service.transferir(
+                new TransferenciaRequest(a, b, new BigDecimal("31.00"), "pago", "tr-sin-saldo-" + a)));
+        assertEquals(0, new BigDecimal("20.00").compareTo(saldo(b)));
+    }
+
+    private UUID cuenta(String saldo) {
+        var id = UUID.randomUUID();
+        jdbc.update("INSERT INTO cuenta (id, numero, tipo, saldo_inicial, saldo, estado, cliente_id) "
+                + "VALUES (?, ?, 'AHORROS', ?, ?, 'ACTIVA', ?)", id, "TR-" + id, new BigDecimal(saldo), new BigDecimal(saldo),
+                UUID.randomUUID());
+        return id;
+    }
+
+    private BigDecimal saldo(UUID cuentaId) {
+        return jdbc.queryForObject("SELECT saldo FROM cuenta WHERE id = ?", BigDecimal.class, cuentaId);
+    }
+}
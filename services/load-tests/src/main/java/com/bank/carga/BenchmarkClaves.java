@@ -0,0 +1,145 @@
+package com.bank.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Inserta {@code claves.filas} filas con la forma de movimiento en dos tablas idénticas, una con
+ * clave UUID v4 y otra con v7, sobre postgres:16 en Testcontainers. Mide filas/s por tramo (para
+ * ver cómo se degrada al crecer la tabla), WAL generado, tamaño y densidad de hojas del índice de
+ * la clave primaria, y lecturas de bloques del índice fuera de shared_buffers.
+ *
+ * <pre>mvn -q compile exec:java -Dexec.mainClass=com.bank.carga.BenchmarkClaves -Dclaves.filas=10000000</pre>
+ */
+public final class BenchmarkClaves {
+
+    private static final String CREAR = """
+            CREATE TABLE %s (
+              id UUID PRIMARY KEY,
+              cuenta_id UUID NOT NULL,
+              fecha TIMESTAMP WITH TIME ZONE NOT NULL,
+              valor NUMERIC(18, 2) NOT NULL
+            )
+            """;
+    private static final String INSERTAR = "INSERT INTO %s (id, cuenta_id, fecha, valor) VALUES (?, ?, ?, ?)";
+
+    public static void main(String[] args) throws Exception {
+        long filas = Long.parseLong(System.getProperty("claves.filas", "10000000"));
+        int batch = Integer.parseInt(System.getProperty("claves.batch", "1000"));
+        long tramo = Long.parseLong(System.getProperty("claves.tramo", String.valueOf(Math.max(batch, filas / 10))));
+        String sharedBuffers = System.getProperty("claves.shared-buffers", "256MB");
+        Path salida = Path.of(System.getProperty("claves.salida", "target/claves"));
+
+        var mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode raiz = mapper.createObjectNode()
+                .put("filas", filas).put("batch", batch).put("sharedBuffers", sharedBuffers);
+
+        try (var postgres = new PostgreSQLContainer<>("postgres:16")
+                .withDatabaseName("claves")
+                .withUsername("bank")
+                .withPassword("bank")
+                .withCommand("postgres", "-c", "shared_buffers=" + sharedBuffers, "-c", "max_wal_size=8GB")) {
+            postgres.start();
+            String url = postgres.getJdbcUrl() + (postgres.getJdbcUrl().contains("?") ? "&" : "?") + "reWriteBatchedInserts=true";
+            try (var conexion = DriverManager.getConnection(url, "bank", "bank")) {
+                ejecutar(conexion, "CREATE EXTENSION IF NOT EXISTS pgstattuple");
+                raiz.set("v4", medir(conexion, mapper, "mov_v4", UUID::randomUUID, filas, batch, tramo));
+                raiz.set("v7", medir(conexion, mapper, "mov_v7", UuidV7::generar, filas, batch, tramo));
+            }
+        }
+
+        Files.createDirectories(salida);
+        mapper.writeValue(salida.resolve("claves.json").toFile(), raiz);
+        System.out.println("Resultados en " + salida.resolve("claves.json").toAbsolutePath());
+    }
+
+    private static ObjectNode medir(Connection conexion, ObjectMapper mapper, String tabla, Supplier<UUID> ids,
+                                    long filas, int batch, long tramo) throws SQLException {
+        ejecutar(conexion, CREAR.formatted(tabla));
+        ejecutar(conexion, "CHECKPOINT");
+        String walInicio = texto(conexion, "SELECT pg_current_wal_lsn()::text");
+
+        ObjectNode resultado = mapper.createObjectNode();
+        ArrayNode tramos = resultado.putArray("tramos");
+        UUID[] cuentas = new UUID[1000];
+        for (int i = 0; i < cuentas.length; i++) cuentas[i] = UUID.randomUUID();
+
+        conexion.setAutoCommit(false);
+        long inicio = System.nanoTime();
+        long inicioTramo = inicio;
+        long finTramoAnterior = 0;
+        try (var ps = conexion.prepareStatement(INSERTAR.formatted(tabla))) {
+            var random = ThreadLocalRandom.current();
+            for (long n = 1; n <= filas; n++) {
+                ps.setObject(1, ids.get());
+                ps.setObject(2, cuentas[random.nextInt(cuentas.length)]);
+                ps.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                ps.setBigDecimal(4, BigDecimal.valueOf(random.nextLong(1, 1_000_000), 2));
+                ps.addBatch();
+                if (n % batch == 0 || n == filas) {
+                    ps.executeBatch();
+                    conexion.commit();
+                }
+                if (n % tramo == 0 || n == filas) {
+                    long ahora = System.nanoTime();
+                    double porSegundo = (n - finTramoAnterior) / ((ahora - inicioTramo) / 1e9);
+                    tramos.addObject().put("hasta", n).put("filasPorSegundo", Math.round(porSegundo));
+                    System.out.printf("%s %,d filas: %,.0f filas/s%n", tabla, n, porSegundo);
+                    inicioTramo = ahora;
+                    finTramoAnterior = n;
+                }
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        conexion.setAutoCommit(true);
+
+        resultado.put("segundos", segundos);
+        resultado.put("filasPorSegundo", Math.round(filas / segundos));
+        resultado.put("walBytes", (long) numero(conexion, "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '" + walInicio + "'::pg_lsn)"));
+        resultado.put("tablaBytes", (long) numero(conexion, "SELECT pg_relation_size('" + tabla + "')"));
+        resultado.put("indiceBytes", (long) numero(conexion, "SELECT pg_relation_size('" + tabla + "_pkey')"));
+        resultado.put("densidadHojas", numero(conexion, "SELECT avg_leaf_density FROM pgstatindex('" + tabla + "_pkey')"));
+        resultado.put("fragmentacionHojas", numero(conexion, "SELECT leaf_fragmentation FROM pgstatindex('" + tabla + "_pkey')"));
+        resultado.put("bloquesIndiceLeidos", (long) numero(conexion,
+                "SELECT idx_blks_read FROM pg_statio_user_indexes WHERE indexrelname = '" + tabla + "_pkey'"));
+        resultado.put("bloquesIndiceEnCache", (long) numero(conexion,
+                "SELECT idx_blks_hit FROM pg_statio_user_indexes WHERE indexrelname = '" + tabla + "_pkey'"));
+        System.out.printf("%s: %.1f s, índice %,d bytes, densidad hojas %.1f%%, WAL %,d bytes%n", tabla, segundos,
+                resultado.get("indiceBytes").asLong(), resultado.get("densidadHojas").asDouble(), resultado.get("walBytes").asLong());
+        return resultado;
+    }
+
+    private static void ejecutar(Connection conexion, String sql) throws SQLException {
+        try (var sentencia = conexion.createStatement()) {
+            sentencia.execute(sql);
+        }
+    }
+
+    private static String texto(Connection conexion, String sql) throws SQLException {
+        try (var sentencia = conexion.createStatement(); var rs = sentencia.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static double numero(Connection conexion, String sql) throws SQLException {
+        try (var sentencia = conexion.createStatement(); var rs = sentencia.executeQuery(sql)) {
+            rs.next();
+            return rs.getDouble(1);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.bank.carga;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Parámetros de la prueba de carga, leídos de propiedades del sistema {@code carga.*}
+ * (por ejemplo {@code -Dcarga.concurrencia=128}).
+ */
+public record ConfiguracionCarga(
+        Duration duracion,
+        Duration calentamiento,
+        int concurrencia,
+        int tasa,
+        int clientes,
+        int cuentasPorCliente,
+        int cuentasCalientes,
+        double proporcionCaliente,
+        double proporcionReintentos,
+        int pesoMovimientos,
+        int pesoReportes,
+        int pesoClientes,
+        String personasUrl,
+        String cuentasUrl,
+        Path personasJar,
+        Path cuentasJar,
+        String jvmOpts,
+        int hikariMax,
+        boolean hilosVirtuales,
+        boolean ledger,
+        String motor,
+        boolean grupo,
+        String grupoVentana,
+        int grupoMax,
+        Path salida
+) {
+
+    public static ConfiguracionCarga desdePropiedades() {
+        return new ConfiguracionCarga(
+                Duration.parse(texto("duracion", "PT1M")),
+                Duration.parse(texto("calentamiento", "PT15S")),
+                entero("concurrencia", 32),
+                entero("tasa", 0),
+                entero("clientes", 50),
+                entero("cuentas-por-cliente", 2),
+                entero("cuentas-calientes", 4),
+                decimal("proporcion-caliente", 0.8),
+                decimal("proporcion-reintentos", 0.05),
+                entero("peso-movimientos", 70),
+                entero("peso-reportes", 20),
+                entero("peso-clientes", 10),
+                texto("personas-url", ""),
+                texto("cuentas-url", ""),
+                Path.of(texto("personas-jar", "../personas-clientes/target/personas-clientes-1.0.0.jar")),
+                Path.of(texto("cuentas-jar", "../cuentas-movimientos/target/cuentas-movimientos-1.0.0.jar")),
+                texto("jvm-opts", "-Xms512m -Xmx512m"),
+                entero("hikari-max", 0),
+                Boolean.parseBoolean(texto("hilos-virtuales", "false")),
+                Boolean.parseBoolean(texto("ledger", "false")),
+                texto("motor", ""),
+                Boolean.parseBoolean(texto("grupo", "false")),
+                texto("grupo-ventana", "2ms"),
+                entero("grupo-max", 64),
+                Path.of(texto("salida", "target/carga")));
+    }
+
+    /** Si se indican ambas URLs se usa un despliegue existente en lugar de levantar Postgres y los jars. */
+    public boolean serviciosExternos() {
+        return !personasUrl.isBlank() && !cuentasUrl.isBlank();
+    }
+
+    private static String texto(String clave, String porDefecto) {
+        return System.getProperty("carga." + clave, porDefecto);
+    }
+
+    private static int entero(String clave, int porDefecto) {
+        return Integer.parseInt(texto(clave, String.valueOf(porDefecto)));
+    }
+
+    private static double decimal(String clave, double porDefecto) {
+        return Double.parseDouble(texto(clave, String.valueOf(porDefecto)));
+    }
+}
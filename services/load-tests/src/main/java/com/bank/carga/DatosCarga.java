@@ -0,0 +1,64 @@
+package com.bank.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/** Clientes y cuentas creados por la API antes de medir; las primeras cuentas son las calientes. */
+record DatosCarga(List<UUID> clientes, List<UUID> cuentas, int cuentasCalientes) {
+
+    static DatosCarga sembrar(HttpClient http, ObjectMapper mapper, ConfiguracionCarga conf, String personasUrl,
+                              String cuentasUrl) throws IOException, InterruptedException {
+        String corrida = UUID.randomUUID().toString().substring(0, 8);
+        List<UUID> clientes = new ArrayList<>();
+        List<UUID> cuentas = new ArrayList<>();
+        for (int c = 0; c < conf.clientes(); c++) {
+            Map<String, Object> cliente = new LinkedHashMap<>();
+            cliente.put("nombre", "Carga " + c);
+            cliente.put("genero", "N");
+            cliente.put("edad", 30);
+            cliente.put("identificacion", corrida + "-" + c);
+            cliente.put("direccion", "N/A");
+            cliente.put("telefono", "000");
+            cliente.put("clientId", "carga-" + corrida + "-" + c);
+            cliente.put("password", "carga-" + c);
+            cliente.put("estado", "ACTIVO");
+            UUID clienteId = UUID.fromString(post(http, mapper, personasUrl + "/clientes", cliente).get("id").asText());
+            clientes.add(clienteId);
+
+            for (int n = 0; n < conf.cuentasPorCliente(); n++) {
+                Map<String, Object> cuenta = Map.of(
+                        "numero", corrida + "-" + c + "-" + n,
+                        "tipo", "AHORROS",
+                        "saldoInicial", 1_000_000,
+                        "clienteId", clienteId);
+                cuentas.add(UUID.fromString(post(http, mapper, cuentasUrl + "/cuentas", cuenta).get("id").asText()));
+            }
+        }
+        return new DatosCarga(clientes, cuentas, Math.min(conf.cuentasCalientes(), cuentas.size()));
+    }
+
+    private static JsonNode post(HttpClient http, ObjectMapper mapper, String url, Object cuerpo)
+            throws IOException, InterruptedException {
+        var respuesta = http.send(HttpRequest.newBuilder(URI.create(url))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(cuerpo)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("POST " + url + " devolvió " + respuesta.statusCode() + ": "
+                    + new String(respuesta.body()));
+        }
+        return mapper.readTree(respuesta.body());
+    }
+}
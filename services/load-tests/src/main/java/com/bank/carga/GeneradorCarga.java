@@ -0,0 +1,139 @@
+package com.bank.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hilos de carga en lazo cerrado, o a tasa fija si {@code carga.tasa > 0}. Con tasa fija la
+ * latencia se mide desde el instante en que la solicitud debía salir, para no ocultar la espera
+ * acumulada cuando el servicio se atrasa.
+ */
+final class GeneradorCarga {
+
+    private static final int RECIENTES_POR_HILO = 64;
+
+    private final ConfiguracionCarga conf;
+    private final HttpClient http;
+    private final DatosCarga datos;
+    private final String personasUrl;
+    private final String cuentasUrl;
+
+    GeneradorCarga(ConfiguracionCarga conf, HttpClient http, DatosCarga datos, String personasUrl, String cuentasUrl) {
+        this.conf = conf;
+        this.http = http;
+        this.datos = datos;
+        this.personasUrl = personasUrl;
+        this.cuentasUrl = cuentasUrl;
+    }
+
+    ResultadosCarga ejecutar(Duration duracion) throws Exception {
+        var resultados = new ResultadosCarga();
+        long fin = System.nanoTime() + duracion.toNanos();
+        ExecutorService hilos = Executors.newFixedThreadPool(conf.concurrencia());
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < conf.concurrencia(); i++) {
+                tareas.add(hilos.submit(() -> {
+                    trabajar(fin, resultados);
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        return resultados;
+    }
+
+    private void trabajar(long fin, ResultadosCarga resultados) throws InterruptedException {
+        var random = ThreadLocalRandom.current();
+        String[] recientes = new String[RECIENTES_POR_HILO];
+        int enviados = 0;
+        long intervalo = conf.tasa() > 0 ? 1_000_000_000L * conf.concurrencia() / conf.tasa() : 0;
+        long siguiente = System.nanoTime() + (intervalo > 0 ? random.nextLong(intervalo) : 0);
+
+        while (System.nanoTime() < fin) {
+            if (intervalo > 0) {
+                long espera = siguiente - System.nanoTime();
+                if (espera > 0) LockSupport.parkNanos(espera);
+            }
+            long inicio = intervalo > 0 ? siguiente : System.nanoTime();
+            siguiente += intervalo;
+
+            Operacion op = elegir(random);
+            HttpRequest solicitud;
+            if (op == Operacion.MOVIMIENTO && enviados > 0 && random.nextDouble() < conf.proporcionReintentos()) {
+                op = Operacion.REINTENTO_MOVIMIENTO;
+                solicitud = postMovimiento(recientes[random.nextInt(Math.min(enviados, RECIENTES_POR_HILO))]);
+            } else if (op == Operacion.MOVIMIENTO) {
+                String cuerpo = movimiento(random);
+                recientes[enviados++ % RECIENTES_POR_HILO] = cuerpo;
+                solicitud = postMovimiento(cuerpo);
+            } else {
+                solicitud = consulta(op, random);
+            }
+
+            int status;
+            try {
+                status = http.send(solicitud, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (java.io.IOException e) {
+                status = -1;
+            }
+            resultados.registrar(op, System.nanoTime() - inicio, status);
+        }
+    }
+
+    private Operacion elegir(ThreadLocalRandom random) {
+        int total = conf.pesoMovimientos() + conf.pesoReportes() + conf.pesoClientes();
+        int r = random.nextInt(total);
+        if (r < conf.pesoMovimientos()) return Operacion.MOVIMIENTO;
+        if (r < conf.pesoMovimientos() + conf.pesoReportes()) {
+            return random.nextBoolean() ? Operacion.REPORTE_RESUMEN : Operacion.REPORTE_DETALLE;
+        }
+        return Operacion.CLIENTE;
+    }
+
+    private String movimiento(ThreadLocalRandom random) {
+        List<UUID> cuentas = datos.cuentas();
+        boolean caliente = datos.cuentasCalientes() > 0 && random.nextDouble() < conf.proporcionCaliente();
+        UUID cuenta = caliente
+                ? cuentas.get(random.nextInt(datos.cuentasCalientes()))
+                : cuentas.get(datos.cuentasCalientes() + random.nextInt(cuentas.size() - datos.cuentasCalientes()));
+        String tipo = random.nextBoolean() ? "CREDITO" : "DEBITO";
+        return "{\"cuentaId\":\"" + cuenta + "\",\"tipo\":\"" + tipo + "\",\"valor\":" + (1 + random.nextInt(100))
+                + ",\"referencia\":\"carga\",\"idempotencyKey\":\"" + UUID.randomUUID() + "\"}";
+    }
+
+    private HttpRequest postMovimiento(String cuerpo) {
+        return HttpRequest.newBuilder(URI.create(cuentasUrl + "/movimientos"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+    }
+
+    private HttpRequest consulta(Operacion op, ThreadLocalRandom random) {
+        UUID cliente = datos.clientes().get(random.nextInt(datos.clientes().size()));
+        String url = switch (op) {
+            case REPORTE_RESUMEN, REPORTE_DETALLE -> cuentasUrl + "/reportes?clientId=" + cliente
+                    + "&fechaInicio=" + LocalDate.now().minusDays(1) + "&fechaFin=" + LocalDate.now()
+                    + "&modo=" + (op == Operacion.REPORTE_RESUMEN ? "resumen" : "detalle");
+            case CLIENTE -> personasUrl + "/clientes/" + cliente;
+            default -> throw new IllegalArgumentException(op.name());
+        };
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+}
@@ -0,0 +1,9 @@
+package com.bank.carga;
+
+enum Operacion {
+    MOVIMIENTO,
+    REINTENTO_MOVIMIENTO,
+    REPORTE_RESUMEN,
+    REPORTE_DETALLE,
+    CLIENTE
+}
@@ -0,0 +1,138 @@
+package com.bank.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.http.HttpClient;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Levanta postgres:16 con Testcontainers y los dos servicios desde sus jars, siembra clientes y
+ * cuentas, calienta y mide. Deja resultado.json y un .hgrm por operación en {@code carga.salida}.
+ */
+public final class PruebaCarga {
+
+    public static void main(String[] args) throws Exception {
+        var conf = ConfiguracionCarga.desdePropiedades();
+        var mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+        var http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(java.util.concurrent.Executors.newCachedThreadPool())
+                .build();
+
+        if (conf.serviciosExternos()) {
+            var datos = sembrar(conf, mapper, http, conf.personasUrl(), conf.cuentasUrl());
+            medir(conf, mapper, http, datos, conf.personasUrl(), conf.cuentasUrl(), null);
+            return;
+        }
+
+        try (var postgres = new PostgreSQLContainer<>("postgres:16")
+                .withDatabaseName("personasdb")
+                .withUsername("bank")
+                .withPassword("bank")
+                .withCommand("postgres", "-c", "max_connections=500")) {
+            postgres.start();
+            try (var conexion = DriverManager.getConnection(postgres.getJdbcUrl(), "bank", "bank");
+                 var sentencia = conexion.createStatement()) {
+                sentencia.execute("CREATE DATABASE cuentasdb");
+            }
+            String base = "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getMappedPort(5432) + "/";
+            LongSupplier commits = () -> commitsCuentas(postgres.getJdbcUrl());
+
+            try (var personas = ServicioLocal.iniciar("personas-clientes", conf.personasJar(),
+                    entorno(conf, base + "personasdb", Map.of()), conf.jvmOpts(), conf.salida())) {
+                personas.esperarListo(http, "/clientes", Duration.ofMinutes(2));
+                var entornoCuentas = entorno(conf, base + "cuentasdb?reWriteBatchedInserts=true",
+                        Map.of("CLIENTES_URL", personas.url()));
+                DatosCarga datos;
+                try (var cuentas = ServicioLocal.iniciar("cuentas-movimientos", conf.cuentasJar(),
+                        entornoCuentas, conf.jvmOpts(), conf.salida())) {
+                    cuentas.esperarListo(http, "/actuator/health", Duration.ofMinutes(2));
+                    datos = sembrar(conf, mapper, http, personas.url(), cuentas.url());
+                    if (!conf.ledger()) {
+                        medir(conf, mapper, http, datos, personas.url(), cuentas.url(), commits);
+                        return;
+                    }
+                }
+                // Las cuentas calientes se leen al arrancar, así que se reinicia con las ya sembradas.
+                entornoCuentas.put("LEDGER_CUENTAS_CALIENTES", datos.cuentas().subList(0, datos.cuentasCalientes())
+                        .stream().map(UUID::toString).collect(Collectors.joining(",")));
+                try (var cuentas = ServicioLocal.iniciar("cuentas-movimientos-ledger", conf.cuentasJar(),
+                        entornoCuentas, conf.jvmOpts(), conf.salida())) {
+                    cuentas.esperarListo(http, "/actuator/health", Duration.ofMinutes(2));
+                    medir(conf, mapper, http, datos, personas.url(), cuentas.url(), commits);
+                }
+            }
+        }
+    }
+
+    private static DatosCarga sembrar(ConfiguracionCarga conf, ObjectMapper mapper, HttpClient http,
+                                      String personasUrl, String cuentasUrl) throws Exception {
+        var datos = DatosCarga.sembrar(http, mapper, conf, personasUrl, cuentasUrl);
+        System.out.printf("Sembrados %d clientes y %d cuentas (%d calientes)%n",
+                datos.clientes().size(), datos.cuentas().size(), datos.cuentasCalientes());
+        return datos;
+    }
+
+    /** {@code commits} lee el contador de commits de cuentasdb; null si la base no es nuestra. */
+    private static void medir(ConfiguracionCarga conf, ObjectMapper mapper, HttpClient http, DatosCarga datos,
+                              String personasUrl, String cuentasUrl, LongSupplier commits) throws Exception {
+        var generador = new GeneradorCarga(conf, http, datos, personasUrl, cuentasUrl);
+        if (!conf.calentamiento().isZero()) {
+            System.out.println("Calentando " + conf.calentamiento());
+            generador.ejecutar(conf.calentamiento());
+        }
+        System.out.println("Midiendo " + conf.duracion() + " con " + conf.concurrencia() + " hilos"
+                + (conf.tasa() > 0 ? " a " + conf.tasa() + " req/s" : ""));
+        long commitsAntes = commits == null ? 0 : commits.getAsLong();
+        var resultados = generador.ejecutar(conf.duracion());
+        if (commits != null) resultados.commits(commits.getAsLong() - commitsAntes);
+
+        resultados.imprimir(System.out, conf.duracion());
+        resultados.guardar(mapper, conf, conf.duracion(), conf.salida());
+        System.out.println("Resultados en " + conf.salida().toAbsolutePath());
+    }
+
+    private static long commitsCuentas(String jdbcUrl) {
+        try (var conexion = DriverManager.getConnection(jdbcUrl, "bank", "bank");
+             var sentencia = conexion.createStatement();
+             var rs = sentencia.executeQuery("SELECT xact_commit FROM pg_stat_database WHERE datname = 'cuentasdb'")) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> entorno(ConfiguracionCarga conf, String dbUrl, Map<String, String> extra) {
+        Map<String, String> entorno = new HashMap<>(extra);
+        entorno.put("DB_URL", dbUrl);
+        entorno.put("DB_USER", "bank");
+        entorno.put("DB_PASS", "bank");
+        entorno.put("VIRTUAL_THREADS", String.valueOf(conf.hilosVirtuales()));
+        if (!conf.motor().isBlank()) {
+            entorno.put("MOVIMIENTOS_MOTOR", conf.motor());
+        }
+        if (conf.grupo()) {
+            entorno.put("MOVIMIENTOS_MOTOR", "sql");
+            entorno.put("MOVIMIENTOS_GRUPO", "true");
+            entorno.put("MOVIMIENTOS_GRUPO_VENTANA", conf.grupoVentana());
+            entorno.put("MOVIMIENTOS_GRUPO_MAX", String.valueOf(conf.grupoMax()));
+        }
+        if (conf.hikariMax() > 0) {
+            entorno.put("DB_POOL_SIZE", String.valueOf(conf.hikariMax()));
+        }
+        return entorno;
+    }
+}
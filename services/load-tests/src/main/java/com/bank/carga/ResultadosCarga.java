@@ -0,0 +1,103 @@
+package com.bank.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Latencias en microsegundos por operación, más conteo de rechazos (4xx) y errores (5xx o de red). */
+final class ResultadosCarga {
+
+    private static final long MAXIMO_US = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<Operacion, ConcurrentHistogram> latencias = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, LongAdder> rechazos = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, LongAdder> errores = new EnumMap<>(Operacion.class);
+    private long commits = -1;
+
+    ResultadosCarga() {
+        for (Operacion op : Operacion.values()) {
+            latencias.put(op, new ConcurrentHistogram(MAXIMO_US, 3));
+            rechazos.put(op, new LongAdder());
+            errores.put(op, new LongAdder());
+        }
+    }
+
+    void registrar(Operacion op, long latenciaNanos, int status) {
+        latencias.get(op).recordValue(Math.min(MAXIMO_US, TimeUnit.NANOSECONDS.toMicros(latenciaNanos)));
+        if (status >= 500 || status < 0) errores.get(op).increment();
+        else if (status >= 400) rechazos.get(op).increment();
+    }
+
+    /** Commits de cuentasdb durante la medición, según pg_stat_database. */
+    void commits(long commits) {
+        this.commits = commits;
+    }
+
+    void imprimir(PrintStream out, Duration duracion) {
+        out.printf("%-18s %10s %10s %9s %9s %9s %9s %9s %8s %8s%n",
+                "operacion", "solicitudes", "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms", "4xx", "err");
+        for (Operacion op : Operacion.values()) {
+            Histogram h = latencias.get(op);
+            if (h.getTotalCount() == 0) continue;
+            out.printf("%-18s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %8d %8d%n",
+                    op, h.getTotalCount(), h.getTotalCount() / segundos(duracion),
+                    ms(h, 50), ms(h, 90), ms(h, 99), ms(h, 99.9), h.getMaxValue() / 1000.0,
+                    rechazos.get(op).sum(), errores.get(op).sum());
+        }
+        if (commits >= 0) {
+            out.printf("commits cuentasdb: %d (%.1f/s)%n", commits, commits / segundos(duracion));
+        }
+    }
+
+    void guardar(ObjectMapper mapper, ConfiguracionCarga conf, Duration duracion, Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        ObjectNode raiz = mapper.createObjectNode();
+        raiz.set("configuracion", mapper.valueToTree(conf));
+        raiz.put("duracionSegundos", segundos(duracion));
+        ObjectNode operaciones = raiz.putObject("operaciones");
+        long total = 0;
+        for (Operacion op : Operacion.values()) {
+            Histogram h = latencias.get(op);
+            total += h.getTotalCount();
+            ObjectNode nodo = operaciones.putObject(op.name());
+            nodo.put("solicitudes", h.getTotalCount());
+            nodo.put("throughput", h.getTotalCount() / segundos(duracion));
+            nodo.put("p50Ms", ms(h, 50));
+            nodo.put("p90Ms", ms(h, 90));
+            nodo.put("p99Ms", ms(h, 99));
+            nodo.put("p999Ms", ms(h, 99.9));
+            nodo.put("maxMs", h.getMaxValue() / 1000.0);
+            nodo.put("rechazos", rechazos.get(op).sum());
+            nodo.put("errores", errores.get(op).sum());
+
+            try (var hgrm = new PrintStream(Files.newOutputStream(directorio.resolve(op.name().toLowerCase() + ".hgrm")))) {
+                h.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        raiz.put("throughputTotal", total / segundos(duracion));
+        if (commits >= 0) {
+            raiz.put("commits", commits);
+            raiz.put("commitsPorSegundo", commits / segundos(duracion));
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(directorio.resolve("resultado.json").toFile(), raiz);
+    }
+
+    private static double ms(Histogram h, double percentil) {
+        return h.getValueAtPercentile(percentil) / 1000.0;
+    }
+
+    private static double segundos(Duration duracion) {
+        return duracion.toMillis() / 1000.0;
+    }
+}
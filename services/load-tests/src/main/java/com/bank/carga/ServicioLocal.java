@@ -0,0 +1,86 @@
+package com.bank.carga;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/** Un servicio Spring Boot lanzado con {@code java -jar} en un puerto libre. */
+final class ServicioLocal implements AutoCloseable {
+
+    private final String nombre;
+    private final Process proceso;
+    private final String url;
+
+    private ServicioLocal(String nombre, Process proceso, String url) {
+        this.nombre = nombre;
+        this.proceso = proceso;
+        this.url = url;
+    }
+
+    static ServicioLocal iniciar(String nombre, Path jar, Map<String, String> entorno, String jvmOpts, Path salida)
+            throws IOException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("No existe " + jar.toAbsolutePath() + "; ejecutar mvn package en " + nombre);
+        }
+        int puerto = puertoLibre();
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmOpts.isBlank()) comando.addAll(Arrays.asList(jvmOpts.trim().split("\\s+")));
+        comando.add("-jar");
+        comando.add(jar.toAbsolutePath().toString());
+        comando.add("--server.port=" + puerto);
+
+        Files.createDirectories(salida);
+        var builder = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(salida.resolve(nombre + ".log").toFile());
+        builder.environment().putAll(entorno);
+        return new ServicioLocal(nombre, builder.start(), "http://localhost:" + puerto);
+    }
+
+    String url() {
+        return url;
+    }
+
+    void esperarListo(HttpClient http, String ruta, Duration limite) throws InterruptedException {
+        long fin = System.nanoTime() + limite.toNanos();
+        while (System.nanoTime() < fin) {
+            if (!proceso.isAlive()) {
+                throw new IllegalStateException(nombre + " terminó al arrancar, ver su .log");
+            }
+            try {
+                var respuesta = http.send(HttpRequest.newBuilder(URI.create(url + ruta)).GET().build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (respuesta.statusCode() < 500) return;
+            } catch (IOException e) {
+                // todavía no escucha
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(nombre + " no respondió en " + limite);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        proceso.destroy();
+        if (!proceso.waitFor(30, java.util.concurrent.TimeUnit.SECONDS)) {
+            proceso.destroyForcibly();
+        }
+    }
+
+    private static int puertoLibre() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.bank.carga;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUID versión 7 (RFC 9562): 48 bits de milisegundos Unix, 12 bits de secuencia dentro del
+ * milisegundo y 62 bits aleatorios. Los ids nuevos caen al final del índice de la clave primaria
+ * en lugar de repartirse por todo el árbol como los v4, y en este proceso son estrictamente
+ * crecientes. No son secretos: dejan ver la hora de creación.
+ *
+ * <p>Misma implementación que {@code domain.UuidV7} de los servicios, para que el benchmark de
+ * claves inserte los mismos valores que generan ellos.
+ */
+final class UuidV7 {
+
+    private static final int BITS_SECUENCIA = 12;
+    private static final long MASCARA_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+
+    /** Último valor entregado: milisegundo << 12 | secuencia. */
+    private static final AtomicLong ultimo = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    static UUID generar() {
+        long ahora = System.currentTimeMillis() << BITS_SECUENCIA;
+        // Si la secuencia se agota o el reloj retrocede, se toma prestado el milisegundo siguiente.
+        long valor = ultimo.updateAndGet(previo -> Math.max(ahora, previo + 1));
+        long milis = valor >>> BITS_SECUENCIA;
+        long secuencia = valor & MASCARA_SECUENCIA;
+
+        long alto = (milis << 16) | 0x7000L | secuencia;
+        long bajo = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(alto, bajo);
+    }
+}
@@ -0,0 +1,20 @@
+package com.bank.personasclientes.config;
+
+import com.bank.comun.web.LimiteConexionesFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/** {@link LimiteConexionesFilter} con todas las conexiones de Hikari: el servicio no tiene hilos propios que las usen. */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class LimiteConexiones extends LimiteConexionesFilter {
+
+    public LimiteConexiones(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int conexiones,
+                            @Value("${clientes.concurrencia.espera-conexion:5s}") Duration espera) {
+        super(conexiones, espera);
+    }
+}
@@ -1,21 +1,48 @@
 package com.bank.personasclientes.controller;
 
 import com.bank.personasclientes.dto.*;
+import com.bank.personasclientes.service.ClienteLoteService;
 import com.bank.personasclientes.service.ClienteService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
 @RestController @RequestMapping("/clientes")
 @AllArgsConstructor
 public class ClienteController {
+    private static final int TAMANO_PAGINA = 100;
+    private static final int MAX_TAMANO_PAGINA = 1000;
+    private static final String SIGUIENTE_CURSOR = "X-Siguiente-Cursor";
+    private static final String TEXT_CSV = "text/csv";
+    private static final ObjectReader LECTOR_CSV = new CsvMapper()
+            .readerFor(ClienteCreateRequest.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
     @Autowired
     ClienteService clienteService;
+    @Autowired
+    ClienteLoteService loteService;
+    @Autowired
+    ObjectMapper mapper;
 
     @PostMapping
     @Operation(summary = "Crear cliente", description = "Registra un nuevo cliente en el sistema")
@@ -23,10 +50,91 @@ public class ClienteController {
         return ResponseEntity.ok(clienteService.crear(request));
     }
 
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Alta masiva de clientes",
+            description = "Crea los clientes del lote y devuelve un resultado por cada elemento, en el mismo orden")
+    public ResponseEntity<List<ClienteLoteResultado>> crearLote(@RequestBody List<ClienteCreateRequest> clientes) {
+        return ResponseEntity.ok(loteService.crear(clientes));
+    }
+
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Alta masiva de clientes (NDJSON)", description = "Igual que el lote JSON, recibiendo un cliente por línea")
+    public ResponseEntity<List<ClienteLoteResultado>> crearLoteNdjson(InputStream body) throws IOException {
+        try (MappingIterator<ClienteCreateRequest> it = mapper.readerFor(ClienteCreateRequest.class).readValues(body)) {
+            return ResponseEntity.ok(loteService.crear(it.readAll()));
+        }
+    }
+
+    @PostMapping(path = "/batch", consumes = TEXT_CSV)
+    @Operation(summary = "Alta masiva de clientes (CSV)",
+            description = "Igual que el lote JSON; la primera fila nombra las columnas con los campos de ClienteCreateRequest")
+    public ResponseEntity<List<ClienteLoteResultado>> crearLoteCsv(InputStream body) throws IOException {
+        try (MappingIterator<ClienteCreateRequest> it = LECTOR_CSV.readValues(body)) {
+            return ResponseEntity.ok(loteService.crear(it.readAll()));
+        }
+    }
+
     @GetMapping
-    @Operation(summary = "Listar clientes", description = "Obtiene la lista completa de clientes")
-    public ResponseEntity<List<ClienteResponse>> listarClientes() {
-        return ResponseEntity.ok(clienteService.listar());
+    @Operation(summary = "Listar clientes", deprecated = true,
+            description = "Sin tamano ni cursor devuelve todos los clientes ordenados por id, leídos y escritos de a "
+                    + "una página. Con tamano o cursor devuelve una página y, si hay más, el cursor de la siguiente en "
+                    + "el encabezado " + SIGUIENTE_CURSOR + ". Reemplazado por /clientes/pagina.")
+    public ResponseEntity<List<ClienteResponse>> listarClientes(
+            @Parameter(description = "Cursor devuelto por la página anterior", required = false)
+            @RequestParam(required = false, name = "cursor") String cursor,
+            @Parameter(description = "Clientes por página; sin él (y sin cursor) se devuelve la lista completa", required = false)
+            @RequestParam(required = false, name = "tamano") Integer tamano,
+            HttpServletResponse response) throws IOException {
+
+        response.setHeader(HttpHeaders.LINK, "</clientes/pagina>; rel=\"successor-version\"");
+        if (tamano == null && cursor == null) {
+            escribirTodos(response);
+            return null;
+        }
+        int porPagina = tamano == null ? TAMANO_PAGINA : tamano;
+        validarTamano(porPagina);
+        var pagina = clienteService.listarPagina(null, null, cursor, porPagina);
+        var respuesta = ResponseEntity.ok();
+        if (pagina.siguiente() != null) respuesta.header(SIGUIENTE_CURSOR, pagina.siguiente());
+        return respuesta.body(pagina.items());
+    }
+
+    /** La lista completa de siempre, sin cargarla entera: cada página se escribe antes de leer la siguiente. */
+    private void escribirTodos(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator salida = mapper.getFactory().createGenerator(response.getOutputStream())) {
+            salida.writeStartArray();
+            String cursor = null;
+            do {
+                var pagina = clienteService.listarPagina(null, null, cursor, MAX_TAMANO_PAGINA);
+                for (var cliente : pagina.items()) salida.writeObject(cliente);
+                salida.flush();
+                cursor = pagina.siguiente();
+            } while (cursor != null);
+            salida.writeEndArray();
+        }
+    }
+
+    @GetMapping("/pagina")
+    @Operation(summary = "Listar clientes paginado",
+            description = "Devuelve una página ordenada por id y el cursor para pedir la siguiente. Filtra por estado y prefijo de identificación.")
+    public ResponseEntity<PaginaClientesResponse> listarClientesPagina(
+            @Parameter(description = "Estado exacto del cliente", required = false)
+            @RequestParam(required = false, name = "estado") String estado,
+            @Parameter(description = "Prefijo de la identificación", required = false)
+            @RequestParam(required = false, name = "identificacion") String identificacion,
+            @Parameter(description = "Cursor devuelto por la página anterior", required = false)
+            @RequestParam(required = false, name = "cursor") String cursor,
+            @RequestParam(defaultValue = "100", name = "tamano") int tamano) {
+
+        validarTamano(tamano);
+        return ResponseEntity.ok(clienteService.listarPagina(estado, identificacion, cursor, tamano));
+    }
+
+    private static void validarTamano(int tamano) {
+        if (tamano < 1 || tamano > MAX_TAMANO_PAGINA) {
+            throw new IllegalArgumentException("tamano debe estar entre 1 y " + MAX_TAMANO_PAGINA);
+        }
     }
 
     @GetMapping("/{id}")
@@ -35,6 +143,12 @@ public class ClienteController {
         return ResponseEntity.ok(clienteService.obtenerPorId(id));
     }
 
+    @GetMapping("/client-id/{clientId}")
+    @Operation(summary = "Consultar cliente por clientId", description = "Devuelve la información de un cliente por su usuario")
+    public ResponseEntity<ClienteResponse> obtenerPorClientId(@PathVariable String clientId) {
+        return ResponseEntity.ok(clienteService.obtenerPorClientId(clientId));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Actualizar cliente", description = "Modifica los datos de un cliente existente")
     public ResponseEntity<ClienteResponse> actualizarCliente(
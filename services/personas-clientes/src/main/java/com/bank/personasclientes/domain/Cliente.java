@@ -4,7 +4,8 @@ import lombok.*;
 import java.util.UUID;
 
 @Entity @Table(name="cliente",
-  uniqueConstraints=@UniqueConstraint(name="uk_cliente_clientid", columnNames="client_id"))
+  uniqueConstraints=@UniqueConstraint(name="uk_cliente_clientid", columnNames="client_id"),
+  indexes=@Index(name="idx_cliente_estado_id", columnList="estado, id"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Cliente {
   @Id private UUID id;
@@ -0,0 +1,9 @@
+package com.bank.personasclientes.dto;
+
+public record ClienteLoteResultado(
+        int indice, String clientId, String estado, String code, String message,
+        ClienteResponse cliente
+) {
+    public static final String CREADO = "CREADO";
+    public static final String RECHAZADO = "RECHAZADO";
+}
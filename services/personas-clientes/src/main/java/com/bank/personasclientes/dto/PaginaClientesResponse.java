@@ -0,0 +1,5 @@
+package com.bank.personasclientes.dto;
+
+import java.util.List;
+
+public record PaginaClientesResponse(List<ClienteResponse> items, String siguiente) {}
@@ -0,0 +1,16 @@
+package com.bank.personasclientes.handler;
+
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+    @ExceptionHandler(ColaSaturadaException.class)
+    public ResponseEntity<?> handleCola(ColaSaturadaException ex){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("timestamp", OffsetDateTime.now().toString(), "code", ex.getCode(), "message", ex.getMessage()));
+    }
+}
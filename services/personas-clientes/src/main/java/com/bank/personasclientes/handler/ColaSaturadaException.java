@@ -0,0 +1,14 @@
+package com.bank.personasclientes.handler;
+
+import lombok.Getter;
+
+/** Un pool acotado (por ejemplo el de BCrypt) no aceptó el trabajo; se responde 503 con {@code code}. */
+@Getter
+public class ColaSaturadaException extends RuntimeException {
+    private final String code;
+
+    public ColaSaturadaException(String code, String m){
+        super(m);
+        this.code = code;
+    }
+}
@@ -1,9 +1,19 @@
 package com.bank.personasclientes.repository;
 import com.bank.personasclientes.domain.Cliente;
+import com.bank.personasclientes.dto.ClienteResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface ClienteRepo extends JpaRepository<Cliente, UUID> {
+public interface ClienteRepo extends JpaRepository<Cliente, UUID>, ClienteRepoCustom {
     Optional<Cliente> findByClientId(String clientId);
-}
\ No newline at end of file
+
+    @Query(ClienteRepoCustomImpl.PROYECCION + " WHERE c.id = :id")
+    Optional<ClienteResponse> findResumenById(UUID id);
+
+    @Query(ClienteRepoCustomImpl.PROYECCION + " WHERE c.clientId = :clientId")
+    Optional<ClienteResponse> findResumenByClientId(String clientId);
+}
@@ -0,0 +1,15 @@
+package com.bank.personasclientes.repository;
+
+import com.bank.personasclientes.dto.ClienteResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ClienteRepoCustom {
+
+    /**
+     * Página de clientes con su persona en una sola consulta, ordenada por id y a partir del
+     * id indicado (exclusivo). Los filtros nulos no se aplican.
+     */
+    List<ClienteResponse> findPagina(String estado, String prefijoIdentificacion, UUID despuesDe, int limite);
+}
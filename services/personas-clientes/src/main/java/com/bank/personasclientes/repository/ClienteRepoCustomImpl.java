@@ -0,0 +1,43 @@
+package com.bank.personasclientes.repository;
+
+import com.bank.personasclientes.dto.ClienteResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Proyección directa a {@link ClienteResponse}: no se materializan entidades ni se carga la
+ * persona de cada cliente por separado.
+ */
+class ClienteRepoCustomImpl implements ClienteRepoCustom {
+
+    static final String PROYECCION = """
+            SELECT new com.bank.personasclientes.dto.ClienteResponse(
+                c.id, c.clientId, c.estado, p.nombre, p.identificacion, p.telefono)
+            FROM Cliente c JOIN c.persona p
+            """;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<ClienteResponse> findPagina(String estado, String prefijoIdentificacion, UUID despuesDe, int limite) {
+        var filtros = new StringBuilder(" WHERE 1 = 1");
+        if (estado != null) filtros.append(" AND c.estado = :estado");
+        // LIKE con prefijo fijo: lo resuelve idx_persona_ident_prefijo (varchar_pattern_ops).
+        if (prefijoIdentificacion != null) filtros.append(" AND p.identificacion LIKE :patron ESCAPE '\\'");
+        if (despuesDe != null) filtros.append(" AND c.id > :despuesDe");
+
+        var q = em.createQuery(PROYECCION + filtros + " ORDER BY c.id", ClienteResponse.class);
+        if (estado != null) q.setParameter("estado", estado);
+        if (prefijoIdentificacion != null) q.setParameter("patron", escaparLike(prefijoIdentificacion) + "%");
+        if (despuesDe != null) q.setParameter("despuesDe", despuesDe);
+        return q.setMaxResults(limite).getResultList();
+    }
+
+    private static String escaparLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,97 @@
+package com.bank.personasclientes.service;
+
+import com.bank.personasclientes.dto.ClienteResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Clientes por id, con índice secundario por clientId. Las escrituras invalidan después del
+ * commit; una lectura que empezó antes de una invalidación no deja su resultado en caché, así
+ * que un cliente eliminado no se vuelve a servir una vez confirmado el borrado.
+ */
+@Component
+public class ClienteCache implements MeterBinder {
+
+    private final Cache<UUID, ClienteResponse> porId;
+    private final Cache<String, UUID> porClientId;
+    private final AtomicLong invalidaciones = new AtomicLong();
+    @Getter
+    private final int precarga;
+
+    public ClienteCache(@Value("${clientes.cache.max-entradas:100000}") long maxEntradas,
+                        @Value("${clientes.cache.ttl:5m}") Duration ttl,
+                        @Value("${clientes.cache.precarga:0}") int precarga) {
+        this.porId = Caffeine.newBuilder().maximumSize(maxEntradas).expireAfterWrite(ttl).recordStats().build();
+        this.porClientId = Caffeine.newBuilder().maximumSize(maxEntradas).expireAfterWrite(ttl).recordStats().build();
+        this.precarga = precarga;
+    }
+
+    public Optional<ClienteResponse> obtener(UUID id, Supplier<Optional<ClienteResponse>> cargar) {
+        var cacheado = porId.getIfPresent(id);
+        if (cacheado != null) return Optional.of(cacheado);
+        long version = invalidaciones.get();
+        var cargado = cargar.get();
+        cargado.ifPresent(c -> guardar(c, version));
+        return cargado;
+    }
+
+    public Optional<ClienteResponse> obtenerPorClientId(String clientId, Supplier<Optional<ClienteResponse>> cargar) {
+        var id = porClientId.getIfPresent(clientId);
+        var cacheado = id == null ? null : porId.getIfPresent(id);
+        if (cacheado != null) return Optional.of(cacheado);
+        long version = invalidaciones.get();
+        var cargado = cargar.get();
+        cargado.ifPresent(c -> guardar(c, version));
+        return cargado;
+    }
+
+    /** Para la precarga; mismas reglas que una lectura que empieza ahora. */
+    public long version() {
+        return invalidaciones.get();
+    }
+
+    public void guardar(ClienteResponse cliente, long version) {
+        // compute bloquea la entrada: o se guarda antes de que invalidar la borre, o ve el contador ya avanzado.
+        porId.asMap().compute(cliente.id(), (k, actual) -> invalidaciones.get() == version ? cliente : actual);
+        porClientId.asMap().compute(cliente.clientId(), (k, actual) -> invalidaciones.get() == version ? cliente.id() : actual);
+    }
+
+    public void invalidarTrasCommit(UUID id, String clientId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidar(id, clientId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidar(id, clientId);
+            }
+        });
+    }
+
+    void invalidar(UUID id, String clientId) {
+        invalidaciones.incrementAndGet();
+        porId.asMap().remove(id);
+        porClientId.asMap().remove(clientId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, porId, "clientes");
+        CaffeineCacheMetrics.monitor(registry, porClientId, "clientes.client-id");
+    }
+}
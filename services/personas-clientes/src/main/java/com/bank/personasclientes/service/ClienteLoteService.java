@@ -0,0 +1,192 @@
+package com.bank.personasclientes.service;
+
+import com.bank.personasclientes.domain.UuidV7;
+import com.bank.personasclientes.dto.ClienteCreateRequest;
+import com.bank.personasclientes.dto.ClienteLoteResultado;
+import com.bank.personasclientes.dto.ClienteResponse;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Alta masiva de clientes: los duplicados se detectan con una consulta por tramo de claves, los
+ * hash se calculan en paralelo fuera de la transacción y persona/cliente se insertan con JDBC batch.
+ */
+@Service
+public class ClienteLoteService {
+
+    static final String INVALID_REQUEST = "INVALID_REQUEST";
+    static final String IDENTIFICACION_EXISTS = "IDENTIFICACION_EXISTS";
+    static final String CLIENT_ID_EXISTS = "CLIENT_ID_EXISTS";
+
+    private static final String INSERTAR_PERSONA = """
+            INSERT INTO persona (id, nombre, genero, edad, identificacion, direccion, telefono)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERTAR_CLIENTE = """
+            INSERT INTO cliente (id, client_id, password_hash, estado, persona_id)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+    private static final String IDENTIFICACIONES_EXISTENTES =
+            "SELECT identificacion FROM persona WHERE identificacion = ANY (?)";
+    private static final String CLIENT_IDS_EXISTENTES =
+            "SELECT client_id FROM cliente WHERE client_id = ANY (?)";
+    private static final int CONSULTA_CLAVES = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final PasswordHasher passwordHasher;
+    private final int maxItems;
+    private final int tamanoBatch;
+
+    public ClienteLoteService(JdbcTemplate jdbc, TransactionTemplate transactionTemplate, Validator validator,
+                              PasswordHasher passwordHasher,
+                              @Value("${clientes.lote.max-items:500000}") int maxItems,
+                              @Value("${clientes.lote.tamano-batch:500}") int tamanoBatch) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.passwordHasher = passwordHasher;
+        this.maxItems = maxItems;
+        this.tamanoBatch = tamanoBatch;
+    }
+
+    public List<ClienteLoteResultado> crear(List<ClienteCreateRequest> items) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + maxItems + " clientes");
+        }
+
+        ClienteLoteResultado[] resultados = new ClienteLoteResultado[items.size()];
+        Set<String> identificaciones = new HashSet<>();
+        Set<String> clientIds = new HashSet<>();
+        List<Integer> candidatos = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            var r = items.get(i);
+            if (r == null || !validator.validate(r).isEmpty()) {
+                resultados[i] = rechazado(i, r == null ? null : r.clientId(), INVALID_REQUEST, "Cliente inválido");
+            } else if (identificaciones.contains(r.identificacion())) {
+                resultados[i] = rechazado(i, r.clientId(), IDENTIFICACION_EXISTS, "Identificación repetida en el lote");
+            } else if (clientIds.contains(r.clientId())) {
+                resultados[i] = rechazado(i, r.clientId(), CLIENT_ID_EXISTS, "clientId repetido en el lote");
+            } else {
+                // Se reservan las dos claves solo si ambas están libres: un rechazado no bloquea a otro.
+                identificaciones.add(r.identificacion());
+                clientIds.add(r.clientId());
+                candidatos.add(i);
+            }
+        }
+
+        var identificacionesExistentes = existentes(IDENTIFICACIONES_EXISTENTES, identificaciones);
+        var clientIdsExistentes = existentes(CLIENT_IDS_EXISTENTES, clientIds);
+
+        for (int desde = 0; desde < candidatos.size(); desde += tamanoBatch) {
+            var tramo = candidatos.subList(desde, Math.min(desde + tamanoBatch, candidatos.size()));
+            var nuevos = descartarExistentes(tramo, items, identificacionesExistentes, clientIdsExistentes, resultados);
+            if (nuevos.isEmpty()) continue;
+
+            List<String> hashes = passwordHasher.hashTodos(nuevos.stream().map(i -> items.get(i).password()).toList());
+            try {
+                transactionTemplate.executeWithoutResult(s -> registrar(nuevos, hashes, items, resultados));
+            } catch (DuplicateKeyException e) {
+                // Otra petición registró alguna de las claves después de la consulta inicial.
+                identificacionesExistentes.addAll(existentes(IDENTIFICACIONES_EXISTENTES,
+                        nuevos.stream().map(i -> items.get(i).identificacion()).toList()));
+                clientIdsExistentes.addAll(existentes(CLIENT_IDS_EXISTENTES,
+                        nuevos.stream().map(i -> items.get(i).clientId()).toList()));
+                List<String> hashesRestantes = new ArrayList<>();
+                var restantes = new ArrayList<Integer>();
+                for (int k = 0; k < nuevos.size(); k++) {
+                    if (descartarExistentes(List.of(nuevos.get(k)), items, identificacionesExistentes,
+                            clientIdsExistentes, resultados).isEmpty()) continue;
+                    restantes.add(nuevos.get(k));
+                    hashesRestantes.add(hashes.get(k));
+                }
+                try {
+                    transactionTemplate.executeWithoutResult(s -> registrar(restantes, hashesRestantes, items, resultados));
+                } catch (DuplicateKeyException otra) {
+                    // Las claves siguen cambiando entre la consulta y el insert: se sigue fila por fila.
+                    registrarUnoAUno(restantes, hashesRestantes, items, resultados);
+                }
+            }
+        }
+        return Arrays.asList(resultados);
+    }
+
+    private List<Integer> descartarExistentes(List<Integer> indices, List<ClienteCreateRequest> items,
+                                              Set<String> identificacionesExistentes, Set<String> clientIdsExistentes,
+                                              ClienteLoteResultado[] resultados) {
+        List<Integer> nuevos = new ArrayList<>();
+        for (int i : indices) {
+            var r = items.get(i);
+            if (identificacionesExistentes.contains(r.identificacion())) {
+                resultados[i] = rechazado(i, r.clientId(), IDENTIFICACION_EXISTS, "Identificación ya existe");
+            } else if (clientIdsExistentes.contains(r.clientId())) {
+                resultados[i] = rechazado(i, r.clientId(), CLIENT_ID_EXISTS, "clientId ya existe");
+            } else {
+                nuevos.add(i);
+            }
+        }
+        return nuevos;
+    }
+
+    private void registrarUnoAUno(List<Integer> indices, List<String> hashes, List<ClienteCreateRequest> items,
+                                  ClienteLoteResultado[] resultados) {
+        for (int k = 0; k < indices.size(); k++) {
+            int i = indices.get(k);
+            var hash = hashes.get(k);
+            try {
+                transactionTemplate.executeWithoutResult(s -> registrar(List.of(i), List.of(hash), items, resultados));
+            } catch (DuplicateKeyException e) {
+                var r = items.get(i);
+                resultados[i] = existentes(IDENTIFICACIONES_EXISTENTES, List.of(r.identificacion())).isEmpty()
+                        ? rechazado(i, r.clientId(), CLIENT_ID_EXISTS, "clientId ya existe")
+                        : rechazado(i, r.clientId(), IDENTIFICACION_EXISTS, "Identificación ya existe");
+            }
+        }
+    }
+
+    private void registrar(List<Integer> indices, List<String> hashes, List<ClienteCreateRequest> items,
+                           ClienteLoteResultado[] resultados) {
+        if (indices.isEmpty()) return;
+        List<Object[]> personas = new ArrayList<>(indices.size());
+        List<Object[]> clientes = new ArrayList<>(indices.size());
+        List<ClienteLoteResultado> creados = new ArrayList<>(indices.size());
+        for (int k = 0; k < indices.size(); k++) {
+            int i = indices.get(k);
+            var r = items.get(i);
+            UUID personaId = UuidV7.generar();
+            UUID clienteId = UuidV7.generar();
+            personas.add(new Object[]{personaId, r.nombre(), r.genero(), r.edad(), r.identificacion(), r.direccion(), r.telefono()});
+            clientes.add(new Object[]{clienteId, r.clientId(), hashes.get(k), r.estado(), personaId});
+            creados.add(new ClienteLoteResultado(i, r.clientId(), ClienteLoteResultado.CREADO, null, null,
+                    new ClienteResponse(clienteId, r.clientId(), r.estado(), r.nombre(), r.identificacion(), r.telefono())));
+        }
+        jdbc.batchUpdate(INSERTAR_PERSONA, personas);
+        jdbc.batchUpdate(INSERTAR_CLIENTE, clientes);
+        // Solo se publican tras insertar; si el batch falla el reintento los vuelve a calcular.
+        creados.forEach(c -> resultados[c.indice()] = c);
+    }
+
+    private Set<String> existentes(String sql, Collection<String> claves) {
+        Set<String> existentes = new HashSet<>();
+        List<String> lista = new ArrayList<>(claves);
+        for (int desde = 0; desde < lista.size(); desde += CONSULTA_CLAVES) {
+            String[] tramo = lista.subList(desde, Math.min(desde + CONSULTA_CLAVES, lista.size())).toArray(String[]::new);
+            jdbc.query(sql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", tramo)),
+                    (RowCallbackHandler) rs -> existentes.add(rs.getString(1)));
+        }
+        return existentes;
+    }
+
+    private static ClienteLoteResultado rechazado(int indice, String clientId, String code, String message) {
+        return new ClienteLoteResultado(indice, clientId, ClienteLoteResultado.RECHAZADO, code, message, null);
+    }
+}
@@ -5,9 +5,11 @@ import com.bank.personasclientes.domain.*;
 import com.bank.personasclientes.repository.*;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.UUID;
@@ -19,9 +21,19 @@ public class ClienteService {
     private PersonaRepo personaRepo;
     @Autowired
     private ClienteRepo clienteRepo;
+    @Autowired
+    private PasswordHasher passwordHasher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ClienteCache cache;
 
-    @Transactional
     public ClienteResponse crear(ClienteCreateRequest r) {
+        String passwordHash = passwordHasher.hash(r.password());
+        return transactionTemplate.execute(s -> registrar(r, passwordHash));
+    }
+
+    private ClienteResponse registrar(ClienteCreateRequest r, String passwordHash) {
         personaRepo.findByIdentificacion(r.identificacion()).ifPresent(p -> {
             throw new IllegalArgumentException("Identificación ya existe");
         });
@@ -30,15 +42,15 @@ public class ClienteService {
         });
 
         var persona = Persona.builder()
-                .id(UUID.randomUUID()).nombre(r.nombre()).genero(r.genero())
+                .id(UuidV7.generar()).nombre(r.nombre()).genero(r.genero())
                 .edad(r.edad()).identificacion(r.identificacion())
                 .direccion(r.direccion()).telefono(r.telefono()).build();
         personaRepo.save(persona);
 
         var cliente = Cliente.builder()
-                .id(UUID.randomUUID())
+                .id(UuidV7.generar())
                 .clientId(r.clientId())
-                .passwordHash(BCrypt.hashpw(r.password(), BCrypt.gensalt()))
+                .passwordHash(passwordHash)
                 .estado(r.estado())
                 .persona(persona).build();
         clienteRepo.save(cliente);
@@ -48,29 +60,57 @@ public class ClienteService {
     }
 
     @Transactional(readOnly = true)
-    public List<ClienteResponse> listar() {
-        return clienteRepo.findAll().stream()
-                .map(c -> new ClienteResponse(
-                        c.getId(),
-                        c.getClientId(),
-                        c.getEstado(),
-                        c.getPersona().getNombre(),
-                        c.getPersona().getIdentificacion(),
-                        c.getPersona().getTelefono()))
-                .toList();
+    public PaginaClientesResponse listarPagina(String estado, String identificacion, String cursor, int tamano) {
+        UUID despuesDe = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                despuesDe = UUID.fromString(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+        var clientes = clienteRepo.findPagina(vacioANulo(estado), vacioANulo(identificacion), despuesDe, tamano + 1);
+
+        boolean hayMas = clientes.size() > tamano;
+        var pagina = hayMas ? clientes.subList(0, tamano) : clientes;
+        String siguiente = hayMas ? pagina.get(pagina.size() - 1).id().toString() : null;
+        return new PaginaClientesResponse(List.copyOf(pagina), siguiente);
+    }
+
+    private static String vacioANulo(String valor) {
+        return valor == null || valor.isBlank() ? null : valor;
     }
 
-    @Transactional(readOnly = true)
     public ClienteResponse obtenerPorId(UUID id) {
-        var cliente = clienteRepo.findById(id)
+        return cache.obtener(id, () -> clienteRepo.findResumenById(id))
                 .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado"));
-        var persona = cliente.getPersona();
-        return new ClienteResponse(cliente.getId(), cliente.getClientId(), cliente.getEstado(),
-                persona.getNombre(), persona.getIdentificacion(), persona.getTelefono());
     }
 
-    @Transactional
+    public ClienteResponse obtenerPorClientId(String clientId) {
+        return cache.obtenerPorClientId(clientId, () -> clienteRepo.findResumenByClientId(clientId))
+                .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargarCache() {
+        UUID despuesDe = null;
+        int cargados = 0;
+        while (cargados < cache.getPrecarga()) {
+            long version = cache.version();
+            var pagina = clienteRepo.findPagina(null, null, despuesDe, Math.min(1000, cache.getPrecarga() - cargados));
+            if (pagina.isEmpty()) break;
+            pagina.forEach(c -> cache.guardar(c, version));
+            cargados += pagina.size();
+            despuesDe = pagina.get(pagina.size() - 1).id();
+        }
+    }
+
     public ClienteResponse actualizar(UUID id, ClienteUpdateRequest r) {
+        String passwordHash = r.password() != null && !r.password().isBlank() ? passwordHasher.hash(r.password()) : null;
+        return transactionTemplate.execute(s -> modificar(id, r, passwordHash));
+    }
+
+    private ClienteResponse modificar(UUID id, ClienteUpdateRequest r, String passwordHash) {
         var cliente = clienteRepo.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado"));
         var persona = cliente.getPersona();
@@ -83,10 +123,11 @@ public class ClienteService {
         personaRepo.save(persona);
 
         cliente.setEstado(r.estado());
-        if (r.password() != null && !r.password().isBlank()) {
-            cliente.setPasswordHash(BCrypt.hashpw(r.password(), BCrypt.gensalt()));
+        if (passwordHash != null) {
+            cliente.setPasswordHash(passwordHash);
         }
         clienteRepo.save(cliente);
+        cache.invalidarTrasCommit(cliente.getId(), cliente.getClientId());
 
         return new ClienteResponse(cliente.getId(), cliente.getClientId(), cliente.getEstado(),
                 persona.getNombre(), persona.getIdentificacion(), persona.getTelefono());
@@ -100,5 +141,6 @@ public class ClienteService {
 
         clienteRepo.delete(cliente);
         personaRepo.delete(persona);
+        cache.invalidarTrasCommit(cliente.getId(), cliente.getClientId());
     }
 }
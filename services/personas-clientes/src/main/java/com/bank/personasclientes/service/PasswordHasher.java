@@ -0,0 +1,100 @@
+package com.bank.personasclientes.service;
+
+import com.bank.personasclientes.handler.ColaSaturadaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hash BCrypt en un pool acotado a los núcleos, para que el costo de CPU no corra dentro de
+ * una transacción ni compita sin límite con los hilos de las solicitudes. Con la cola llena
+ * responde 503 {@code PASSWORD_HASH_BUSY}.
+ */
+@Component
+public class PasswordHasher {
+
+    static final String PASSWORD_HASH_BUSY = "PASSWORD_HASH_BUSY";
+
+    private final int costo;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final Timer tiempoHash;
+
+    public PasswordHasher(@Value("${clientes.password.costo:10}") int costo,
+                          @Value("${clientes.password.hilos:0}") int hilos,
+                          @Value("${clientes.password.cola:10000}") int cola,
+                          MeterRegistry registry) {
+        if (costo < 4 || costo > 31) {
+            throw new IllegalArgumentException("clientes.password.costo debe estar entre 4 y 31");
+        }
+        int tamano = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        var contador = new AtomicInteger();
+        this.costo = costo;
+        this.pool = new ThreadPoolExecutor(tamano, tamano, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(cola), r -> {
+            var t = new Thread(r, "password-hash-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor = ExecutorServiceMetrics.monitor(registry, pool, "password.hash");
+        this.tiempoHash = Timer.builder("clientes.password.hash")
+                .description("Tiempo de cálculo de BCrypt, sin la espera en cola")
+                .tag("costo", String.valueOf(costo))
+                .register(registry);
+    }
+
+    public String hash(String password) {
+        return esperar(ejecutar(password));
+    }
+
+    /**
+     * Envía todos los hash al pool y espera los resultados, en el mismo orden. Si la cola no los
+     * admite a todos, cancela los ya encolados y el lote completo responde 503.
+     */
+    public List<String> hashTodos(List<String> passwords) {
+        List<Future<String>> futuros = new ArrayList<>(passwords.size());
+        try {
+            for (String password : passwords) futuros.add(ejecutar(password));
+        } catch (ColaSaturadaException e) {
+            futuros.forEach(f -> f.cancel(false));
+            pool.purge();
+            throw e;
+        }
+        return futuros.stream().map(PasswordHasher::esperar).toList();
+    }
+
+    private Future<String> ejecutar(String password) {
+        Supplier<String> calcular = () -> BCrypt.hashpw(password, BCrypt.gensalt(costo));
+        try {
+            return executor.submit(() -> tiempoHash.record(calcular));
+        } catch (RejectedExecutionException e) {
+            throw new ColaSaturadaException(PASSWORD_HASH_BUSY, "Cola de hash de contraseñas llena; reintente más tarde");
+        }
+    }
+
+    private static <T> T esperar(Future<T> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futuro.cancel(true);
+            throw new IllegalStateException("Hash de contraseña interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error calculando el hash de contraseña", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void cerrar() {
+        executor.shutdown();
+    }
+}
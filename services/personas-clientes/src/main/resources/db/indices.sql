@@ -0,0 +1,3 @@
+-- Índices que Hibernate no sabe declarar; se aplican después de ddl-auto.
+-- Búsqueda por prefijo de identificación (LIKE 'abc%') independiente de la collation de la base.
+CREATE INDEX IF NOT EXISTS idx_persona_ident_prefijo ON persona (identificacion varchar_pattern_ops);
@@ -0,0 +1,53 @@
+package com.bank.personasclientes;
+
+import com.bank.personasclientes.dto.ClienteResponse;
+import com.bank.personasclientes.service.ClienteCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClienteCacheTest {
+
+    private final ClienteCache cache = new ClienteCache(100, Duration.ofMinutes(1), 0);
+    private final ClienteResponse cliente = new ClienteResponse(UUID.randomUUID(), "ana", "ACTIVE", "Ana", "CC-1", "300");
+
+    @Test
+    @DisplayName("Una lectura repetida, por id o por clientId, no vuelve a la base")
+    void lectura_repetida_sale_de_cache() {
+        var cargas = new AtomicInteger();
+        cache.obtener(cliente.id(), () -> { cargas.incrementAndGet(); return Optional.of(cliente); });
+
+        assertEquals(cliente, cache.obtener(cliente.id(), () -> fail("no debía cargar")).orElseThrow());
+        assertEquals(cliente, cache.obtenerPorClientId("ana", () -> fail("no debía cargar")).orElseThrow());
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    @DisplayName("Una lectura que empezó antes de una invalidación no deja el valor viejo en caché")
+    void lectura_concurrente_con_borrado_no_se_guarda() {
+        cache.obtener(cliente.id(), () -> {
+            // El borrado confirma mientras la lectura todavía tiene la fila vieja.
+            cache.invalidarTrasCommit(cliente.id(), cliente.clientId());
+            return Optional.of(cliente);
+        });
+
+        assertTrue(cache.obtener(cliente.id(), Optional::empty).isEmpty());
+        assertTrue(cache.obtenerPorClientId("ana", Optional::empty).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Invalidar fuera de transacción borra de inmediato ambas claves")
+    void invalidar_borra_ambas_claves() {
+        cache.obtener(cliente.id(), () -> Optional.of(cliente));
+        cache.invalidarTrasCommit(cliente.id(), cliente.clientId());
+
+        assertTrue(cache.obtener(cliente.id(), Optional::empty).isEmpty());
+        assertTrue(cache.obtenerPorClientId("ana", Optional::empty).isEmpty());
+    }
+}
@@ -73,7 +73,32 @@ class ClienteControllerIntegrationTest {
         mockMvc.perform(get("/clientes"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].clientId", is("juan.perez")));
+                .andExpect(jsonPath("$[0].clientId", is("juan.perez")))
+                .andExpect(header().doesNotExist("X-Siguiente-Cursor"));
+    }
+
+    @Test
+    @DisplayName("La lista de clientes se corta en el tamaño pedido y devuelve el cursor en un encabezado")
+    void testListarClientesAcotado() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            var r = new ClienteCreateRequest("Cliente " + i, "F", 40, "CC-8" + i, "Calle " + i, "300000000" + i,
+                    "acotado." + i, "123456", Status.ACTIVE.toString());
+            mockMvc.perform(post("/clientes")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(r)))
+                    .andExpect(status().isOk());
+        }
+
+        String cursor = mockMvc.perform(get("/clientes").param("tamano", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().exists("X-Siguiente-Cursor"))
+                .andReturn().getResponse().getHeader("X-Siguiente-Cursor");
+
+        mockMvc.perform(get("/clientes").param("tamano", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist("X-Siguiente-Cursor"));
     }
 
     @Test
@@ -151,4 +176,71 @@ class ClienteControllerIntegrationTest {
                         .content(mapper.writeValueAsString(createRequest)))
                 .andExpect(status().is4xxClientError());
     }
+
+    @Test
+    @DisplayName("Debe paginar clientes filtrando por estado y prefijo de identificación")
+    void testListarClientesPagina() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            var r = new ClienteCreateRequest("Cliente " + i, "F", 40, "CC-9" + i, "Calle " + i, "300000000" + i,
+                    "cliente." + i, "123456", Status.ACTIVE.toString());
+            mockMvc.perform(post("/clientes")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(r)))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/clientes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(createRequest)))
+                .andExpect(status().isOk());
+
+        String primera = mockMvc.perform(get("/clientes/pagina")
+                        .param("estado", Status.ACTIVE.toString())
+                        .param("identificacion", "CC-9")
+                        .param("tamano", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.siguiente", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/clientes/pagina")
+                        .param("estado", Status.ACTIVE.toString())
+                        .param("identificacion", "CC-9")
+                        .param("tamano", "2")
+                        .param("cursor", mapper.readTree(primera).get("siguiente").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].identificacion", startsWith("CC-9")))
+                .andExpect(jsonPath("$.siguiente", nullValue()));
+    }
+
+    @Test
+    @DisplayName("Debe crear clientes en lote CSV y reportar duplicados por fila")
+    void testCrearLoteCsv() throws Exception {
+        mockMvc.perform(post("/clientes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(createRequest)))
+                .andExpect(status().isOk());
+
+        String csv = """
+                clientId,nombre,identificacion,edad,password,estado
+                ana.gomez,Ana Gómez,CC-1,28,secreto,ACTIVE
+                otro.juan,Juan Otro,CC-12345,30,secreto,ACTIVE
+                ana.gomez,Ana Repetida,CC-2,28,secreto,ACTIVE
+                sin.nombre,,CC-3,28,secreto,ACTIVE
+                """;
+
+        mockMvc.perform(post("/clientes/batch")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].estado", is("CREADO")))
+                .andExpect(jsonPath("$[0].cliente.nombre", is("Ana Gómez")))
+                .andExpect(jsonPath("$[1].code", is("IDENTIFICACION_EXISTS")))
+                .andExpect(jsonPath("$[2].code", is("CLIENT_ID_EXISTS")))
+                .andExpect(jsonPath("$[3].code", is("INVALID_REQUEST")));
+
+        mockMvc.perform(get("/clientes"))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
 }
@@ -0,0 +1,72 @@
+package com.bank.personasclientes;
+
+import com.bank.personasclientes.controller.ClienteController;
+import com.bank.personasclientes.dto.ClienteResponse;
+import com.bank.personasclientes.dto.PaginaClientesResponse;
+import com.bank.personasclientes.handler.ApiExceptionHandler;
+import com.bank.personasclientes.handler.ColaSaturadaException;
+import com.bank.personasclientes.service.ClienteLoteService;
+import com.bank.personasclientes.service.ClienteService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ClienteControllerTest {
+
+    @Test
+    @DisplayName("GET /clientes sin tamano ni cursor recorre todas las páginas y devuelve la lista completa")
+    void lista_completa_recorre_todas_las_paginas() throws Exception {
+        var service = mock(ClienteService.class);
+        var a = cliente("a");
+        var b = cliente("b");
+        var c = cliente("c");
+        when(service.listarPagina(isNull(), isNull(), isNull(), anyInt()))
+                .thenReturn(new PaginaClientesResponse(List.of(a, b), b.id().toString()));
+        when(service.listarPagina(isNull(), isNull(), eq(b.id().toString()), anyInt()))
+                .thenReturn(new PaginaClientesResponse(List.of(c), null));
+        var mvc = MockMvcBuilders.standaloneSetup(
+                new ClienteController(service, mock(ClienteLoteService.class), new ObjectMapper())).build();
+
+        mvc.perform(get("/clientes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[*].clientId", contains("a", "b", "c")))
+                .andExpect(header().doesNotExist("X-Siguiente-Cursor"))
+                .andExpect(header().string("Link", containsString("/clientes/pagina")));
+
+        mvc.perform(get("/clientes").param("tamano", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string("X-Siguiente-Cursor", b.id().toString()));
+    }
+
+    @Test
+    @DisplayName("Con la cola de BCrypt llena el alta responde 503 con el código de la cola")
+    void cola_de_hash_llena_responde_503() throws Exception {
+        var service = mock(ClienteService.class);
+        when(service.crear(any())).thenThrow(new ColaSaturadaException("PASSWORD_HASH_BUSY", "Cola llena"));
+        var mvc = MockMvcBuilders.standaloneSetup(
+                        new ClienteController(service, mock(ClienteLoteService.class), new ObjectMapper()))
+                .setControllerAdvice(new ApiExceptionHandler()).build();
+
+        mvc.perform(post("/clientes").contentType(MediaType.APPLICATION_JSON).content("{\"clientId\":\"x\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.code", is("PASSWORD_HASH_BUSY")));
+    }
+
+    private static ClienteResponse cliente(String clientId) {
+        return new ClienteResponse(UUID.randomUUID(), clientId, "ACTIVE", "Nombre " + clientId, "CC-" + clientId, "300");
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.personasclientes;
+
+import com.bank.personasclientes.dto.ClienteCreateRequest;
+import com.bank.personasclientes.dto.ClienteLoteResultado;
+import com.bank.personasclientes.service.ClienteLoteService;
+import com.bank.personasclientes.service.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ClienteLoteServiceTest {
+
+    @Test
+    @DisplayName("Si el tramo choca dos veces con altas concurrentes se sigue fila por fila y se marca cada conflicto")
+    void conflictos_repetidos_se_resuelven_por_fila() throws Exception {
+        var jdbc = mock(JdbcTemplate.class);
+        when(jdbc.batchUpdate(startsWith("INSERT INTO persona"), anyList()))
+                .thenThrow(new DuplicateKeyException("persona_identificacion_key"))
+                .thenThrow(new DuplicateKeyException("cliente_client_id_key"))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DuplicateKeyException("persona_identificacion_key"))
+                .thenReturn(new int[]{1});
+        when(jdbc.batchUpdate(startsWith("INSERT INTO cliente"), anyList()))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DuplicateKeyException("cliente_client_id_key"))
+                .thenReturn(new int[]{1});
+        // Consultas de identificación: inicial, tras el primer choque y una por cada fila que choca.
+        var consultas = new AtomicInteger();
+        var rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn("id-1");
+        doAnswer(inv -> {
+            if (consultas.incrementAndGet() == 3) inv.getArgument(2, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(jdbc).query(startsWith("SELECT identificacion"), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+
+        var service = new ClienteLoteService(jdbc, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new PasswordHasher(4, 1, 100, new SimpleMeterRegistry()), 1000, 500);
+
+        var resultados = service.crear(List.of(
+                cliente("id-0", "c-0"), cliente("id-1", "c-1"), cliente("id-2", "c-2"),
+                cliente("id-9", "c-0"), cliente("id-9", "c-4")));
+
+        assertEquals(ClienteLoteResultado.CREADO, resultados.get(0).estado());
+        assertEquals("IDENTIFICACION_EXISTS", resultados.get(1).code());
+        assertEquals("CLIENT_ID_EXISTS", resultados.get(2).code());
+        assertEquals("CLIENT_ID_EXISTS", resultados.get(3).code());
+        // El rechazo anterior por clientId no deja reservada su identificación.
+        assertEquals(ClienteLoteResultado.CREADO, resultados.get(4).estado());
+        assertEquals(4, consultas.get());
+    }
+
+    private static ClienteCreateRequest cliente(String identificacion, String clientId) {
+        return new ClienteCreateRequest("Nombre " + clientId, "F", 30, identificacion, "Calle 1", "300",
+                clientId, "secreta", "ACTIVE");
+    }
+}
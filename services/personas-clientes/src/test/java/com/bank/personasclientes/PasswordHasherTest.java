@@ -0,0 +1,26 @@
+package com.bank.personasclientes;
+
+import com.bank.personasclientes.handler.ColaSaturadaException;
+import com.bank.personasclientes.service.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    @Test
+    @DisplayName("Con la cola de BCrypt llena el lote se rechaza con PASSWORD_HASH_BUSY y el pool sigue atendiendo")
+    void cola_llena_es_cola_saturada() {
+        // Un hilo y un lugar en cola: el tercer hash del lote ya no entra mientras el primero calcula.
+        var hasher = new PasswordHasher(12, 1, 1, new SimpleMeterRegistry());
+
+        var ex = assertThrows(ColaSaturadaException.class, () -> hasher.hashTodos(List.of("a", "b", "c")));
+        assertEquals("PASSWORD_HASH_BUSY", ex.getCode());
+
+        assertTrue(hasher.hash("d").startsWith("$2a$12$"));
+    }
+}